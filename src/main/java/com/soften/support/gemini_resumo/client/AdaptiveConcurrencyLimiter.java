@@ -0,0 +1,176 @@
+package com.soften.support.gemini_resumo.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double averageLatencyNanos;
+
+    private final Counter rejected;
+    private final Counter throttled;
+
+    public AdaptiveConcurrencyLimiter(String name, MeterRegistry meterRegistry, int initialLimit, int minLimit,
+                                      int maxLimit, int maxQueue, Duration maxWait, double backoffRatio,
+                                      double latencyTolerance) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        this.rejected = Counter.builder("gemini.limiter.rejected").tag("operation", name).register(meterRegistry);
+        this.throttled = Counter.builder("gemini.limiter.throttled").tag("operation", name).register(meterRegistry);
+        Gauge.builder("gemini.limiter.limit", this::getLimit).tag("operation", name).register(meterRegistry);
+        Gauge.builder("gemini.limiter.in-flight", this::getInFlight).tag("operation", name).register(meterRegistry);
+        Gauge.builder("gemini.limiter.queued", this::getQueued).tag("operation", name).register(meterRegistry);
+    }
+
+    public void acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return;
+            }
+            if (queued >= maxQueue) {
+                rejected.increment();
+                throw new GeminiRateLimitException(
+                        "Fila de chamadas ao Gemini cheia para " + name + " (" + queued + " aguardando)", maxWait);
+            }
+
+            queued++;
+            try {
+                long remaining = maxWait.toNanos();
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejected.increment();
+                        throw new GeminiRateLimitException(
+                                "Tempo de espera por vaga no Gemini esgotado para " + name + " (limite atual "
+                                        + (int) limit + ")",
+                                maxWait);
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrompido aguardando vaga no Gemini", e);
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit / 2;
+            boolean latencyOk = averageLatencyNanos == 0 || latencyNanos <= averageLatencyNanos * latencyTolerance;
+            averageLatencyNanos = averageLatencyNanos == 0
+                    ? latencyNanos
+                    : averageLatencyNanos * 0.9 + latencyNanos * 0.1;
+
+            if (saturated && latencyOk) {
+                int before = (int) limit;
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+                if ((int) limit > before) {
+                    released.signal();
+                }
+            }
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onDropped() {
+        lock.lock();
+        try {
+            throttled.increment();
+            limit = Math.max(minLimit, limit * backoffRatio);
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onIgnore() {
+        lock.lock();
+        try {
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        inFlight--;
+        released.signal();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAverageLatencyMillis() {
+        lock.lock();
+        try {
+            return TimeUnit.NANOSECONDS.toMillis((long) averageLatencyNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.soften.support.gemini_resumo.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final long NOT_A_PROBE = -1;
+
+    private final String name;
+    private final boolean[] window;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private long halfOpenGeneration;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(String name, int windowSize, int minCalls, double failureRateThreshold,
+                          Duration openDuration, int halfOpenCalls) {
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public <T> T call(Supplier<T> supplier) {
+        long probe = acquirePermission();
+        boolean succeeded = false;
+        try {
+            T result = supplier.get();
+            succeeded = true;
+            return result;
+        } finally {
+            if (succeeded) {
+                onSuccess(probe);
+            } else {
+                onFailure(probe);
+            }
+        }
+    }
+
+    public boolean isCallPermitted() {
+        lock.lock();
+        try {
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> System.nanoTime() - openedAt >= openDurationNanos;
+                case HALF_OPEN -> halfOpenInFlight < halfOpenCalls;
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private long acquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                long elapsed = System.nanoTime() - openedAt;
+                if (elapsed < openDurationNanos) {
+                    throw new CircuitOpenException(name, Duration.ofNanos(openDurationNanos - elapsed));
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenInFlight >= halfOpenCalls) {
+                    throw new CircuitOpenException(name, Duration.ofSeconds(1));
+                }
+                halfOpenInFlight++;
+                return halfOpenGeneration;
+            }
+            return NOT_A_PROBE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSuccess(long probe) {
+        lock.lock();
+        try {
+            if (probe != NOT_A_PROBE) {
+                if (isCurrentProbe(probe)) {
+                    halfOpenInFlight--;
+                    if (++halfOpenSuccesses >= halfOpenCalls) {
+                        transitionTo(State.CLOSED);
+                    }
+                }
+                return;
+            }
+            if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onFailure(long probe) {
+        lock.lock();
+        try {
+            if (probe != NOT_A_PROBE) {
+                if (isCurrentProbe(probe)) {
+                    halfOpenInFlight--;
+                    transitionTo(State.OPEN);
+                }
+                return;
+            }
+            if (state != State.CLOSED) {
+                return;
+            }
+            record(true);
+            if (recorded >= minCalls && (double) failures / recorded >= failureRateThreshold) {
+                transitionTo(State.OPEN);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isCurrentProbe(long probe) {
+        return state == State.HALF_OPEN && probe == halfOpenGeneration;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length && window[next]) {
+            failures--;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+        recorded = Math.min(recorded + 1, window.length);
+    }
+
+    private void transitionTo(State newState) {
+        if (state == newState) {
+            return;
+        }
+        System.out.println("⚡ Circuit breaker [" + name + "]: " + state + " -> " + newState);
+        state = newState;
+        halfOpenSuccesses = 0;
+        if (newState == State.HALF_OPEN) {
+            halfOpenGeneration++;
+            halfOpenInFlight = 0;
+        }
+        if (newState == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+        if (newState == State.CLOSED) {
+            Arrays.fill(window, false);
+            next = 0;
+            recorded = 0;
+            failures = 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.soften.support.gemini_resumo.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+public class CircuitBreakerRegistry {
+
+    public enum Circuit {
+        SUMMARY,
+        SIMILARITY,
+        TIPS,
+        FILE_SEARCH
+    }
+
+    private final Map<Circuit, CircuitBreaker> breakers = new EnumMap<>(Circuit.class);
+
+    public CircuitBreakerRegistry(MeterRegistry meterRegistry,
+                                  @Value("${gemini.circuit.window-size:20}") int windowSize,
+                                  @Value("${gemini.circuit.min-calls:10}") int minCalls,
+                                  @Value("${gemini.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                  @Value("${gemini.circuit.open-duration:30s}") Duration openDuration,
+                                  @Value("${gemini.circuit.half-open-calls:3}") int halfOpenCalls) {
+        for (Circuit circuit : Circuit.values()) {
+            CircuitBreaker breaker = new CircuitBreaker(circuit.name().toLowerCase(), windowSize, minCalls,
+                    failureRateThreshold, openDuration, halfOpenCalls);
+            breakers.put(circuit, breaker);
+            Gauge.builder("gemini.circuit.state", breaker, b -> b.getState().ordinal())
+                    .tag("circuit", breaker.getName())
+                    .description("0 = CLOSED, 1 = OPEN, 2 = HALF_OPEN")
+                    .register(meterRegistry);
+        }
+    }
+
+    public CircuitBreaker get(Circuit circuit) {
+        return breakers.get(circuit);
+    }
+}
@@ -0,0 +1,18 @@
+package com.soften.support.gemini_resumo.client;
+
+import java.time.Duration;
+
+public class CircuitOpenException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public CircuitOpenException(String circuit, Duration retryAfter) {
+        super("Gemini indisponível para '" + circuit + "' (circuito aberto), tente novamente em "
+                + Math.max(1, retryAfter.toSeconds()) + "s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
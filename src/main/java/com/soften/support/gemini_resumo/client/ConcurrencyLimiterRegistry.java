@@ -0,0 +1,36 @@
+package com.soften.support.gemini_resumo.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final Map<GeminiHttpClient.Operation, AdaptiveConcurrencyLimiter> limiters =
+            new EnumMap<>(GeminiHttpClient.Operation.class);
+
+    public ConcurrencyLimiterRegistry(MeterRegistry meterRegistry,
+                                      @Value("${gemini.limiter.initial-limit:16}") int initialLimit,
+                                      @Value("${gemini.limiter.min-limit:2}") int minLimit,
+                                      @Value("${gemini.limiter.max-limit:200}") int maxLimit,
+                                      @Value("${gemini.limiter.max-queue:2000}") int maxQueue,
+                                      @Value("${gemini.limiter.max-wait:30s}") Duration maxWait,
+                                      @Value("${gemini.limiter.backoff-ratio:0.7}") double backoffRatio,
+                                      @Value("${gemini.limiter.latency-tolerance:2.0}") double latencyTolerance) {
+        for (GeminiHttpClient.Operation operation : GeminiHttpClient.Operation.values()) {
+            if (operation.isModelCall()) {
+                limiters.put(operation, new AdaptiveConcurrencyLimiter(operation.name().toLowerCase(), meterRegistry,
+                        initialLimit, minLimit, maxLimit, maxQueue, maxWait, backoffRatio, latencyTolerance));
+            }
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter get(GeminiHttpClient.Operation operation) {
+        return limiters.get(operation);
+    }
+}
@@ -0,0 +1,8 @@
+package com.soften.support.gemini_resumo.client;
+
+public class GeminiApiException extends RuntimeException {
+
+    public GeminiApiException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
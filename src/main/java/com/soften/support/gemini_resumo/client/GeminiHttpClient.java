@@ -0,0 +1,397 @@
+package com.soften.support.gemini_resumo.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Component
+public class GeminiHttpClient {
+
+    public enum Operation {
+        GENERATE(true),
+        FILE_SEARCH(true),
+        EMBED(true),
+        UPLOAD(false),
+        ADMIN(false);
+
+        private final boolean modelCall;
+
+        Operation(boolean modelCall) {
+            this.modelCall = modelCall;
+        }
+
+        public boolean isModelCall() {
+            return modelCall;
+        }
+    }
+
+    private static final Pattern RETRY_DELAY = Pattern.compile("\"retryDelay\"\\s*:\\s*\"(\\d+)(?:\\.\\d+)?s\"");
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(5);
+    private static final long HEDGE_BUDGET_CAP_MILLIS = 10_000;
+
+    private final Map<Operation, RestTemplate> templates = new EnumMap<>(Operation.class);
+    private final Semaphore permits;
+    private final int maxConcurrentRequests;
+    private final Duration acquireTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Timer acquireTimer;
+    private final ConcurrencyLimiterRegistry limiters;
+
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final double hedgeMaxExtraLoad;
+    private final AtomicLong hedgeBudgetMillis = new AtomicLong();
+    private final Map<Operation, LatencyTracker> latencyTrackers = new EnumMap<>(Operation.class);
+    private final ExecutorService hedgeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public GeminiHttpClient(HttpClient geminiHttpClient,
+                            MeterRegistry meterRegistry,
+                            ConcurrencyLimiterRegistry limiters,
+                            @Value("${gemini.http.max-concurrent-requests:64}") int maxConcurrentRequests,
+                            @Value("${gemini.http.pool-acquire-timeout:10s}") Duration acquireTimeout,
+                            @Value("${gemini.http.timeout.generate:60s}") Duration generateTimeout,
+                            @Value("${gemini.http.timeout.file-search:45s}") Duration fileSearchTimeout,
+                            @Value("${gemini.http.timeout.embed:15s}") Duration embedTimeout,
+                            @Value("${gemini.http.timeout.upload:5m}") Duration uploadTimeout,
+                            @Value("${gemini.http.timeout.admin:15s}") Duration adminTimeout,
+                            @Value("${gemini.retry.max-attempts:3}") int maxAttempts,
+                            @Value("${gemini.retry.base-backoff:500ms}") Duration baseBackoff,
+                            @Value("${gemini.retry.max-backoff:10s}") Duration maxBackoff,
+                            @Value("${gemini.hedging.enabled:false}") boolean hedgingEnabled,
+                            @Value("${gemini.hedging.percentile:0.95}") double hedgePercentile,
+                            @Value("${gemini.hedging.min-samples:20}") int hedgeMinSamples,
+                            @Value("${gemini.hedging.max-extra-load:0.1}") double hedgeMaxExtraLoad) {
+        this.meterRegistry = meterRegistry;
+        this.limiters = limiters;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMaxExtraLoad = hedgeMaxExtraLoad;
+        for (Operation operation : Operation.values()) {
+            latencyTrackers.put(operation, new LatencyTracker(256, hedgeMinSamples));
+        }
+        this.hedgesSent = Counter.builder("gemini.hedging.sent").register(meterRegistry);
+        this.hedgesWon = Counter.builder("gemini.hedging.won").register(meterRegistry);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.acquireTimeout = acquireTimeout;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+
+        templates.put(Operation.GENERATE, createTemplate(geminiHttpClient, generateTimeout));
+        templates.put(Operation.FILE_SEARCH, createTemplate(geminiHttpClient, fileSearchTimeout));
+        templates.put(Operation.EMBED, createTemplate(geminiHttpClient, embedTimeout));
+        templates.put(Operation.UPLOAD, createTemplate(geminiHttpClient, uploadTimeout));
+        templates.put(Operation.ADMIN, createTemplate(geminiHttpClient, adminTimeout));
+
+        this.acquireTimer = Timer.builder("gemini.http.pool.acquire")
+                .description("Tempo de espera por uma vaga no pool de requisições ao Google")
+                .register(meterRegistry);
+        Gauge.builder("gemini.http.pool.max", () -> this.maxConcurrentRequests).register(meterRegistry);
+        Gauge.builder("gemini.http.pool.active", this::getActiveRequests).register(meterRegistry);
+        Gauge.builder("gemini.http.pool.pending", permits::getQueueLength).register(meterRegistry);
+    }
+
+    private RestTemplate createTemplate(HttpClient httpClient, Duration readTimeout) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(readTimeout);
+        return new RestTemplate(factory);
+    }
+
+    public ResponseEntity<String> post(Operation operation, String url, HttpEntity<?> entity) {
+        return call(operation, true, () -> templates.get(operation).postForEntity(url, entity, String.class));
+    }
+
+    public ResponseEntity<String> get(Operation operation, String url) {
+        return call(operation, true, () -> templates.get(operation).getForEntity(url, String.class));
+    }
+
+    public void delete(Operation operation, String url) {
+        call(operation, true, () -> {
+            templates.get(operation).delete(url);
+            return null;
+        });
+    }
+
+    public <T> T execute(Operation operation, String url, HttpMethod method,
+                         RequestCallback requestCallback, ResponseExtractor<T> responseExtractor) {
+        return call(operation, false,
+                () -> templates.get(operation).execute(url, method, requestCallback, responseExtractor));
+    }
+
+    public int getActiveRequests() {
+        return maxConcurrentRequests - permits.availablePermits();
+    }
+
+    public int getPendingRequests() {
+        return permits.getQueueLength();
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    private <T> T call(Operation operation, boolean replayable, Supplier<T> request) {
+        if (!operation.isModelCall()) {
+            return send(operation, request);
+        }
+
+        int attempt = 1;
+        while (true) {
+            try {
+                return replayable && hedgingEnabled ? hedged(operation, request) : limited(operation, request);
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                Duration retryAfter = retryAfter(e);
+                if (attempt >= maxAttempts || retryAfter.compareTo(maxBackoff) > 0) {
+                    throw new GeminiRateLimitException("Cota do Gemini excedida (429) em " + operation, retryAfter);
+                }
+                backoff(operation, attempt, retryAfter, e);
+            } catch (HttpServerErrorException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backoff(operation, attempt, hasRetryAfter(e) ? retryAfter(e) : Duration.ZERO, e);
+            } catch (ResourceAccessException e) {
+                if (!replayable || attempt >= maxAttempts) {
+                    throw e;
+                }
+                backoff(operation, attempt, Duration.ZERO, e);
+            }
+            attempt++;
+        }
+    }
+
+    private void backoff(Operation operation, int attempt, Duration retryAfter, Exception cause) {
+        long ceiling = Math.min(maxBackoff.toMillis(), baseBackoff.toMillis() << Math.min(attempt - 1, 20));
+        long jittered = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        long sleepMillis = Math.min(maxBackoff.toMillis(), Math.max(retryAfter.toMillis(), jittered));
+
+        System.out.println("🔁 Retentando " + operation + " (tentativa " + (attempt + 1) + "/" + maxAttempts
+                + ") em " + sleepMillis + "ms após: " + cause.getMessage());
+        Counter.builder("gemini.http.retries").tag("operation", operation.name()).register(meterRegistry).increment();
+
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrompido aguardando nova tentativa ao Gemini", e);
+        }
+    }
+
+    private <T> T hedged(Operation operation, Supplier<T> request) {
+        long hedgeDelayNanos = latencyTrackers.get(operation).percentileNanos(hedgePercentile);
+        depositHedgeBudget();
+        if (hedgeDelayNanos <= 0) {
+            return limited(operation, request);
+        }
+
+        HedgeAttempt<T> primaryAttempt = startAttempt(operation, request);
+        CompletableFuture<T> primary = primaryAttempt.result();
+        try {
+            return primary.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (!tryWithdrawHedgeBudget()) {
+                return join(primary);
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            primaryAttempt.task().cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrompido aguardando resposta do Gemini", e);
+        }
+
+        hedgesSent.increment();
+        HedgeAttempt<T> hedgeAttempt = startAttempt(operation, request);
+        CompletableFuture<T> hedge = hedgeAttempt.result();
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        winner.whenComplete((result, error) -> {
+            primaryAttempt.task().cancel(true);
+            hedgeAttempt.task().cancel(true);
+        });
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<T, Throwable> firstSuccess = (result, error) -> {
+            if (error == null) {
+                winner.complete(result);
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(error);
+            }
+        };
+        primary.whenComplete(firstSuccess);
+        hedge.whenComplete((result, error) -> {
+            if (error == null && !primary.isDone()) {
+                hedgesWon.increment();
+            }
+            firstSuccess.accept(result, error);
+        });
+        return join(winner);
+    }
+
+    private record HedgeAttempt<T>(CompletableFuture<T> result, Future<?> task) {
+    }
+
+    private <T> HedgeAttempt<T> startAttempt(Operation operation, Supplier<T> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = hedgeExecutor.submit(() -> {
+            try {
+                result.complete(limited(operation, request));
+            } catch (Throwable error) {
+                result.completeExceptionally(error);
+            }
+        });
+        return new HedgeAttempt<>(result, task);
+    }
+
+    private void depositHedgeBudget() {
+        hedgeBudgetMillis.updateAndGet(tokens -> Math.min(HEDGE_BUDGET_CAP_MILLIS,
+                tokens + (long) (hedgeMaxExtraLoad * 1000)));
+    }
+
+    private boolean tryWithdrawHedgeBudget() {
+        while (true) {
+            long tokens = hedgeBudgetMillis.get();
+            if (tokens < 1000) {
+                return false;
+            }
+            if (hedgeBudgetMillis.compareAndSet(tokens, tokens - 1000)) {
+                return true;
+            }
+        }
+    }
+
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private RuntimeException unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new RuntimeException(error.getMessage(), error);
+    }
+
+    private <T> T limited(Operation operation, Supplier<T> request) {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(operation);
+        limiter.acquire();
+        long start = System.nanoTime();
+        try {
+            T result = send(operation, request);
+            long latency = System.nanoTime() - start;
+            latencyTrackers.get(operation).record(latency);
+            limiter.onSuccess(latency);
+            return result;
+        } catch (HttpClientErrorException.TooManyRequests | ResourceAccessException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                limiter.onIgnore();
+            } else {
+                limiter.onDropped();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            limiter.onIgnore();
+            throw e;
+        }
+    }
+
+    private <T> T send(Operation operation, Supplier<T> request) {
+        acquire(operation);
+        long start = System.nanoTime();
+        String outcome = "SUCCESS";
+        try {
+            return request.get();
+        } catch (RestClientResponseException e) {
+            outcome = String.valueOf(e.getStatusCode().value());
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            permits.release();
+            Timer.builder("gemini.http.requests")
+                    .tag("operation", operation.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static boolean hasRetryAfter(RestClientResponseException e) {
+        return e.getResponseHeaders() != null && e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) != null;
+    }
+
+    static Duration retryAfter(RestClientResponseException e) {
+        String header = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (header != null && header.trim().matches("\\d+")) {
+            return Duration.ofSeconds(Long.parseLong(header.trim()));
+        }
+        Matcher m = RETRY_DELAY.matcher(e.getResponseBodyAsString());
+        if (m.find()) {
+            return Duration.ofSeconds(Long.parseLong(m.group(1)));
+        }
+        return DEFAULT_RETRY_AFTER;
+    }
+
+    private void acquire(Operation operation) {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Pool de conexões com o Google esgotado para " + operation
+                        + " (" + maxConcurrentRequests + " requisições em andamento)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrompido aguardando conexão com o Google", e);
+        } finally {
+            acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.soften.support.gemini_resumo.client;
+
+import java.time.Duration;
+
+public class GeminiRateLimitException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public GeminiRateLimitException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
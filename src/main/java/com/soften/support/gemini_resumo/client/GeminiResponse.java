@@ -0,0 +1,15 @@
+package com.soften.support.gemini_resumo.client;
+
+public record GeminiResponse(
+        boolean hasCandidates,
+        String text,
+        String finishReason,
+        int promptTokens,
+        int cachedTokens,
+        int outputTokens,
+        int totalTokens
+) {
+    public boolean hasUsage() {
+        return totalTokens > 0;
+    }
+}
@@ -0,0 +1,156 @@
+package com.soften.support.gemini_resumo.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Component
+public class GeminiResponseDecoder {
+
+    private static final class Fields {
+        boolean hasCandidates;
+        StringBuilder text;
+        String finishReason;
+        int promptTokens;
+        int cachedTokens;
+        int outputTokens;
+        int totalTokens;
+    }
+
+    private final JsonFactory jsonFactory;
+
+    public GeminiResponseDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public GeminiResponse decode(String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return decode(parser);
+        }
+    }
+
+    public GeminiResponse decode(InputStream json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return decode(parser);
+        }
+    }
+
+    private GeminiResponse decode(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Resposta do Gemini não é um objeto JSON");
+        }
+
+        Fields fields = new Fields();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "candidates" -> readCandidates(parser, fields);
+                case "usageMetadata" -> readUsage(parser, fields);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new GeminiResponse(
+                fields.hasCandidates,
+                fields.text != null ? fields.text.toString() : null,
+                fields.finishReason,
+                fields.promptTokens,
+                fields.cachedTokens,
+                fields.outputTokens,
+                fields.totalTokens
+        );
+    }
+
+    private void readCandidates(JsonParser parser, Fields fields) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (!fields.hasCandidates && parser.currentToken() == JsonToken.START_OBJECT) {
+                fields.hasCandidates = true;
+                readCandidate(parser, fields);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readCandidate(JsonParser parser, Fields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "content" -> readContent(parser, fields);
+                case "finishReason" -> fields.finishReason = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void readContent(JsonParser parser, Fields fields) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            if ("parts".equals(name) && parser.currentToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken() == JsonToken.START_OBJECT) {
+                        readPart(parser, fields);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readPart(JsonParser parser, Fields fields) throws IOException {
+        String text = null;
+        boolean thought = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "text" -> text = parser.getValueAsString();
+                case "thought" -> thought = parser.getValueAsBoolean();
+                default -> parser.skipChildren();
+            }
+        }
+        if (text != null && !thought) {
+            if (fields.text == null) {
+                fields.text = new StringBuilder(text.length());
+            }
+            fields.text.append(text);
+        }
+    }
+
+    private void readUsage(JsonParser parser, Fields fields) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "promptTokenCount" -> fields.promptTokens = parser.getValueAsInt();
+                case "cachedContentTokenCount" -> fields.cachedTokens = parser.getValueAsInt();
+                case "candidatesTokenCount" -> fields.outputTokens = parser.getValueAsInt();
+                case "totalTokenCount" -> fields.totalTokens = parser.getValueAsInt();
+                default -> parser.skipChildren();
+            }
+        }
+    }
+}
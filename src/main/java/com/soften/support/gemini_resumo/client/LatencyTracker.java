@@ -0,0 +1,45 @@
+package com.soften.support.gemini_resumo.client;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+class LatencyTracker {
+
+    private final long[] samples;
+    private final int minSamples;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int next;
+    private int count;
+
+    LatencyTracker(int windowSize, int minSamples) {
+        this.samples = new long[windowSize];
+        this.minSamples = minSamples;
+    }
+
+    void record(long latencyNanos) {
+        lock.lock();
+        try {
+            samples[next] = latencyNanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long percentileNanos(double percentile) {
+        long[] copy;
+        lock.lock();
+        try {
+            if (count < minSamples) {
+                return -1;
+            }
+            copy = Arrays.copyOf(samples, count);
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * copy.length) - 1;
+        return copy[Math.max(0, Math.min(index, copy.length - 1))];
+    }
+}
@@ -0,0 +1,37 @@
+package com.soften.support.gemini_resumo.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextFreeNanos = System.nanoTime();
+
+    public RateLimiter(double permitsPerSecond) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    public void acquire() {
+        long waitNanos;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        } finally {
+            lock.unlock();
+        }
+
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrompido aguardando cota de requisições", e);
+            }
+        }
+    }
+}
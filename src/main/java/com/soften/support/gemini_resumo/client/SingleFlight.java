@@ -0,0 +1,61 @@
+package com.soften.support.gemini_resumo.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public class SingleFlight<T> {
+
+    private final ConcurrentHashMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("gemini.singleflight").tag("name", name).tag("role", "leader")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("gemini.singleflight").tag("name", name).tag("role", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("gemini.singleflight.in-flight", inFlight, ConcurrentHashMap::size).tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public T execute(String key, Supplier<T> supplier) {
+        CompletableFuture<T> call = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        leaders.increment();
+        try {
+            T result = supplier.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
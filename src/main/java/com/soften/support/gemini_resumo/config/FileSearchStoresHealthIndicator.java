@@ -0,0 +1,29 @@
+package com.soften.support.gemini_resumo.config;
+
+import com.soften.support.gemini_resumo.service.GoogleFileSearchService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+@Component("fileSearchStores")
+public class FileSearchStoresHealthIndicator implements HealthIndicator {
+
+    private final GoogleFileSearchService fileSearchService;
+
+    public FileSearchStoresHealthIndicator(GoogleFileSearchService fileSearchService) {
+        this.fileSearchService = fileSearchService;
+    }
+
+    @Override
+    public Health health() {
+        Instant validatedAt = fileSearchService.getStoresValidatedAt();
+        Health.Builder builder = fileSearchService.storesAvailable() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("classificationStore", String.valueOf(fileSearchService.getClassificationStoreId()))
+                .withDetail("manualsStore", String.valueOf(fileSearchService.getManualsStoreId()))
+                .withDetail("validatedAt", validatedAt != null ? validatedAt.toString() : "pendente")
+                .build();
+    }
+}
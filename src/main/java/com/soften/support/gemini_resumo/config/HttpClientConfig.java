@@ -0,0 +1,29 @@
+package com.soften.support.gemini_resumo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public HttpClient geminiJdkHttpClient(@Value("${gemini.http.connect-timeout:5s}") Duration connectTimeout,
+                                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+
+        if (virtualThreads) {
+            builder.executor(Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("gemini-http-", 0).factory()));
+        }
+
+        return builder.build();
+    }
+}
@@ -13,11 +13,29 @@ public class DocumentationController {
 
     private final com.soften.support.gemini_resumo.service.GeminiService geminiService;
     private final com.soften.support.gemini_resumo.service.GoogleFileSearchService googleFileSearchService;
+    private final com.soften.support.gemini_resumo.service.DocumentIngestService documentIngestService;
+    private final com.soften.support.gemini_resumo.service.UploadOperationService uploadOperationService;
+    private final com.soften.support.gemini_resumo.service.DocumentManifestService documentManifestService;
+    private final com.soften.support.gemini_resumo.service.DocumentManifestReconciler documentManifestReconciler;
+    private final com.soften.support.gemini_resumo.service.DirectorySyncService directorySyncService;
+    private final java.time.Duration maxAwait;
 
     public DocumentationController(com.soften.support.gemini_resumo.service.GeminiService geminiService,
-            com.soften.support.gemini_resumo.service.GoogleFileSearchService googleFileSearchService) {
+            com.soften.support.gemini_resumo.service.GoogleFileSearchService googleFileSearchService,
+            com.soften.support.gemini_resumo.service.DocumentIngestService documentIngestService,
+            com.soften.support.gemini_resumo.service.UploadOperationService uploadOperationService,
+            com.soften.support.gemini_resumo.service.DocumentManifestService documentManifestService,
+            com.soften.support.gemini_resumo.service.DocumentManifestReconciler documentManifestReconciler,
+            com.soften.support.gemini_resumo.service.DirectorySyncService directorySyncService,
+            @org.springframework.beans.factory.annotation.Value("${gemini.upload.poller.max-await:60s}") java.time.Duration maxAwait) {
         this.geminiService = geminiService;
         this.googleFileSearchService = googleFileSearchService;
+        this.documentIngestService = documentIngestService;
+        this.uploadOperationService = uploadOperationService;
+        this.documentManifestService = documentManifestService;
+        this.documentManifestReconciler = documentManifestReconciler;
+        this.directorySyncService = directorySyncService;
+        this.maxAwait = maxAwait;
     }
 
     @PostMapping(consumes = org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -56,19 +74,12 @@ public class DocumentationController {
                 customMetadata.put("descricao", descricao);
             }
 
-            String resultName;
-            if (!customMetadata.isEmpty()) {
-                resultName = googleFileSearchService.uploadFileWithMetadataToManuals(
-                        originalFilename,
-                        file.getBytes(),
-                        contentType,
-                        customMetadata);
-            } else {
-                resultName = googleFileSearchService.uploadFileToManuals(
-                        originalFilename,
-                        file.getBytes(),
-                        contentType);
-            }
+            String resultName = googleFileSearchService.uploadFileWithMetadataToManuals(
+                    originalFilename,
+                    file,
+                    file.getSize(),
+                    contentType,
+                    customMetadata);
 
             return ResponseEntity.ok(Map.of(
                     "message", "File uploaded to Google File Search",
@@ -93,11 +104,56 @@ public class DocumentationController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/lote", consumes = org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> addDocumentationBulk(
+            @RequestParam("arquivo") org.springframework.web.multipart.MultipartFile archive,
+            @RequestParam(value = "manifesto", required = false) org.springframework.web.multipart.MultipartFile manifest,
+            @RequestParam(value = "paralelismo", required = false) Integer paralelismo) {
+
+        if (archive.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("erro", "Arquivo ZIP ou tar é obrigatório."));
+        }
+
+        Map<String, Map<String, String>> metadata = null;
+        if (manifest != null && !manifest.isEmpty()) {
+            try (java.io.InputStream in = manifest.getInputStream()) {
+                metadata = documentIngestService.parseManifest(in);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("erro", "Manifesto inválido: " + e.getMessage()));
+            }
+        }
+
+        try (java.io.InputStream in = archive.getInputStream()) {
+            return ResponseEntity.ok(documentIngestService.ingest(in, metadata, paralelismo));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("erro", "Erro na ingestão em lote: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/operations")
+    public ResponseEntity<?> operationStatus(
+            @RequestParam("nome") String nome,
+            @RequestParam(value = "aguardar", required = false) Integer aguardar) {
+
+        java.util.Optional<com.soften.support.gemini_resumo.models.dtos.UploadOperationDto> operation = aguardar == null
+                || aguardar <= 0
+                        ? uploadOperationService.find(nome)
+                        : uploadOperationService.await(nome,
+                                java.time.Duration.ofSeconds(Math.min(aguardar, maxAwait.toSeconds())));
+
+        return operation
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity
+                        .status(org.springframework.http.HttpStatus.NOT_FOUND)
+                        .body(Map.of("erro", "Operação não encontrada: " + nome)));
+    }
+
     @GetMapping("/list")
     public ResponseEntity<?> listAllFiles() {
         try {
-            var classFiles = googleFileSearchService.listClassificationFiles();
-            var manualFiles = googleFileSearchService.listFiles(googleFileSearchService.getManualsStoreId());
+            var classFiles = documentManifestService.list(googleFileSearchService.getClassificationStoreId());
+            var manualFiles = documentManifestService.list(googleFileSearchService.getManualsStoreId());
 
             return ResponseEntity.ok(Map.of(
                     "classificationStore", classFiles,
@@ -111,8 +167,16 @@ public class DocumentationController {
     }
 
     @GetMapping("/store-info")
-    public ResponseEntity<?> getStoreInfo() {
+    public ResponseEntity<?> getStoreInfo(@RequestParam(value = "remoto", defaultValue = "false") boolean remoto) {
         try {
+            if (!remoto) {
+                return ResponseEntity.ok(Map.of(
+                        "classificationStore",
+                        documentManifestService.summary(googleFileSearchService.getClassificationStoreId()),
+                        "manualsStore",
+                        documentManifestService.summary(googleFileSearchService.getManualsStoreId())));
+            }
+
             org.json.JSONObject classInfo = googleFileSearchService
                     .getStoreInfo(googleFileSearchService.getClassificationStoreId());
             org.json.JSONObject manualInfo = googleFileSearchService
@@ -127,6 +191,25 @@ public class DocumentationController {
         }
     }
 
+    @PostMapping("/sync")
+    public ResponseEntity<?> syncManifest() {
+        return ResponseEntity.ok(documentManifestReconciler.reconcile());
+    }
+
+    @PostMapping("/sync-directory")
+    public ResponseEntity<?> syncDirectory() {
+        if (!directorySyncService.isConfigured()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("erro", "Diretório de manuais não configurado (gemini.sync.manuals-dir)."));
+        }
+        try {
+            return ResponseEntity.ok(directorySyncService.syncManuals());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("erro", "Erro na sincronização do diretório: " + e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteFile(@PathVariable String id) {
         boolean deleted = googleFileSearchService.deleteFile(id);
@@ -141,22 +224,25 @@ public class DocumentationController {
     public ResponseEntity<?> resetStore() {
         try {
             System.out.println("⚠️ Recebido comando de RESET de base via API");
-            boolean deleted = googleFileSearchService.deleteStores();
-            if (deleted) {
-                return ResponseEntity.ok(Map.of(
-                        "status", "success",
-                        "message", "All File Search Stores deleted. Please RESTART the application to recreate them.",
-                        "note", "A reinicialização é necessária para que o @PostConstruct recrie os IDs."));
-            } else {
-                return ResponseEntity.ok(Map.of(
-                        "status", "partial_success",
-                        "message", "Nenhum store foi encontrado ou deletado (talvez já estivessem vazios)."));
+            com.soften.support.gemini_resumo.models.dtos.StoreResetDto result = googleFileSearchService.deleteStores();
+            if ("ERRO".equals(result.status())) {
+                return ResponseEntity.internalServerError().body(result);
             }
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             System.err.println("❌ Erro no reset: " + e.getMessage());
-            return ResponseEntity.internalServerError().body(Map.of(
+            return ResponseEntity.status(org.springframework.http.HttpStatus.CONFLICT).body(Map.of(
                     "status", "error",
                     "message", e.getMessage()));
         }
     }
+
+    @GetMapping("/reset/status")
+    public ResponseEntity<?> resetStatus() {
+        return googleFileSearchService.resetProgress()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity
+                        .status(org.springframework.http.HttpStatus.NOT_FOUND)
+                        .body(Map.of("erro", "Nenhum reset executado desde a inicialização.")));
+    }
 }
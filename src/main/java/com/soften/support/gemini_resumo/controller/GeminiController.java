@@ -1,12 +1,30 @@
 package com.soften.support.gemini_resumo.controller;
 
+import com.soften.support.gemini_resumo.client.CircuitOpenException;
+import com.soften.support.gemini_resumo.client.GeminiApiException;
+import com.soften.support.gemini_resumo.client.GeminiRateLimitException;
+import com.soften.support.gemini_resumo.models.dtos.BatchSummaryRequestDto;
+import com.soften.support.gemini_resumo.models.dtos.PreprocessedTranscript;
+import com.soften.support.gemini_resumo.models.dtos.SummaryDto;
+import com.soften.support.gemini_resumo.service.BatchSummaryService;
 import com.soften.support.gemini_resumo.service.CalledService;
-import com.soften.support.gemini_resumo.service.GeminiService;
+import com.soften.support.gemini_resumo.service.SummaryService;
+import com.soften.support.gemini_resumo.service.TranscriptPreprocessor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
 import java.util.Map;
 
 @RestController
@@ -14,12 +32,24 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class GeminiController {
 
-    private final GeminiService geminiService;
+    private final SummaryService summaryService;
     private final CalledService calledService;
+    private final BatchSummaryService batchSummaryService;
+    private final TranscriptPreprocessor preprocessor;
+    private final AsyncTaskExecutor taskExecutor;
+    private final Duration streamTimeout;
 
-    public GeminiController(GeminiService geminiService, CalledService calledService) {
-        this.geminiService = geminiService;
+    public GeminiController(SummaryService summaryService, CalledService calledService,
+                            BatchSummaryService batchSummaryService,
+                            TranscriptPreprocessor preprocessor,
+                            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                            @Value("${gemini.stream.timeout:120s}") Duration streamTimeout) {
+        this.summaryService = summaryService;
         this.calledService = calledService;
+        this.batchSummaryService = batchSummaryService;
+        this.preprocessor = preprocessor;
+        this.taskExecutor = taskExecutor;
+        this.streamTimeout = streamTimeout;
     }
 
     @PostMapping(value = "/resumir", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -37,35 +67,77 @@ public class GeminiController {
                     .body(Map.of("erro", "Campo 'texto' não pode estar vazio."));
         }
 
-        try {
-            String summary = geminiService.generateSummary(texto);
-            calledService.SaveCall(summary);
+        PreprocessedTranscript transcript = preprocessor.process(texto);
+        SummaryDto summary = summaryService.createDtoSummary(transcript);
+        calledService.SaveCall(summary.formatSummary());
 
-            return ResponseEntity.ok(Map.of("summary", summary));
-        } catch (RuntimeException e) {
-            return ResponseEntity
-                    .status(HttpStatus.BAD_GATEWAY)
-                    .body(Map.of("erro", e.getMessage()));
-        }
+        return ResponseEntity.ok(Map.of("summary", summary.fullSummary(), "preprocessamento", transcript.report()));
     }
 
     @PostMapping(value = "/resumir", consumes = MediaType.TEXT_PLAIN_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> resumirPlainText(@RequestBody String texto) {
-        if (texto == null || texto.trim().isEmpty()) {
+    public ResponseEntity<?> resumirPlainText(Reader texto) {
+        PreprocessedTranscript transcript = preprocessor.process(texto);
+        if (transcript.text().isBlank()) {
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("erro", "Body não pode estar vazio."));
         }
-        try {
-            String resumo = geminiService.generateSummary(texto.trim());
-            calledService.SaveCall(resumo);
+        SummaryDto resumo = summaryService.createDtoSummary(transcript);
+        calledService.SaveCall(resumo.formatSummary());
+
+        return ResponseEntity.ok(Map.of("summary", resumo.fullSummary(), "preprocessamento", transcript.report()));
+    }
 
-            return ResponseEntity.ok(Map.of("summary", resumo));
-        } catch (RuntimeException e) {
+    @PostMapping(value = "/resumir/lote", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> resumirLote(@RequestBody BatchSummaryRequestDto body) {
+        if (body.textos() == null || body.textos().isEmpty()) {
             return ResponseEntity
-                    .status(HttpStatus.BAD_GATEWAY)
-                    .body(Map.of("erro", e.getMessage()));
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("erro", "Campo 'textos' é obrigatório e não pode estar vazio."));
+        }
+        if (body.textos().size() > batchSummaryService.getMaxItems()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("erro", "O lote aceita no máximo " + batchSummaryService.getMaxItems() + " textos."));
         }
+
+        return ResponseEntity.ok(batchSummaryService.summarize(body.textos(), body.paralelismo()));
+    }
+
+    @PostMapping(value = "/resumir/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> resumirStream(@RequestBody Map<String, Object> body) {
+        Object textoObj = body.get("texto");
+        String texto = textoObj != null ? textoObj.toString().trim() : "";
+        if (texto.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("erro", "Campo 'texto' é obrigatório no body JSON."));
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        taskExecutor.execute(() -> {
+            try {
+                SummaryDto summary = calledService.streamSummaryAndSave(texto, chunk -> {
+                    try {
+                        emitter.send(SseEmitter.event().name("chunk").data(chunk, MediaType.TEXT_PLAIN));
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Cliente desconectou durante o streaming", e);
+                    }
+                });
+                emitter.send(SseEmitter.event().name("summary").data(summary, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (Exception e) {
+                try {
+                    emitter.send(SseEmitter.event().name("erro").data(Map.of("erro", String.valueOf(e.getMessage())),
+                            MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (Exception sendError) {
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
     }
 
     @GetMapping("/ping")
@@ -73,4 +145,46 @@ public class GeminiController {
         return ResponseEntity.ok(Map.of("status", "ok", "app", "gemini-summary"));
     }
 
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<?> circuitOpen(CircuitOpenException e) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfter(e.getRetryAfter()))
+                .body(Map.of("erro", e.getMessage()));
+    }
+
+    @ExceptionHandler(GeminiRateLimitException.class)
+    public ResponseEntity<?> rateLimited(GeminiRateLimitException e) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfter(e.getRetryAfter()))
+                .body(Map.of("erro", e.getMessage()));
+    }
+
+    @ExceptionHandler({GeminiApiException.class, RestClientException.class})
+    public ResponseEntity<?> upstreamFailure(RuntimeException e) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_GATEWAY)
+                .body(Map.of("erro", String.valueOf(e.getMessage())));
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<?> unreadableBody(HttpMessageNotReadableException e) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("erro", "Body da requisição inválido."));
+    }
+
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<?> internalFailure(RuntimeException e) {
+        e.printStackTrace();
+        return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("erro", "Erro interno ao processar o resumo: " + e.getMessage()));
+    }
+
+    private static String retryAfter(Duration retryAfter) {
+        return String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
 }
@@ -0,0 +1,59 @@
+package com.soften.support.gemini_resumo.controller;
+
+import com.soften.support.gemini_resumo.models.dtos.TextCalledDto;
+import com.soften.support.gemini_resumo.models.entities.JobEntity;
+import com.soften.support.gemini_resumo.models.enums.JobType;
+import com.soften.support.gemini_resumo.service.JobService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = "*")
+public class JobController {
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping("/resumir")
+    public ResponseEntity<?> enqueueSummary(@RequestBody TextCalledDto dto) {
+        return enqueue(JobType.SUMMARY, dto);
+    }
+
+    @PostMapping("/processar-dica")
+    public ResponseEntity<?> enqueueTip(@RequestBody TextCalledDto dto) {
+        return enqueue(JobType.TIP, dto);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> status(@PathVariable UUID id) {
+        return jobService.find(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("erro", "Job não encontrado: " + id)));
+    }
+
+    private ResponseEntity<?> enqueue(JobType type, TextCalledDto dto) {
+        if (dto == null || dto.texto() == null || dto.texto().isBlank()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("erro", "Campo 'texto' é obrigatório no body JSON."));
+        }
+
+        JobEntity job = jobService.enqueue(type, dto.texto().trim());
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(Map.of(
+                        "id", job.getId(),
+                        "status", job.getStatus(),
+                        "statusUrl", "/api/jobs/" + job.getId()));
+    }
+}
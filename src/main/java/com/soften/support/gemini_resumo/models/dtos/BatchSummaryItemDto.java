@@ -0,0 +1,20 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import java.util.UUID;
+
+public record BatchSummaryItemDto(
+        int indice,
+        String status,
+        UUID id,
+        String summary,
+        FormatSummary formatSummary,
+        String erro
+) {
+    public static BatchSummaryItemDto success(int indice, UUID id, String summary, FormatSummary formatSummary) {
+        return new BatchSummaryItemDto(indice, "OK", id, summary, formatSummary, null);
+    }
+
+    public static BatchSummaryItemDto error(int indice, String erro) {
+        return new BatchSummaryItemDto(indice, "ERRO", null, null, null, erro);
+    }
+}
@@ -0,0 +1,8 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import java.util.List;
+
+public record BatchSummaryRequestDto(
+        List<String> textos,
+        Integer paralelismo
+) {}
@@ -0,0 +1,11 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import java.util.List;
+
+public record BatchSummaryResponseDto(
+        int total,
+        int sucesso,
+        int falhas,
+        long duracaoMs,
+        List<BatchSummaryItemDto> itens
+) {}
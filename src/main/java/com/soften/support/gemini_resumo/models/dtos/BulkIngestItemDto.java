@@ -0,0 +1,28 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import java.util.Map;
+
+public record BulkIngestItemDto(
+        String arquivo,
+        String status,
+        String id,
+        long bytes,
+        Map<String, String> metadata,
+        String erro
+) {
+    public static BulkIngestItemDto success(String arquivo, String id, long bytes, Map<String, String> metadata) {
+        return new BulkIngestItemDto(arquivo, "OK", id, bytes, metadata, null);
+    }
+
+    public static BulkIngestItemDto error(String arquivo, long bytes, String erro) {
+        return new BulkIngestItemDto(arquivo, "ERRO", null, bytes, null, erro);
+    }
+
+    public static BulkIngestItemDto removed(String arquivo, String id) {
+        return new BulkIngestItemDto(arquivo, "REMOVIDO", id, 0, null, null);
+    }
+
+    public static BulkIngestItemDto skipped(String arquivo, String motivo) {
+        return new BulkIngestItemDto(arquivo, "IGNORADO", null, 0, null, motivo);
+    }
+}
@@ -0,0 +1,12 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import java.util.List;
+
+public record BulkIngestResponseDto(
+        int total,
+        int sucesso,
+        int falhas,
+        int ignorados,
+        long duracaoMs,
+        List<BulkIngestItemDto> itens
+) {}
@@ -0,0 +1,14 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import java.util.List;
+
+public record DirectorySyncResponseDto(
+        int total,
+        int inalterados,
+        int enviados,
+        int removidos,
+        int ignorados,
+        int falhas,
+        long duracaoMs,
+        List<BulkIngestItemDto> itens
+) {}
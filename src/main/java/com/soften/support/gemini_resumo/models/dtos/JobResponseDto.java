@@ -0,0 +1,19 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.soften.support.gemini_resumo.models.enums.JobStatus;
+import com.soften.support.gemini_resumo.models.enums.JobType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record JobResponseDto(
+        UUID id,
+        JobType type,
+        JobStatus status,
+        int attempts,
+        Instant createdAt,
+        Instant updatedAt,
+        @JsonRawValue String result,
+        String erro
+) {}
@@ -0,0 +1,33 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public record PreprocessedTranscript(
+        String text,
+        int originalChars,
+        int droppedBotLines,
+        int droppedGreetings,
+        int maskedIds
+) {
+    private static final int CHARS_PER_TOKEN = 4;
+
+    public int processedChars() {
+        return text.length();
+    }
+
+    public int estimatedTokensSaved() {
+        return Math.max(0, originalChars - processedChars()) / CHARS_PER_TOKEN;
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("caracteresOriginais", originalChars);
+        report.put("caracteresEnviados", processedChars());
+        report.put("tokensEstimadosEconomizados", estimatedTokensSaved());
+        report.put("mensagensBotRemovidas", droppedBotLines);
+        report.put("saudacoesRemovidas", droppedGreetings);
+        report.put("idsMascarados", maskedIds);
+        return report;
+    }
+}
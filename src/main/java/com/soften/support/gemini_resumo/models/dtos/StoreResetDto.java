@@ -0,0 +1,17 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import java.time.Instant;
+
+public record StoreResetDto(
+        String status,
+        int storesRemovidos,
+        int documentosEncontrados,
+        int documentosRemovidos,
+        int falhas,
+        int arquivosOrfaosRemovidos,
+        Instant iniciadoEm,
+        long duracaoMs,
+        String classificationStore,
+        String manualsStore,
+        String erro
+) {}
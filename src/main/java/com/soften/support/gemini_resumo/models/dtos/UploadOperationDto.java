@@ -0,0 +1,18 @@
+package com.soften.support.gemini_resumo.models.dtos;
+
+import com.soften.support.gemini_resumo.models.enums.UploadOperationStatus;
+
+import java.time.Instant;
+
+public record UploadOperationDto(
+        String operacao,
+        String arquivo,
+        String store,
+        UploadOperationStatus status,
+        String documento,
+        String erro,
+        int consultas,
+        Instant criadoEm,
+        Instant concluidoEm,
+        Long duracaoMs
+) {}
@@ -0,0 +1,192 @@
+package com.soften.support.gemini_resumo.models.entities;
+
+import com.soften.support.gemini_resumo.models.enums.DocumentState;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_document_store_display_name", columnList = "store_document, display_name_document"),
+        @Index(name = "idx_document_store_sha256", columnList = "store_document, sha256_document"),
+        @Index(name = "idx_document_operation", columnList = "operation_document"),
+        @Index(name = "idx_document_store_source_path", columnList = "store_document, source_path_document")
+})
+public class DocumentManifestEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id_document", unique = true, nullable = false)
+    UUID id;
+    @Column(name = "store_document", length = 512, nullable = false)
+    String storeId;
+    @Column(name = "name_document", length = 512, unique = true)
+    String documentName;
+    @Column(name = "operation_document", length = 512)
+    String operationName;
+    @Column(name = "display_name_document", length = 1000, nullable = false)
+    String displayName;
+    @Column(name = "metadata_document", columnDefinition = "text")
+    String metadata;
+    @Column(name = "state_document", nullable = false)
+    @Enumerated(EnumType.STRING)
+    DocumentState state;
+    @Column(name = "sha256_document", length = 64)
+    String contentSha256;
+    @Column(name = "mime_type_document")
+    String mimeType;
+    @Column(name = "size_document", nullable = false)
+    long sizeBytes;
+    @Column(name = "created_at_document", nullable = false)
+    Instant createdAt;
+    @Column(name = "updated_at_document", nullable = false)
+    Instant updatedAt;
+    @Column(name = "synced_at_document")
+    Instant syncedAt;
+    @Column(name = "source_path_document", length = 2000)
+    String sourcePath;
+    @Column(name = "source_modified_at_document")
+    Instant sourceModifiedAt;
+    @Column(name = "superseded_at_document")
+    Instant supersededAt;
+
+    public DocumentManifestEntity() {
+    }
+
+    public DocumentManifestEntity(String storeId, String displayName, DocumentState state) {
+        Instant now = Instant.now();
+        this.storeId = storeId;
+        this.displayName = displayName;
+        this.state = state;
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(String storeId) {
+        this.storeId = storeId;
+    }
+
+    public String getDocumentName() {
+        return documentName;
+    }
+
+    public void setDocumentName(String documentName) {
+        this.documentName = documentName;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public void setOperationName(String operationName) {
+        this.operationName = operationName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(String metadata) {
+        this.metadata = metadata;
+    }
+
+    public DocumentState getState() {
+        return state;
+    }
+
+    public void setState(DocumentState state) {
+        this.state = state;
+    }
+
+    public String getContentSha256() {
+        return contentSha256;
+    }
+
+    public void setContentSha256(String contentSha256) {
+        this.contentSha256 = contentSha256;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Instant getSyncedAt() {
+        return syncedAt;
+    }
+
+    public void setSyncedAt(Instant syncedAt) {
+        this.syncedAt = syncedAt;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    public Instant getSourceModifiedAt() {
+        return sourceModifiedAt;
+    }
+
+    public void setSourceModifiedAt(Instant sourceModifiedAt) {
+        this.sourceModifiedAt = sourceModifiedAt;
+    }
+
+    public Instant getSupersededAt() {
+        return supersededAt;
+    }
+
+    public void setSupersededAt(Instant supersededAt) {
+        this.supersededAt = supersededAt;
+    }
+}
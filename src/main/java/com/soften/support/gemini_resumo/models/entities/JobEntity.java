@@ -0,0 +1,150 @@
+package com.soften.support.gemini_resumo.models.entities;
+
+import com.soften.support.gemini_resumo.models.enums.JobStatus;
+import com.soften.support.gemini_resumo.models.enums.JobType;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(indexes = @Index(name = "idx_job_status_run_after", columnList = "status_job, run_after_job"))
+public class JobEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id_job", unique = true, nullable = false)
+    UUID id;
+    @Column(name = "type_job", nullable = false)
+    @Enumerated(EnumType.STRING)
+    JobType type;
+    @Column(name = "status_job", nullable = false)
+    @Enumerated(EnumType.STRING)
+    JobStatus status;
+    @Column(name = "payload_job", columnDefinition = "text", nullable = false)
+    String payload;
+    @Column(name = "result_job", columnDefinition = "text")
+    String result;
+    @Column(name = "error_job", length = 2000)
+    String error;
+    @Column(name = "attempts_job", nullable = false)
+    int attempts;
+    @Column(name = "locked_by_job")
+    String lockedBy;
+    @Column(name = "locked_until_job")
+    Instant lockedUntil;
+    @Column(name = "run_after_job", nullable = false)
+    Instant runAfter;
+    @Column(name = "created_at_job", nullable = false)
+    Instant createdAt;
+    @Column(name = "updated_at_job", nullable = false)
+    Instant updatedAt;
+
+    public JobEntity() {
+    }
+
+    public JobEntity(JobType type, String payload) {
+        Instant now = Instant.now();
+        this.type = type;
+        this.payload = payload;
+        this.status = JobStatus.PENDING;
+        this.runAfter = now;
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public JobType getType() {
+        return type;
+    }
+
+    public void setType(JobType type) {
+        this.type = type;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public Instant getRunAfter() {
+        return runAfter;
+    }
+
+    public void setRunAfter(Instant runAfter) {
+        this.runAfter = runAfter;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
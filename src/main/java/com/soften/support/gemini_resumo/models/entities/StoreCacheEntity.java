@@ -0,0 +1,60 @@
+package com.soften.support.gemini_resumo.models.entities;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+public class StoreCacheEntity {
+    @Id
+    @Column(name = "display_name_store", nullable = false)
+    String displayName;
+    @Column(name = "id_store", length = 512, nullable = false)
+    String storeId;
+    @Column(name = "resolved_at_store", nullable = false)
+    Instant resolvedAt;
+    @Column(name = "validated_at_store")
+    Instant validatedAt;
+
+    public StoreCacheEntity() {
+    }
+
+    public StoreCacheEntity(String displayName, String storeId) {
+        this.displayName = displayName;
+        this.storeId = storeId;
+        this.resolvedAt = Instant.now();
+        this.validatedAt = this.resolvedAt;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(String storeId) {
+        this.storeId = storeId;
+    }
+
+    public Instant getResolvedAt() {
+        return resolvedAt;
+    }
+
+    public void setResolvedAt(Instant resolvedAt) {
+        this.resolvedAt = resolvedAt;
+    }
+
+    public Instant getValidatedAt() {
+        return validatedAt;
+    }
+
+    public void setValidatedAt(Instant validatedAt) {
+        this.validatedAt = validatedAt;
+    }
+}
@@ -0,0 +1,162 @@
+package com.soften.support.gemini_resumo.models.entities;
+
+import com.soften.support.gemini_resumo.models.enums.UploadOperationStatus;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(indexes = @Index(name = "idx_upload_operation_status_next_poll",
+        columnList = "status_operation, next_poll_at_operation"))
+public class UploadOperationEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id_operation", unique = true, nullable = false)
+    UUID id;
+    @Column(name = "name_operation", length = 512, unique = true, nullable = false)
+    String operationName;
+    @Column(name = "display_name_operation", length = 1000, nullable = false)
+    String displayName;
+    @Column(name = "store_operation", length = 512, nullable = false)
+    String storeId;
+    @Column(name = "size_operation", nullable = false)
+    long sizeBytes;
+    @Column(name = "status_operation", nullable = false)
+    @Enumerated(EnumType.STRING)
+    UploadOperationStatus status;
+    @Column(name = "document_operation", length = 512)
+    String documentName;
+    @Column(name = "error_operation", length = 2000)
+    String error;
+    @Column(name = "polls_operation", nullable = false)
+    int polls;
+    @Column(name = "next_poll_at_operation", nullable = false)
+    Instant nextPollAt;
+    @Column(name = "created_at_operation", nullable = false)
+    Instant createdAt;
+    @Column(name = "updated_at_operation", nullable = false)
+    Instant updatedAt;
+    @Column(name = "completed_at_operation")
+    Instant completedAt;
+
+    public UploadOperationEntity() {
+    }
+
+    public UploadOperationEntity(String operationName, String displayName, String storeId, long sizeBytes,
+            Instant firstPollAt) {
+        Instant now = Instant.now();
+        this.operationName = operationName;
+        this.displayName = displayName;
+        this.storeId = storeId;
+        this.sizeBytes = sizeBytes;
+        this.status = UploadOperationStatus.PROCESSING;
+        this.nextPollAt = firstPollAt;
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public void setOperationName(String operationName) {
+        this.operationName = operationName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(String storeId) {
+        this.storeId = storeId;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public UploadOperationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(UploadOperationStatus status) {
+        this.status = status;
+    }
+
+    public String getDocumentName() {
+        return documentName;
+    }
+
+    public void setDocumentName(String documentName) {
+        this.documentName = documentName;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public int getPolls() {
+        return polls;
+    }
+
+    public void setPolls(int polls) {
+        this.polls = polls;
+    }
+
+    public Instant getNextPollAt() {
+        return nextPollAt;
+    }
+
+    public void setNextPollAt(Instant nextPollAt) {
+        this.nextPollAt = nextPollAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,7 @@
+package com.soften.support.gemini_resumo.models.enums;
+
+public enum DocumentState {
+    PENDING,
+    ACTIVE,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.soften.support.gemini_resumo.models.enums;
+
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.soften.support.gemini_resumo.models.enums;
+
+public enum JobType {
+    SUMMARY,
+    TIP
+}
@@ -1,19 +1,29 @@
 package com.soften.support.gemini_resumo.models.enums;
 
 public enum ModulesCalled {
-    NFE,
-    NFCE,
-    MDFE,
-    CTE,
-    FRENTE_DE_CAIXA,
-    CERTIFICADO,
-    CONFIGURACAO_DE_CONTA,
-    COMERCIAL_VENDAS,
-    ESTOQUE,
-    FINANCEIRO,
-    BOLETOS,
-    MARKETPLACE_LOJA_VIRTUAL,
-    RESTAURANTE,
-    RELATORIO,
-    GENERIC
+    NFE("NF-E (NOTA FISCAL ELETRÔNICA)"),
+    NFCE("NFC-E (NOTA FISCAL DO CONSUMIDOR ELETRÔNICA)"),
+    MDFE("MDF-E"),
+    CTE("CT-E"),
+    FRENTE_DE_CAIXA("FRENTE DE CAIXA"),
+    CERTIFICADO("CERTIFICADO"),
+    CONFIGURACAO_DE_CONTA("CONFIGURAÇÃO DE CONTA"),
+    COMERCIAL_VENDAS("COMERCIAL/VENDAS"),
+    ESTOQUE("ESTOQUE"),
+    FINANCEIRO("FINANCEIRO"),
+    BOLETOS("BOLETOS"),
+    MARKETPLACE_LOJA_VIRTUAL("MARKETPLACE / LOJA VIRTUAL"),
+    RESTAURANTE("RESTAURANTE"),
+    RELATORIO("RELATÓRIO"),
+    GENERIC("GENÉRICO");
+
+    private final String label;
+
+    ModulesCalled(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
 }
@@ -1,7 +1,17 @@
 package com.soften.support.gemini_resumo.models.enums;
 
 public enum MoodClient {
-    GOOD,
-    NEUTRAL,
-    IRRITATED
+    GOOD("BOM"),
+    NEUTRAL("NEUTRO"),
+    IRRITATED("IRRITADO");
+
+    private final String label;
+
+    MoodClient(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
 }
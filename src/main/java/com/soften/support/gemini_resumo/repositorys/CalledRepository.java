@@ -3,11 +3,68 @@ package com.soften.support.gemini_resumo.repositorys;
 import com.soften.support.gemini_resumo.models.entities.CalledEntity;
 import com.soften.support.gemini_resumo.models.enums.ModulesCalled;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 public interface CalledRepository extends JpaRepository<CalledEntity, UUID> {
 
     List<CalledEntity> findByModulesCalledIn(List<ModulesCalled> modules);
+
+    long countByModulesCalledIn(List<ModulesCalled> modules);
+
+    @Query(value = """
+            SELECT * FROM called_entity
+            WHERE modules_called IN (:modules)
+              AND embedding_called IS NOT NULL
+              AND embedding_called <=> CAST(:embedding AS vector) <= :maxDistance
+            ORDER BY embedding_called <=> CAST(:embedding AS vector)
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<CalledEntity> findNearest(@Param("modules") List<String> modules, @Param("embedding") String embedding,
+                                   @Param("maxDistance") double maxDistance, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT c.* FROM called_entity c,
+                to_tsquery('portuguese', :query) q
+            WHERE c.modules_called IN (:modules)
+              AND c.search_called @@ q
+            ORDER BY ts_rank(c.search_called, q) DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<CalledEntity> findTextCandidates(@Param("modules") List<String> modules, @Param("query") String query,
+                                          @Param("limit") int limit);
+
+    @Transactional
+    @Query(value = """
+            UPDATE called_entity SET embedding_claimed_until_called = :claimedUntil
+            WHERE id_called IN (
+                SELECT id_called FROM called_entity
+                WHERE embedding_called IS NULL
+                  AND embedding_failures_called < :maxFailures
+                  AND (embedding_claimed_until_called IS NULL OR embedding_claimed_until_called < :now)
+                ORDER BY embedding_failures_called, id_called
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            RETURNING *
+            """, nativeQuery = true)
+    List<CalledEntity> claimWithoutEmbedding(@Param("maxFailures") int maxFailures, @Param("now") Instant now,
+                                             @Param("claimedUntil") Instant claimedUntil, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE called_entity SET embedding_called = CAST(:embedding AS vector) WHERE id_called = :id",
+            nativeQuery = true)
+    int updateEmbedding(@Param("id") UUID id, @Param("embedding") String embedding);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE called_entity SET embedding_failures_called = embedding_failures_called + 1 "
+            + "WHERE id_called = :id", nativeQuery = true)
+    int markEmbeddingFailed(@Param("id") UUID id);
 }
@@ -0,0 +1,59 @@
+package com.soften.support.gemini_resumo.repositorys;
+
+import com.soften.support.gemini_resumo.models.entities.DocumentManifestEntity;
+import com.soften.support.gemini_resumo.models.enums.DocumentState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface DocumentManifestRepository extends JpaRepository<DocumentManifestEntity, UUID> {
+
+    boolean existsByStoreIdAndDisplayNameAndStateInAndSupersededAtIsNull(String storeId, String displayName,
+            Collection<DocumentState> states);
+
+    Optional<DocumentManifestEntity> findFirstByStoreIdAndContentSha256AndStateInAndSupersededAtIsNull(String storeId,
+            String contentSha256, Collection<DocumentState> states);
+
+    long countByStoreIdAndContentSha256AndStateInAndSupersededAtIsNullAndIdNot(String storeId, String contentSha256,
+            Collection<DocumentState> states, UUID id);
+
+    Optional<DocumentManifestEntity> findFirstByStoreIdAndContentSha256AndDocumentNameIsNullAndSupersededAtIsNull(
+            String storeId, String contentSha256);
+
+    Optional<DocumentManifestEntity> findByDocumentName(String documentName);
+
+    Optional<DocumentManifestEntity> findByOperationName(String operationName);
+
+    List<DocumentManifestEntity> findByStoreIdOrderByDisplayName(String storeId);
+
+    List<DocumentManifestEntity> findByStoreIdAndSourcePathIsNotNull(String storeId);
+
+    @Query("""
+            SELECT d.state, COUNT(d), COALESCE(SUM(d.sizeBytes), 0), MAX(d.syncedAt)
+            FROM DocumentManifestEntity d
+            WHERE d.storeId = :storeId
+            GROUP BY d.state
+            """)
+    List<Object[]> summarize(@Param("storeId") String storeId);
+
+    @Modifying
+    @Query("""
+            DELETE FROM DocumentManifestEntity d
+            WHERE d.storeId = :storeId AND d.documentName IS NOT NULL
+              AND (d.syncedAt IS NULL OR d.syncedAt < :syncStart) AND d.updatedAt < :syncStart
+            """)
+    int deleteMissing(@Param("storeId") String storeId, @Param("syncStart") Instant syncStart);
+
+    @Modifying
+    int deleteByDocumentName(String documentName);
+
+    @Modifying
+    int deleteByStoreId(String storeId);
+}
@@ -0,0 +1,35 @@
+package com.soften.support.gemini_resumo.repositorys;
+
+import com.soften.support.gemini_resumo.models.entities.JobEntity;
+import com.soften.support.gemini_resumo.models.enums.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface JobRepository extends JpaRepository<JobEntity, UUID> {
+
+    @Query(value = """
+            SELECT * FROM job_entity
+            WHERE (status_job = 'PENDING' AND run_after_job <= :now)
+               OR (status_job = 'RUNNING' AND locked_until_job < :now)
+            ORDER BY created_at_job
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<JobEntity> findClaimable(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("""
+            UPDATE JobEntity j SET j.lockedUntil = :lockedUntil, j.updatedAt = :now
+            WHERE j.id IN :ids AND j.lockedBy = :workerId AND j.status = :status
+            """)
+    int renewLeases(@Param("ids") Collection<UUID> ids, @Param("workerId") String workerId,
+                    @Param("status") JobStatus status, @Param("lockedUntil") Instant lockedUntil,
+                    @Param("now") Instant now);
+}
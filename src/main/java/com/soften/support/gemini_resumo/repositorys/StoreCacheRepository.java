@@ -0,0 +1,7 @@
+package com.soften.support.gemini_resumo.repositorys;
+
+import com.soften.support.gemini_resumo.models.entities.StoreCacheEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StoreCacheRepository extends JpaRepository<StoreCacheEntity, String> {
+}
@@ -0,0 +1,25 @@
+package com.soften.support.gemini_resumo.repositorys;
+
+import com.soften.support.gemini_resumo.models.entities.UploadOperationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UploadOperationRepository extends JpaRepository<UploadOperationEntity, UUID> {
+
+    Optional<UploadOperationEntity> findByOperationName(String operationName);
+
+    @Query(value = """
+            SELECT * FROM upload_operation_entity
+            WHERE status_operation = 'PROCESSING' AND next_poll_at_operation <= :now
+            ORDER BY next_poll_at_operation
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<UploadOperationEntity> findDue(@Param("now") Instant now, @Param("limit") int limit);
+}
@@ -0,0 +1,129 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.dtos.BatchSummaryItemDto;
+import com.soften.support.gemini_resumo.models.dtos.BatchSummaryResponseDto;
+import com.soften.support.gemini_resumo.models.dtos.FormatSummary;
+import com.soften.support.gemini_resumo.models.dtos.SummaryDto;
+import com.soften.support.gemini_resumo.models.entities.CalledEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+@Service
+public class BatchSummaryService {
+
+    private final SummaryService summaryService;
+    private final CalledService calledService;
+    private final Semaphore globalPermits;
+    private final int maxItems;
+    private final int maxBatchParallelism;
+    private final int persistChunkSize;
+
+    public BatchSummaryService(SummaryService summaryService,
+                               CalledService calledService,
+                               @Value("${gemini.batch.max-parallelism:32}") int maxParallelism,
+                               @Value("${gemini.batch.max-batch-parallelism:8}") int maxBatchParallelism,
+                               @Value("${gemini.batch.max-items:1000}") int maxItems,
+                               @Value("${gemini.batch.persist-chunk-size:50}") int persistChunkSize) {
+        this.summaryService = summaryService;
+        this.calledService = calledService;
+        this.globalPermits = new Semaphore(maxParallelism, true);
+        this.maxBatchParallelism = maxBatchParallelism;
+        this.maxItems = maxItems;
+        this.persistChunkSize = persistChunkSize;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public BatchSummaryResponseDto summarize(List<String> texts, Integer requestedParallelism) {
+        long start = System.currentTimeMillis();
+        int parallelism = requestedParallelism == null || requestedParallelism <= 0
+                ? maxBatchParallelism
+                : Math.min(requestedParallelism, maxBatchParallelism);
+
+        System.out.println("📦 Lote de resumos: " + texts.size() + " itens, paralelismo " + parallelism);
+
+        BatchSummaryItemDto[] results = new BatchSummaryItemDto[texts.size()];
+        String[] summaries = new String[texts.size()];
+        FormatSummary[] formats = new FormatSummary[texts.size()];
+        Semaphore batchPermits = new Semaphore(parallelism);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < texts.size(); i++) {
+                int index = i;
+                executor.submit(() -> summarizeItem(index, texts.get(index), batchPermits, summaries, formats, results));
+            }
+        }
+
+        persist(summaries, formats, results);
+
+        List<BatchSummaryItemDto> items = Arrays.asList(results);
+        int success = (int) items.stream().filter(item -> "OK".equals(item.status())).count();
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("✅ Lote concluído: " + success + "/" + items.size() + " em " + elapsed + "ms");
+
+        return new BatchSummaryResponseDto(items.size(), success, items.size() - success, elapsed, items);
+    }
+
+    private void summarizeItem(int index, String text, Semaphore batchPermits,
+                               String[] summaries, FormatSummary[] formats, BatchSummaryItemDto[] results) {
+        if (text == null || text.isBlank()) {
+            results[index] = BatchSummaryItemDto.error(index, "Texto vazio.");
+            return;
+        }
+
+        try {
+            batchPermits.acquire();
+            try {
+                globalPermits.acquire();
+                try {
+                    SummaryDto summary = summaryService.createDtoSummary(text.trim());
+                    summaries[index] = summary.fullSummary();
+                    formats[index] = summary.formatSummary();
+                } finally {
+                    globalPermits.release();
+                }
+            } finally {
+                batchPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            results[index] = BatchSummaryItemDto.error(index, "Processamento interrompido.");
+        } catch (RuntimeException e) {
+            results[index] = BatchSummaryItemDto.error(index, e.getMessage());
+        }
+    }
+
+    private void persist(String[] summaries, FormatSummary[] formats, BatchSummaryItemDto[] results) {
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < formats.length; i++) {
+            if (formats[i] != null) {
+                pending.add(i);
+            }
+        }
+
+        for (int from = 0; from < pending.size(); from += persistChunkSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + persistChunkSize, pending.size()));
+            try {
+                List<CalledEntity> saved = calledService.SaveCalls(chunk.stream().map(i -> formats[i]).toList());
+                for (int j = 0; j < chunk.size(); j++) {
+                    int index = chunk.get(j);
+                    results[index] = BatchSummaryItemDto.success(index, saved.get(j).getId(), summaries[index], formats[index]);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("❌ Erro ao salvar lote de chamados: " + e.getMessage());
+                for (int index : chunk) {
+                    results[index] = BatchSummaryItemDto.error(index, "Resumo gerado, mas falhou ao salvar: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.client.GeminiHttpClient;
+import com.soften.support.gemini_resumo.models.entities.CalledEntity;
+import com.soften.support.gemini_resumo.models.enums.ModulesCalled;
+import com.soften.support.gemini_resumo.repositorys.CalledRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.soften.support.gemini_resumo.client.CircuitOpenException;
+import com.soften.support.gemini_resumo.client.GeminiRateLimitException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class CallEmbeddingService {
+
+    @Value("${gemini.api.key:}")
+    private String apiKey;
+
+    private static final String EMBED_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-embedding-001:embedContent?key=";
+    private static final String BATCH_EMBED_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-embedding-001:batchEmbedContents?key=";
+    private static final String MODEL = "models/gemini-embedding-001";
+    private static final String TASK_TYPE = "SEMANTIC_SIMILARITY";
+    private static final int MAX_BATCH = 100;
+    private static final int MAX_TEXT_CHARS = 2000;
+    private static final int MAX_ROW_FAILURES = 3;
+
+    private final GeminiHttpClient httpClient;
+    private final CalledRepository calledRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int dimensions;
+    private final int topK;
+    private final double maxDistance;
+    private final int backfillBatchSize;
+    private final Duration backfillLease;
+    private final ReentrantLock backfillLock = new ReentrantLock();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean available;
+
+    private final Timer embedTimer;
+    private final Counter embedded;
+    private final Counter embedFailures;
+
+    public CallEmbeddingService(GeminiHttpClient httpClient, CalledRepository calledRepository,
+            JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+            @Value("${gemini.embeddings.enabled:true}") boolean enabled,
+            @Value("${gemini.embeddings.dimensions:768}") int dimensions,
+            @Value("${gemini.embeddings.top-k:5}") int topK,
+            @Value("${gemini.embeddings.max-distance:0.35}") double maxDistance,
+            @Value("${gemini.embeddings.backfill.batch-size:100}") int backfillBatchSize,
+            @Value("${gemini.embeddings.backfill.lease:5m}") Duration backfillLease) {
+        this.httpClient = httpClient;
+        this.calledRepository = calledRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.dimensions = dimensions;
+        this.topK = topK;
+        this.maxDistance = maxDistance;
+        this.backfillBatchSize = Math.min(MAX_BATCH, Math.max(1, backfillBatchSize));
+        this.backfillLease = backfillLease;
+
+        this.embedTimer = Timer.builder("gemini.embeddings.request").register(meterRegistry);
+        this.embedded = Counter.builder("gemini.embeddings.calls").tag("result", "embedded").register(meterRegistry);
+        this.embedFailures = Counter.builder("gemini.embeddings.calls").tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            System.out.println("ℹ️ Busca vetorial de chamados desativada (gemini.embeddings.enabled=false)");
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS vector");
+            jdbcTemplate.execute("ALTER TABLE called_entity ADD COLUMN IF NOT EXISTS embedding_called vector("
+                    + dimensions + ")");
+            jdbcTemplate.execute("ALTER TABLE called_entity ADD COLUMN IF NOT EXISTS embedding_failures_called "
+                    + "integer NOT NULL DEFAULT 0");
+            jdbcTemplate.execute("ALTER TABLE called_entity ADD COLUMN IF NOT EXISTS embedding_claimed_until_called "
+                    + "timestamp(6) with time zone");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_called_embedding ON called_entity "
+                    + "USING hnsw (embedding_called vector_cosine_ops)");
+            available = true;
+            System.out.println("🧭 Busca vetorial de chamados pronta (pgvector, " + dimensions + " dimensões, HNSW)");
+        } catch (Exception e) {
+            System.err.println("⚠️ pgvector indisponível, similaridade de chamados seguirá via Gemini: "
+                    + e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return enabled && available;
+    }
+
+    public void embedCall(CalledEntity call) {
+        embedCalls(List.of(call));
+    }
+
+    public void embedCalls(List<CalledEntity> calls) {
+        if (!isAvailable() || calls == null || calls.isEmpty()) {
+            return;
+        }
+        List<CalledEntity> snapshot = List.copyOf(calls);
+        executor.submit(() -> embedNow(snapshot));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    int embedNow(List<CalledEntity> calls) {
+        int done = 0;
+        for (int from = 0; from < calls.size(); from += MAX_BATCH) {
+            List<CalledEntity> batch = calls.subList(from, Math.min(calls.size(), from + MAX_BATCH));
+            try {
+                store(batch);
+                done += batch.size();
+            } catch (Exception e) {
+                if (isTransient(e)) {
+                    embedFailures.increment(calls.size() - done);
+                    System.err.println("⚠️ Não foi possível gerar embedding de " + (calls.size() - done)
+                            + " chamado(s), ficará para o backfill: " + e.getMessage());
+                    return done;
+                }
+                if (batch.size() == 1) {
+                    markFailed(batch.get(0), e);
+                    continue;
+                }
+                System.err.println("⚠️ Lote de " + batch.size() + " embeddings falhou, tentando um a um: "
+                        + e.getMessage());
+                for (CalledEntity call : batch) {
+                    try {
+                        store(List.of(call));
+                        done++;
+                    } catch (Exception single) {
+                        if (isTransient(single)) {
+                            embedFailures.increment();
+                            System.err.println("⚠️ Embeddings indisponíveis, restante ficará para o backfill: "
+                                    + single.getMessage());
+                            return done;
+                        }
+                        markFailed(call, single);
+                    }
+                }
+            }
+        }
+        return done;
+    }
+
+    private void store(List<CalledEntity> batch) {
+        List<float[]> vectors = embedAll(batch.stream().map(CalledEntity::getProblem).toList());
+        for (int i = 0; i < batch.size(); i++) {
+            calledRepository.updateEmbedding(batch.get(i).getId(), toVector(vectors.get(i)));
+        }
+        embedded.increment(batch.size());
+    }
+
+    private void markFailed(CalledEntity call, Exception cause) {
+        embedFailures.increment();
+        calledRepository.markEmbeddingFailed(call.getId());
+        System.err.println("⚠️ Embedding do chamado " + call.getId() + " falhou (até " + MAX_ROW_FAILURES
+                + " tentativas no backfill): " + cause.getMessage());
+    }
+
+    private static boolean isTransient(Exception e) {
+        return e instanceof GeminiRateLimitException || e instanceof CircuitOpenException
+                || e instanceof HttpServerErrorException || e instanceof ResourceAccessException;
+    }
+
+    public Optional<List<CalledEntity>> findSimilar(List<ModulesCalled> modules, String problem) {
+        if (!isAvailable() || problem == null || problem.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            String query = toVector(embed(problem));
+            List<CalledEntity> nearest = calledRepository.findNearest(
+                    modules.stream().map(Enum::name).toList(), query, maxDistance, topK);
+            System.out.println("🧭 Busca vetorial: " + nearest.size() + " chamado(s) similar(es) até distância "
+                    + maxDistance);
+            return Optional.of(nearest);
+        } catch (Exception e) {
+            System.err.println("⚠️ Busca vetorial indisponível, usando similaridade via Gemini: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${gemini.embeddings.backfill.initial-delay-ms:45000}",
+            fixedDelayString = "${gemini.embeddings.backfill.interval-ms:300000}")
+    public void backfill() {
+        if (!isAvailable() || !backfillLock.tryLock()) {
+            return;
+        }
+        try {
+            int total = 0;
+            while (true) {
+                Instant now = Instant.now();
+                List<CalledEntity> pending = calledRepository.claimWithoutEmbedding(MAX_ROW_FAILURES, now,
+                        now.plus(backfillLease), backfillBatchSize);
+                if (pending.isEmpty()) {
+                    break;
+                }
+                int done = embedNow(pending);
+                total += done;
+                if (done == 0) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                System.out.println("🧭 Backfill de embeddings: " + total + " chamado(s) indexado(s)");
+            }
+        } finally {
+            backfillLock.unlock();
+        }
+    }
+
+    private float[] embed(String text) {
+        JSONObject body = request(text);
+        JSONObject json = post(EMBED_URL, body);
+        return values(json.getJSONObject("embedding"));
+    }
+
+    private List<float[]> embedAll(List<String> texts) {
+        if (texts.size() == 1) {
+            return List.of(embed(texts.get(0)));
+        }
+        JSONArray requests = new JSONArray();
+        for (String text : texts) {
+            requests.put(request(text).put("model", MODEL));
+        }
+        JSONArray embeddings = post(BATCH_EMBED_URL, new JSONObject().put("requests", requests))
+                .getJSONArray("embeddings");
+        if (embeddings.length() != texts.size()) {
+            throw new RuntimeException("Gemini retornou " + embeddings.length() + " embeddings para "
+                    + texts.size() + " textos");
+        }
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (int i = 0; i < embeddings.length(); i++) {
+            vectors.add(values(embeddings.getJSONObject(i)));
+        }
+        return vectors;
+    }
+
+    private JSONObject request(String text) {
+        String content = text == null ? "" : text.length() > MAX_TEXT_CHARS ? text.substring(0, MAX_TEXT_CHARS) : text;
+        JSONObject body = new JSONObject();
+        body.put("content", new JSONObject().put("parts", new JSONArray().put(new JSONObject().put("text", content))));
+        body.put("taskType", TASK_TYPE);
+        body.put("outputDimensionality", dimensions);
+        return body;
+    }
+
+    private JSONObject post(String url, JSONObject body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = embedTimer.record(() -> httpClient.post(GeminiHttpClient.Operation.EMBED,
+                url + apiKey, new HttpEntity<>(body.toString(), headers)));
+        if (response == null || !response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new RuntimeException("Erro HTTP ao gerar embedding: "
+                    + (response != null ? response.getStatusCode().value() : "sem resposta"));
+        }
+        return new JSONObject(response.getBody());
+    }
+
+    private float[] values(JSONObject embedding) {
+        JSONArray values = embedding.getJSONArray("values");
+        if (values.length() != dimensions) {
+            throw new RuntimeException("Embedding com " + values.length() + " dimensões, esperado " + dimensions);
+        }
+        float[] vector = new float[values.length()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) values.getDouble(i);
+        }
+        return vector;
+    }
+
+    private static String toVector(float[] vector) {
+        StringBuilder literal = new StringBuilder(vector.length * 10).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(vector[i]);
+        }
+        return literal.append(']').toString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.entities.CalledEntity;
+import com.soften.support.gemini_resumo.models.enums.ModulesCalled;
+import com.soften.support.gemini_resumo.repositorys.CalledRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Service
+public class CallTextSearchService {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private final CalledRepository calledRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int candidateLimit;
+    private volatile boolean available;
+
+    public CallTextSearchService(CalledRepository calledRepository, JdbcTemplate jdbcTemplate,
+            @Value("${gemini.text-search.enabled:true}") boolean enabled,
+            @Value("${gemini.text-search.candidate-limit:40}") int candidateLimit) {
+        this.calledRepository = calledRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.candidateLimit = candidateLimit;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("""
+                    ALTER TABLE called_entity ADD COLUMN IF NOT EXISTS search_called tsvector
+                    GENERATED ALWAYS AS (
+                        setweight(to_tsvector('portuguese', coalesce(problem_called, '')), 'A')
+                        || setweight(to_tsvector('portuguese', coalesce(solution_called, '')), 'B')
+                    ) STORED
+                    """);
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_called_search ON called_entity "
+                    + "USING gin (search_called)");
+            available = true;
+            System.out.println("🔎 Busca textual de chamados pronta (tsvector português, GIN)");
+        } catch (Exception e) {
+            System.err.println("⚠️ Busca textual de chamados indisponível, carregando o módulo inteiro: "
+                    + e.getMessage());
+        }
+    }
+
+    public Optional<List<CalledEntity>> findCandidates(List<ModulesCalled> modules, String problem) {
+        if (!enabled || !available || problem == null) {
+            return Optional.empty();
+        }
+        String query = anyWordQuery(problem);
+        if (query.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            List<CalledEntity> candidates = calledRepository.findTextCandidates(
+                    modules.stream().map(Enum::name).toList(), query, candidateLimit);
+            System.out.println("🔎 Busca textual: " + candidates.size() + " candidato(s) (limite " + candidateLimit
+                    + ")");
+            return Optional.of(candidates);
+        } catch (Exception e) {
+            System.err.println("⚠️ Erro na busca textual de chamados, carregando o módulo inteiro: "
+                    + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    static String anyWordQuery(String problem) {
+        return WORD.matcher(problem).results()
+                .map(match -> match.group().toLowerCase(Locale.ROOT))
+                .distinct()
+                .collect(Collectors.joining(" | "));
+    }
+}
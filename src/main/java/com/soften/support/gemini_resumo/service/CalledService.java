@@ -1,13 +1,17 @@
 package com.soften.support.gemini_resumo.service;
 
+import com.soften.support.gemini_resumo.client.CircuitBreakerRegistry;
+import com.soften.support.gemini_resumo.client.CircuitOpenException;
 import com.soften.support.gemini_resumo.models.dtos.*;
 import com.soften.support.gemini_resumo.models.enums.ModulesCalled;
 import com.soften.support.gemini_resumo.models.entities.CalledEntity;
 import com.soften.support.gemini_resumo.repositorys.CalledRepository;
+import com.soften.support.gemini_resumo.utils.ModuleMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,18 +20,48 @@ public class CalledService {
     private final CalledRepository calledRepository;
     private final SummaryService summaryService;
     private final SuggestionService suggestionService;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final CallEmbeddingService callEmbeddings;
+    private final CallTextSearchService callTextSearch;
+    private final TranscriptPreprocessor preprocessor;
 
     public CalledService(CalledRepository calledRepository,
                          SummaryService summaryService,
-                         SuggestionService suggestionService) {
+                         SuggestionService suggestionService,
+                         CircuitBreakerRegistry circuitBreakers,
+                         CallEmbeddingService callEmbeddings,
+                         CallTextSearchService callTextSearch,
+                         TranscriptPreprocessor preprocessor) {
         this.calledRepository = calledRepository;
         this.summaryService = summaryService;
         this.suggestionService = suggestionService;
+        this.circuitBreakers = circuitBreakers;
+        this.callEmbeddings = callEmbeddings;
+        this.callTextSearch = callTextSearch;
+        this.preprocessor = preprocessor;
     }
 
     public CalledEntity SaveCall(String summary) {
         FormatSummary format = summaryService.extractFieldsFromSummary(summary);
+        return SaveCall(format);
+    }
+
+    public CalledEntity SaveCall(FormatSummary format) {
+        CalledEntity saved = calledRepository.save(toEntity(format));
+        callEmbeddings.embedCall(saved);
+        return saved;
+    }
 
+    public List<CalledEntity> SaveCalls(List<FormatSummary> formats) {
+        List<CalledEntity> entities = formats.stream()
+                .map(this::toEntity)
+                .collect(Collectors.toList());
+        List<CalledEntity> saved = calledRepository.saveAll(entities);
+        callEmbeddings.embedCalls(saved);
+        return saved;
+    }
+
+    private CalledEntity toEntity(FormatSummary format) {
         CalledEntity entity = new CalledEntity();
         entity.setProblem(format.problem());
         entity.setSolution(format.solution());
@@ -35,14 +69,19 @@ public class CalledService {
         entity.setPrints(format.prints());
         entity.setMoodClient(format.mood());
         entity.setModulesCalled(format.modules());
-
-        return calledRepository.save(entity);
+        return entity;
     }
 
     public SummaryDto generateSummaryWithoutSaving(String textCalled) {
         return summaryService.createDtoSummary(textCalled);
     }
 
+    public SummaryDto streamSummaryAndSave(String textCalled, Consumer<String> onChunk) {
+        SummaryDto summaryDto = summaryService.streamDtoSummary(textCalled, onChunk);
+        SaveCall(summaryDto.formatSummary());
+        return summaryDto;
+    }
+
     public TipResponseDto processFullTip(String textCalled) {
         try {
             System.out.println("=== INICIANDO PROCESSAMENTO DE DICA ===");
@@ -60,26 +99,55 @@ public class CalledService {
             SearchModules.add(ModulesCalled.GENERIC);
 
             System.out.println("Buscando chamados nos módulos: " + SearchModules);
-            List<CalledEntity> relatedCalls = calledRepository.findByModulesCalledIn(SearchModules);
-            System.out.println("Chamados relacionados encontrados: " + relatedCalls.size());
-
-            if (!relatedCalls.isEmpty()) {
-                System.out.println("=== CHAMADOS ENCONTRADOS ===");
-                for (int i = 0; i < Math.min(5, relatedCalls.size()); i++) {
-                    CalledEntity call = relatedCalls.get(i);
-                    System.out.println("ID: " + call.getId());
-                    System.out.println("Problema: " + call.getProblem());
-                    System.out.println("Solução: " + (call.getSolution() != null ?
-                            call.getSolution().substring(0, Math.min(50, call.getSolution().length())) : "NULL"));
-                    System.out.println("Módulo: " + call.getModulesCalled());
-                    System.out.println("---");
-                }
+
+            boolean degraded = false;
+            int relatedCount;
+            List<CalledEntity> filteredCalls;
+            Optional<List<CalledEntity>> nearestCalls = callEmbeddings.findSimilar(SearchModules,
+                    formatSummary.problem());
+            if (nearestCalls.isPresent() && nearestCalls.get().isEmpty()) {
+                System.out.println("🧭 Busca vetorial sem resultados, seguindo para busca textual/Gemini");
+                nearestCalls = Optional.empty();
             }
+            if (nearestCalls.isPresent()) {
+                filteredCalls = nearestCalls.get();
+                relatedCount = (int) calledRepository.countByModulesCalledIn(SearchModules);
+                System.out.println("Chamados relacionados nos módulos: " + relatedCount);
+            } else {
+                Optional<List<CalledEntity>> candidates = callTextSearch.findCandidates(SearchModules,
+                        formatSummary.problem());
+                List<CalledEntity> relatedCalls = candidates
+                        .orElseGet(() -> calledRepository.findByModulesCalledIn(SearchModules));
+                relatedCount = candidates.isPresent()
+                        ? (int) calledRepository.countByModulesCalledIn(SearchModules)
+                        : relatedCalls.size();
+                System.out.println("Chamados relacionados encontrados: " + relatedCount
+                        + (candidates.isPresent() ? " (" + relatedCalls.size() + " candidatos por busca textual)" : ""));
 
-            List<CalledEntity> filteredCalls = suggestionService.filterCallsBySimilarity(
-                    relatedCalls,
-                    formatSummary.problem()
-            );
+                if (!relatedCalls.isEmpty()) {
+                    System.out.println("=== CHAMADOS ENCONTRADOS ===");
+                    for (int i = 0; i < Math.min(5, relatedCalls.size()); i++) {
+                        CalledEntity call = relatedCalls.get(i);
+                        System.out.println("ID: " + call.getId());
+                        System.out.println("Problema: " + call.getProblem());
+                        System.out.println("Solução: " + (call.getSolution() != null ?
+                                call.getSolution().substring(0, Math.min(50, call.getSolution().length())) : "NULL"));
+                        System.out.println("Módulo: " + call.getModulesCalled());
+                        System.out.println("---");
+                    }
+                }
+
+                try {
+                    filteredCalls = suggestionService.filterCallsBySimilarity(
+                            relatedCalls,
+                            formatSummary.problem()
+                    );
+                } catch (CircuitOpenException e) {
+                    System.out.println("Similaridade via Gemini indisponível, usando filtro local: " + e.getMessage());
+                    filteredCalls = suggestionService.filterCallsLocally(relatedCalls, formatSummary.problem(), 5);
+                    degraded = true;
+                }
+            }
 
             System.out.println("Chamados filtrados por similaridade: " + filteredCalls.size());
 
@@ -96,7 +164,7 @@ public class CalledService {
 
             if (filteredCalls.isEmpty()) {
                 System.out.println("Nenhum chamado similar encontrado!");
-                return createResponseWithHistoryWithoutSimilarity(summaryDto, relatedCalls.size());
+                return createResponseWithHistoryWithoutSimilarity(summaryDto, relatedCount);
             }
 
             List<String> solutions = filteredCalls.stream()
@@ -123,6 +191,9 @@ public class CalledService {
                 }
             }
 
+            if (!circuitBreakers.get(CircuitBreakerRegistry.Circuit.TIPS).isCallPermitted()) {
+                degraded = true;
+            }
             List<String> tips = suggestionService.generateResolutionTipsList(solutions, formatSummary.problem());
 
             System.out.println("Dicas geradas: " + tips.size());
@@ -132,12 +203,15 @@ public class CalledService {
                     .problemDetected(formatSummary.problem())
                     .moduleDetected(formatSummary.modules() != null ?
                             formatSummary.modules().name() : "GENERIC")
-                    .SimilarTagsFound(relatedCalls.size())
+                    .SimilarTagsFound(relatedCount)
                     .solutionsAnalyzed(solutions.size())
                     .tips(tips)
-                    .status("SUCESS")
+                    .status(degraded ? "DEGRADED" : "SUCESS")
                     .build();
 
+        } catch (CircuitOpenException e) {
+            System.err.println("Resumo indisponível no processFullTip: " + e.getMessage());
+            return createDegradedResponse(textCalled, e);
         } catch (Exception e) {
             System.err.println("ERRO no processFullTip: " + e.getMessage());
             e.printStackTrace();
@@ -179,6 +253,35 @@ public class CalledService {
                 .build();
     }
 
+    private TipResponseDto createDegradedResponse(String textCalled, CircuitOpenException e) {
+        String problem = preprocessor.process(textCalled).text();
+        ModulesCalled module = ModuleMapper.map(problem);
+        List<ModulesCalled> searchModules = module == ModulesCalled.GENERIC
+                ? Arrays.asList(ModulesCalled.values())
+                : List.of(module, ModulesCalled.GENERIC);
+        List<CalledEntity> candidates = callTextSearch.findCandidates(searchModules, problem)
+                .orElseGet(() -> calledRepository.findByModulesCalledIn(searchModules));
+        List<String> solutions = suggestionService.filterCallsLocally(candidates, problem, 3).stream()
+                .map(CalledEntity::getSolution)
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toList());
+        System.out.println("Resposta degradada com " + solutions.size() + " solução(ões) de chamados locais");
+
+        List<String> tips = new ArrayList<>();
+        for (String solution : solutions) {
+            tips.add("Solução aplicada em um chamado parecido: " + solution);
+        }
+        tips.add("O Gemini está temporariamente indisponível, por isso o atendimento não pôde ser resumido agora. "
+                + "Tente novamente em alguns segundos (" + Math.max(1, e.getRetryAfter().toSeconds()) + "s).");
+
+        return TipResponseDto.builder()
+                .SimilarTagsFound(candidates.size())
+                .solutionsAnalyzed(solutions.size())
+                .tips(tips)
+                .status("DEGRADED")
+                .build();
+    }
+
     private TipResponseDto createErrorResponse(Exception e) {
         return TipResponseDto.builder()
                 .status("ERROR: " + e.getMessage())
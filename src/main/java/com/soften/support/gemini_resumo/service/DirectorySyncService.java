@@ -0,0 +1,298 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.client.RateLimiter;
+import com.soften.support.gemini_resumo.models.dtos.BulkIngestItemDto;
+import com.soften.support.gemini_resumo.models.dtos.DirectorySyncResponseDto;
+import com.soften.support.gemini_resumo.models.entities.DocumentManifestEntity;
+import com.soften.support.gemini_resumo.utils.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class DirectorySyncService {
+
+    private record LocalFile(Path path, long size, Instant modifiedAt) {
+    }
+
+    private final GoogleFileSearchService fileSearchService;
+    private final DocumentManifestService manifest;
+    private final ManualsIndexService manualsIndex;
+    private final String rootDir;
+    private final boolean scheduled;
+    private final RateLimiter uploadRate;
+    private final int maxParallelism;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public DirectorySyncService(GoogleFileSearchService fileSearchService,
+                                DocumentManifestService manifest,
+                                ManualsIndexService manualsIndex,
+                                @Value("${gemini.sync.manuals-dir:}") String rootDir,
+                                @Value("${gemini.sync.scheduled:false}") boolean scheduled,
+                                @Value("${gemini.ingest.uploads-per-second:5}") double uploadsPerSecond,
+                                @Value("${gemini.ingest.max-parallelism:8}") int maxParallelism) {
+        this.fileSearchService = fileSearchService;
+        this.manifest = manifest;
+        this.manualsIndex = manualsIndex;
+        this.rootDir = rootDir;
+        this.scheduled = scheduled;
+        this.uploadRate = new RateLimiter(uploadsPerSecond);
+        this.maxParallelism = maxParallelism;
+    }
+
+    @Scheduled(initialDelayString = "${gemini.sync.initial-delay-ms:60000}",
+            fixedDelayString = "${gemini.sync.interval-ms:3600000}")
+    public void scheduledSync() {
+        if (scheduled && !rootDir.isBlank()) {
+            try {
+                syncManuals();
+            } catch (Exception e) {
+                System.err.println("⚠️ Erro na sincronização agendada de manuais: " + e.getMessage());
+            }
+        }
+    }
+
+    public boolean isConfigured() {
+        return !rootDir.isBlank();
+    }
+
+    public DirectorySyncResponseDto syncManuals() throws IOException {
+        String storeId = fileSearchService.getManualsStoreId();
+        if (storeId == null) {
+            throw new RuntimeException("Store de manuais indisponível.");
+        }
+        if (!running.tryLock()) {
+            throw new RuntimeException("Sincronização de manuais já está em andamento.");
+        }
+        try {
+            return sync(Path.of(rootDir).toAbsolutePath().normalize(), storeId);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private DirectorySyncResponseDto sync(Path root, String storeId) throws IOException {
+        long start = System.currentTimeMillis();
+        if (!Files.isDirectory(root)) {
+            throw new RuntimeException("Diretório de manuais não encontrado: " + root);
+        }
+
+        Map<String, LocalFile> localFiles = walk(root);
+        Map<String, DocumentManifestEntity> synced = manifest.sourced(storeId);
+        System.out.println("📂 Sincronizando " + localFiles.size() + " arquivo(s) de " + root + " com " + storeId);
+
+        List<BulkIngestItemDto> items = Collections.synchronizedList(new ArrayList<>());
+        Set<String> seenHashes = new HashSet<>();
+        int unchanged = 0;
+
+        Semaphore permits = new Semaphore(maxParallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<String, LocalFile> entry : localFiles.entrySet()) {
+                String path = entry.getKey();
+                LocalFile file = entry.getValue();
+                DocumentManifestEntity previous = synced.get(path);
+
+                if (previous != null && previous.getSizeBytes() == file.size()
+                        && file.modifiedAt().equals(previous.getSourceModifiedAt())) {
+                    backfillIndex(previous, file);
+                    unchanged++;
+                    continue;
+                }
+
+                String contentSha256;
+                try (InputStream in = Files.newInputStream(file.path())) {
+                    contentSha256 = Hashing.sha256(in);
+                } catch (IOException e) {
+                    items.add(BulkIngestItemDto.error(path, file.size(), "Erro ao ler arquivo: " + e.getMessage()));
+                    continue;
+                }
+
+                if (previous != null && contentSha256.equals(previous.getContentSha256())) {
+                    manifest.attachSource(previous.getId(), path, file.modifiedAt());
+                    unchanged++;
+                    continue;
+                }
+                if (!seenHashes.add(contentSha256)) {
+                    items.add(BulkIngestItemDto.skipped(path, "Conteúdo duplicado de outro arquivo do diretório."));
+                    continue;
+                }
+
+                Map<String, String> metadata = metadataFor(path);
+                Optional<DocumentManifestEntity> twin = manifest.findByContent(storeId, contentSha256);
+                DocumentManifestEntity replaced = null;
+                if (twin.isPresent()) {
+                    DocumentManifestEntity existing = twin.get();
+                    String twinPath = existing.getSourcePath();
+                    if (twinPath != null && !twinPath.equals(path) && localFiles.containsKey(twinPath)) {
+                        items.add(BulkIngestItemDto.skipped(path, "Conteúdo duplicado de " + twinPath + "."));
+                        continue;
+                    }
+                    if (metadata.equals(manifest.metadataOf(existing))) {
+                        manifest.attachSource(existing.getId(), path, file.modifiedAt());
+                        unchanged++;
+                        continue;
+                    }
+                    replaced = existing;
+                }
+
+                DocumentManifestEntity twinToReplace = replaced;
+                acquire(permits);
+                executor.submit(() -> {
+                    try {
+                        items.add(upload(storeId, path, file, contentSha256, metadata, previous, twinToReplace));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        for (DocumentManifestEntity document : manifest.sourced(storeId).values()) {
+            if (!localFiles.containsKey(document.getSourcePath())) {
+                items.add(removeDeleted(document));
+            }
+        }
+
+        items.sort(Comparator.comparing(BulkIngestItemDto::arquivo));
+        int uploaded = count(items, "OK");
+        int removed = count(items, "REMOVIDO");
+        int skipped = count(items, "IGNORADO");
+        int failed = count(items, "ERRO");
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("✅ Sincronização concluída: " + unchanged + " inalterados, " + uploaded + " enviados, "
+                + removed + " removidos, " + failed + " falhas em " + elapsed + "ms");
+
+        return new DirectorySyncResponseDto(localFiles.size(), unchanged, uploaded, removed, skipped, failed, elapsed,
+                items);
+    }
+
+    private BulkIngestItemDto upload(String storeId, String path, LocalFile file, String contentSha256,
+            Map<String, String> metadata, DocumentManifestEntity previous, DocumentManifestEntity replaced) {
+        String displayName = file.path().getFileName().toString();
+        String mimeType = MediaTypeFactory.getMediaType(displayName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+        try {
+            uploadRate.acquire();
+            String id = fileSearchService.uploadFileWithMetadataToManuals(displayName,
+                    new FileSystemResource(file.path()), file.size(), mimeType, metadata);
+            if (replaced != null) {
+                removeRemote(replaced);
+            }
+            if (previous != null) {
+                removeRemote(previous);
+            }
+            manifest.attachSource(storeId, contentSha256, path, file.modifiedAt());
+            return BulkIngestItemDto.success(path, id, file.size(), metadata);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Falha ao sincronizar " + path + ": " + e.getMessage());
+            return BulkIngestItemDto.error(path, file.size(), e.getMessage());
+        }
+    }
+
+    private void backfillIndex(DocumentManifestEntity document, LocalFile file) {
+        String contentSha256 = document.getContentSha256();
+        if (contentSha256 == null || manualsIndex.contains(contentSha256)
+                || !manualsIndex.supports(document.getDisplayName(), document.getMimeType())) {
+            return;
+        }
+        try {
+            manualsIndex.index(contentSha256, document.getDisplayName(),
+                    manifest.metadataOf(document).get("categoria"), new FileSystemResource(file.path()));
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Não foi possível indexar " + file.path() + " localmente: " + e.getMessage());
+        }
+    }
+
+    private BulkIngestItemDto removeDeleted(DocumentManifestEntity document) {
+        if (document.getDocumentName() == null) {
+            removeRemote(document);
+            return BulkIngestItemDto.removed(document.getSourcePath(), document.getOperationName());
+        }
+        if (!removeRemote(document)) {
+            return BulkIngestItemDto.error(document.getSourcePath(), document.getSizeBytes(),
+                    "Falha ao remover documento " + document.getDocumentName());
+        }
+        return BulkIngestItemDto.removed(document.getSourcePath(), document.getDocumentName());
+    }
+
+    private boolean removeRemote(DocumentManifestEntity document) {
+        if (document.getDocumentName() == null) {
+            manifest.supersede(document.getId());
+            return true;
+        }
+        return fileSearchService.deleteFile(document.getDocumentName());
+    }
+
+    private static Map<String, LocalFile> walk(Path root) throws IOException {
+        Map<String, LocalFile> files = new TreeMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return !dir.equals(root) && dir.getFileName().toString().startsWith(".")
+                        ? FileVisitResult.SKIP_SUBTREE
+                        : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !file.getFileName().toString().startsWith(".")) {
+                    String relative = root.relativize(file).toString().replace('\\', '/');
+                    files.put(relative, new LocalFile(file, attrs.size(),
+                            attrs.lastModifiedTime().toInstant().truncatedTo(ChronoUnit.MILLIS)));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                System.err.println("⚠️ Ignorando arquivo ilegível " + file + ": " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private static Map<String, String> metadataFor(String path) {
+        String[] parts = path.split("/");
+        Map<String, String> metadata = new LinkedHashMap<>();
+        if (parts.length > 1) {
+            metadata.put("categoria", parts[0]);
+        }
+        if (parts.length > 2) {
+            metadata.put("modulo", parts[1]);
+        }
+        return metadata;
+    }
+
+    private static void acquire(Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Sincronização interrompida", e);
+        }
+    }
+
+    private static int count(List<BulkIngestItemDto> items, String status) {
+        return (int) items.stream().filter(item -> status.equals(item.status())).count();
+    }
+}
@@ -0,0 +1,260 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soften.support.gemini_resumo.client.RateLimiter;
+import com.soften.support.gemini_resumo.models.dtos.BulkIngestItemDto;
+import com.soften.support.gemini_resumo.models.dtos.BulkIngestResponseDto;
+import com.soften.support.gemini_resumo.utils.ArchiveReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class DocumentIngestService {
+
+    private static final String DEFAULT_METADATA_KEY = "*";
+    private static final Set<String> MANIFEST_NAMES = Set.of("manifest.json", "manifesto.json");
+
+    private final GoogleFileSearchService fileSearchService;
+    private final ObjectMapper objectMapper;
+    private final RateLimiter uploadRate;
+    private final int maxParallelism;
+    private final int maxEntries;
+    private final Path spoolDir;
+
+    public DocumentIngestService(GoogleFileSearchService fileSearchService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${gemini.ingest.uploads-per-second:5}") double uploadsPerSecond,
+                                 @Value("${gemini.ingest.max-parallelism:8}") int maxParallelism,
+                                 @Value("${gemini.ingest.max-entries:5000}") int maxEntries,
+                                 @Value("${gemini.ingest.spool-dir:${java.io.tmpdir}/gemini-ingest}") String spoolDir) {
+        this.fileSearchService = fileSearchService;
+        this.objectMapper = objectMapper;
+        this.uploadRate = new RateLimiter(uploadsPerSecond);
+        this.maxParallelism = maxParallelism;
+        this.maxEntries = maxEntries;
+        this.spoolDir = Path.of(spoolDir);
+    }
+
+    public Map<String, Map<String, String>> parseManifest(InputStream manifest) throws IOException {
+        Map<String, Map<String, Object>> raw = objectMapper.readValue(manifest, new TypeReference<>() {
+        });
+        Map<String, Map<String, String>> parsed = new HashMap<>();
+        raw.forEach((file, fields) -> {
+            Map<String, String> metadata = new LinkedHashMap<>();
+            if (fields != null) {
+                fields.forEach((key, value) -> {
+                    if (value instanceof Collection<?> values) {
+                        metadata.put(key, String.join(",", values.stream().map(String::valueOf).toList()));
+                    } else if (value != null) {
+                        metadata.put(key, value.toString());
+                    }
+                });
+            }
+            parsed.put(normalize(file), metadata);
+        });
+        return parsed;
+    }
+
+    public BulkIngestResponseDto ingest(InputStream archive, Map<String, Map<String, String>> manifest,
+                                        Integer requestedParallelism) throws IOException {
+        long start = System.currentTimeMillis();
+        int parallelism = requestedParallelism == null || requestedParallelism <= 0
+                ? maxParallelism
+                : Math.min(requestedParallelism, maxParallelism);
+        AtomicReference<Map<String, Map<String, String>>> metadataByFile =
+                new AtomicReference<>(manifest != null ? manifest : Map.of());
+        AtomicInteger accepted = new AtomicInteger();
+
+        System.out.println("📚 Ingestão em lote iniciada, paralelismo " + parallelism);
+        Files.createDirectories(spoolDir);
+
+        List<Future<BulkIngestItemDto>> pending = new ArrayList<>();
+        Semaphore permits = new Semaphore(parallelism);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            readEntries(archive, pending, (name, content) -> {
+                String path = normalize(name);
+                if (!isHidden(path) && isManifest(path)) {
+                    pending.add(CompletableFuture.completedFuture(
+                            archiveManifest(path, content, manifest != null, metadataByFile, accepted.get())));
+                    return;
+                }
+                String skipReason = skipReason(path, accepted.get());
+                if (skipReason != null) {
+                    pending.add(CompletableFuture.completedFuture(BulkIngestItemDto.skipped(path, skipReason)));
+                    return;
+                }
+
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Ingestão interrompida", e);
+                }
+                accepted.incrementAndGet();
+
+                Path spooled;
+                long size;
+                try {
+                    spooled = Files.createTempFile(spoolDir, "ingest-", ".tmp");
+                    size = Files.copy(content, spooled, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException | RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+
+                Map<String, String> metadata = metadataFor(path, metadataByFile.get());
+                pending.add(executor.submit(() -> {
+                    try {
+                        return upload(path, spooled, size, metadata);
+                    } finally {
+                        deleteQuietly(spooled);
+                        permits.release();
+                    }
+                }));
+            });
+        }
+
+        List<BulkIngestItemDto> items = new ArrayList<>(pending.size());
+        for (Future<BulkIngestItemDto> future : pending) {
+            items.add(result(future));
+        }
+
+        int success = (int) items.stream().filter(item -> "OK".equals(item.status())).count();
+        int skipped = (int) items.stream().filter(item -> "IGNORADO".equals(item.status())).count();
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("✅ Ingestão concluída: " + success + " enviados, " + (items.size() - success - skipped)
+                + " falhas, " + skipped + " ignorados em " + elapsed + "ms");
+
+        return new BulkIngestResponseDto(items.size(), success, items.size() - success - skipped, skipped, elapsed, items);
+    }
+
+    private void readEntries(InputStream archive, List<Future<BulkIngestItemDto>> pending,
+                             ArchiveReader.EntryHandler handler) {
+        try {
+            ArchiveReader.read(archive, handler);
+        } catch (IOException e) {
+            System.err.println("❌ Erro ao ler o pacote de documentos: " + e.getMessage());
+            pending.add(CompletableFuture.completedFuture(
+                    BulkIngestItemDto.error("(pacote)", 0, "Erro ao ler o pacote: " + e.getMessage())));
+        }
+    }
+
+    private BulkIngestItemDto upload(String path, Path spooled, long size, Map<String, String> metadata) {
+        String displayName = fileName(path);
+        String mimeType = MediaTypeFactory.getMediaType(displayName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+        try {
+            uploadRate.acquire();
+            String id = fileSearchService.uploadFileWithMetadataToManuals(displayName, new FileSystemResource(spooled),
+                    size, mimeType, metadata);
+            return BulkIngestItemDto.success(path, id, size, metadata);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Falha ao enviar " + path + ": " + e.getMessage());
+            return BulkIngestItemDto.error(path, size, e.getMessage());
+        }
+    }
+
+    private BulkIngestItemDto archiveManifest(String path, InputStream content, boolean supplied,
+                                              AtomicReference<Map<String, Map<String, String>>> metadataByFile,
+                                              int uploadedBefore) {
+        if (supplied) {
+            return BulkIngestItemDto.skipped(path,
+                    "Manifesto do pacote ignorado: vale o manifesto enviado na requisição.");
+        }
+        try {
+            metadataByFile.set(parseManifest(content));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Manifesto inválido no pacote (" + path + "): " + e.getMessage());
+            return BulkIngestItemDto.error(path, 0, "Manifesto inválido: " + e.getMessage());
+        }
+        System.out.println("📋 Manifesto do pacote aplicado: " + path);
+        return BulkIngestItemDto.skipped(path, uploadedBefore == 0
+                ? "Manifesto do pacote aplicado aos arquivos."
+                : "Manifesto do pacote aplicado aos arquivos seguintes; " + uploadedBefore
+                        + " arquivo(s) anteriores foram enviados sem esses metadados "
+                        + "(coloque o manifesto no início do pacote).");
+    }
+
+    private static boolean isManifest(String path) {
+        return MANIFEST_NAMES.contains(fileName(path).toLowerCase());
+    }
+
+    private static boolean isHidden(String path) {
+        return path.startsWith("__MACOSX/") || fileName(path).startsWith(".");
+    }
+
+    private String skipReason(String path, int entries) {
+        if (isHidden(path)) {
+            return "Arquivo oculto ou de sistema.";
+        }
+        if (entries >= maxEntries) {
+            return "Limite de " + maxEntries + " arquivos por ingestão atingido.";
+        }
+        return null;
+    }
+
+    private Map<String, String> metadataFor(String path, Map<String, Map<String, String>> manifest) {
+        Map<String, String> metadata = new LinkedHashMap<>(manifest.getOrDefault(DEFAULT_METADATA_KEY, Map.of()));
+        Map<String, String> specific = manifest.get(path);
+        if (specific == null) {
+            specific = manifest.get(fileName(path));
+        }
+        if (specific != null) {
+            metadata.putAll(specific);
+        }
+        metadata.values().removeIf(value -> value == null || value.isBlank());
+        return metadata;
+    }
+
+    private BulkIngestItemDto result(Future<BulkIngestItemDto> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ingestão interrompida", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erro inesperado na ingestão: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static String normalize(String name) {
+        String path = name.replace('\\', '/');
+        while (path.startsWith("./") || path.startsWith("/")) {
+            path = path.substring(path.startsWith("./") ? 2 : 1);
+        }
+        return path;
+    }
+
+    private static String fileName(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("⚠️ Não foi possível remover arquivo temporário " + file + ": " + e.getMessage());
+        }
+    }
+}
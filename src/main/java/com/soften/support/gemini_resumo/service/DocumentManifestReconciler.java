@@ -0,0 +1,67 @@
+package com.soften.support.gemini_resumo.service;
+
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class DocumentManifestReconciler {
+
+    private final GoogleFileSearchService fileSearchService;
+    private final DocumentManifestService manifest;
+    private final boolean enabled;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public DocumentManifestReconciler(GoogleFileSearchService fileSearchService,
+                                      DocumentManifestService manifest,
+                                      @Value("${gemini.manifest.reconcile.enabled:true}") boolean enabled) {
+        this.fileSearchService = fileSearchService;
+        this.manifest = manifest;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(initialDelayString = "${gemini.manifest.reconcile.initial-delay-ms:30000}",
+            fixedDelayString = "${gemini.manifest.reconcile.interval-ms:900000}")
+    public void scheduledReconcile() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    public Map<String, Object> reconcile() {
+        if (!running.tryLock()) {
+            return Map.of("status", "em andamento");
+        }
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("classificationStore", reconcile(fileSearchService.getClassificationStoreId()));
+            result.put("manualsStore", reconcile(fileSearchService.getManualsStoreId()));
+            return result;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private Object reconcile(String storeId) {
+        if (storeId == null) {
+            return "Store indisponível";
+        }
+        Instant syncStart = Instant.now();
+        try {
+            List<JSONObject> documents = fileSearchService.listDocuments(storeId);
+            Map<String, Integer> result = manifest.reconcile(storeId, documents, syncStart);
+            System.out.println("🔄 Manifesto sincronizado com " + storeId + ": " + result);
+            return result;
+        } catch (Exception e) {
+            System.err.println("⚠️ Erro ao sincronizar manifesto do store " + storeId + ": " + e.getMessage());
+            return Map.of("erro", String.valueOf(e.getMessage()));
+        }
+    }
+}
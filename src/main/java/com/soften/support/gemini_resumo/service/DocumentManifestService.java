@@ -0,0 +1,335 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soften.support.gemini_resumo.models.entities.DocumentManifestEntity;
+import com.soften.support.gemini_resumo.models.enums.DocumentState;
+import com.soften.support.gemini_resumo.repositorys.DocumentManifestRepository;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+
+@Service
+public class DocumentManifestService {
+
+    public static final String CONTENT_HASH_KEY = "content_sha256";
+
+    private static final Set<DocumentState> LIVE_STATES = EnumSet.of(DocumentState.PENDING, DocumentState.ACTIVE);
+
+    private final DocumentManifestRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public DocumentManifestService(DocumentManifestRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean exists(String storeId, String displayName) {
+        return repository.existsByStoreIdAndDisplayNameAndStateInAndSupersededAtIsNull(storeId, displayName, LIVE_STATES);
+    }
+
+    public Optional<DocumentManifestEntity> findByContent(String storeId, String contentSha256) {
+        if (storeId == null || contentSha256 == null) {
+            return Optional.empty();
+        }
+        return repository.findFirstByStoreIdAndContentSha256AndStateInAndSupersededAtIsNull(storeId, contentSha256,
+                LIVE_STATES);
+    }
+
+    public boolean hasOtherLiveCopy(String documentName) {
+        return repository.findByDocumentName(documentName)
+                .filter(document -> document.getContentSha256() != null)
+                .map(document -> repository.countByStoreIdAndContentSha256AndStateInAndSupersededAtIsNullAndIdNot(
+                        document.getStoreId(), document.getContentSha256(), LIVE_STATES, document.getId()) > 0)
+                .orElse(false);
+    }
+
+    @Transactional
+    public void recordUpload(String storeId, String displayName, String mimeType, long sizeBytes,
+            String contentSha256, Map<String, String> metadata, String resultName, boolean done) {
+        DocumentManifestEntity document = done
+                ? repository.findByDocumentName(resultName)
+                        .orElseGet(() -> new DocumentManifestEntity(storeId, displayName, DocumentState.ACTIVE))
+                : new DocumentManifestEntity(storeId, displayName, DocumentState.PENDING);
+
+        if (done) {
+            document.setDocumentName(resultName);
+            document.setState(DocumentState.ACTIVE);
+        } else {
+            document.setOperationName(resultName);
+        }
+        document.setDisplayName(displayName);
+        document.setMimeType(mimeType);
+        document.setSizeBytes(sizeBytes);
+        document.setContentSha256(contentSha256);
+        document.setMetadata(writeMetadata(metadata));
+        document.setUpdatedAt(Instant.now());
+        repository.save(document);
+    }
+
+    @Transactional
+    public Optional<String> markIndexed(String operationName, String documentName) {
+        Optional<DocumentManifestEntity> pending = repository.findByOperationName(operationName);
+        if (pending.isEmpty()) {
+            return Optional.empty();
+        }
+        DocumentManifestEntity document = pending.get();
+        if (document.getSupersededAt() != null) {
+            repository.delete(document);
+            return Optional.ofNullable(documentName);
+        }
+        Optional<DocumentManifestEntity> synced = documentName == null
+                ? Optional.empty()
+                : repository.findByDocumentName(documentName)
+                        .filter(existing -> !existing.getId().equals(document.getId()));
+        if (synced.isPresent()) {
+            DocumentManifestEntity existing = synced.get();
+            existing.setOperationName(operationName);
+            existing.setContentSha256(document.getContentSha256());
+            existing.setMimeType(document.getMimeType());
+            existing.setState(DocumentState.ACTIVE);
+            existing.setUpdatedAt(Instant.now());
+            repository.delete(document);
+            return Optional.empty();
+        }
+        document.setDocumentName(documentName);
+        document.setState(DocumentState.ACTIVE);
+        document.setUpdatedAt(Instant.now());
+        return Optional.empty();
+    }
+
+    @Transactional
+    public void markFailed(String operationName) {
+        repository.findByOperationName(operationName).ifPresent(document -> {
+            if (document.getSupersededAt() != null) {
+                repository.delete(document);
+                return;
+            }
+            document.setState(DocumentState.FAILED);
+            document.setUpdatedAt(Instant.now());
+        });
+    }
+
+    public Map<String, DocumentManifestEntity> sourced(String storeId) {
+        Map<String, DocumentManifestEntity> byPath = new HashMap<>();
+        for (DocumentManifestEntity document : repository.findByStoreIdAndSourcePathIsNotNull(storeId)) {
+            byPath.put(document.getSourcePath(), document);
+        }
+        return byPath;
+    }
+
+    @Transactional
+    public void attachSource(UUID id, String sourcePath, Instant sourceModifiedAt) {
+        repository.findById(id).ifPresent(document -> {
+            document.setSourcePath(sourcePath);
+            document.setSourceModifiedAt(sourceModifiedAt);
+        });
+    }
+
+    @Transactional
+    public void attachSource(String storeId, String contentSha256, String sourcePath, Instant sourceModifiedAt) {
+        findByContent(storeId, contentSha256).ifPresent(document -> {
+            document.setSourcePath(sourcePath);
+            document.setSourceModifiedAt(sourceModifiedAt);
+            repository.save(document);
+        });
+    }
+
+    public List<DocumentManifestEntity> live(String storeId) {
+        return repository.findByStoreIdOrderByDisplayName(storeId).stream()
+                .filter(document -> document.getContentSha256() != null && document.getSupersededAt() == null
+                        && document.getState() != DocumentState.FAILED)
+                .toList();
+    }
+
+    public Map<String, String> metadataOf(DocumentManifestEntity document) {
+        return readMetadata(document.getMetadata());
+    }
+
+    @Transactional
+    public void supersede(UUID id) {
+        repository.findById(id).ifPresent(document -> {
+            Instant now = Instant.now();
+            document.setSupersededAt(now);
+            document.setSourcePath(null);
+            document.setSourceModifiedAt(null);
+            document.setUpdatedAt(now);
+        });
+    }
+
+    public Optional<String> contentHashOf(String documentName) {
+        return repository.findByDocumentName(documentName).map(DocumentManifestEntity::getContentSha256);
+    }
+
+    @Transactional
+    public void remove(String documentName) {
+        repository.deleteByDocumentName(documentName);
+    }
+
+    @Transactional
+    public void removeStore(String storeId) {
+        int removed = repository.deleteByStoreId(storeId);
+        System.out.println("🧹 Manifesto local: " + removed + " documento(s) removido(s) do store " + storeId);
+    }
+
+    public List<Map<String, Object>> list(String storeId) {
+        if (storeId == null) {
+            return List.of();
+        }
+        List<Map<String, Object>> documents = new ArrayList<>();
+        for (DocumentManifestEntity document : repository.findByStoreIdOrderByDisplayName(storeId)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", document.getDocumentName() != null ? document.getDocumentName()
+                    : document.getOperationName());
+            item.put("displayName", document.getDisplayName());
+            item.put("state", document.getState());
+            item.put("sizeBytes", document.getSizeBytes());
+            item.put("mimeType", document.getMimeType());
+            item.put("sha256", document.getContentSha256());
+            item.put("metadata", readMetadata(document.getMetadata()));
+            item.put("updatedAt", document.getUpdatedAt());
+            documents.add(item);
+        }
+        return documents;
+    }
+
+    public Map<String, Object> summary(String storeId) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("name", storeId);
+        long totalDocuments = 0;
+        long totalBytes = 0;
+        Instant lastSync = null;
+        Map<DocumentState, Long> counts = new EnumMap<>(DocumentState.class);
+        for (DocumentState state : DocumentState.values()) {
+            counts.put(state, 0L);
+        }
+        if (storeId != null) {
+            for (Object[] row : repository.summarize(storeId)) {
+                long count = ((Number) row[1]).longValue();
+                counts.put((DocumentState) row[0], count);
+                totalDocuments += count;
+                totalBytes += ((Number) row[2]).longValue();
+                Instant synced = (Instant) row[3];
+                if (synced != null && (lastSync == null || synced.isAfter(lastSync))) {
+                    lastSync = synced;
+                }
+            }
+        }
+        summary.put("activeDocumentsCount", counts.get(DocumentState.ACTIVE));
+        summary.put("pendingDocumentsCount", counts.get(DocumentState.PENDING));
+        summary.put("failedDocumentsCount", counts.get(DocumentState.FAILED));
+        summary.put("totalDocuments", totalDocuments);
+        summary.put("sizeBytes", totalBytes);
+        summary.put("lastSyncedAt", lastSync);
+        return summary;
+    }
+
+    @Transactional
+    public Map<String, Integer> reconcile(String storeId, List<JSONObject> remoteDocuments, Instant syncStart) {
+        int created = 0;
+        int updated = 0;
+        for (JSONObject remote : remoteDocuments) {
+            String documentName = remote.getString("name");
+            Map<String, String> metadata = new LinkedHashMap<>();
+            String contentSha256 = parseMetadata(remote.optJSONArray("customMetadata"), metadata);
+
+            DocumentManifestEntity document = repository.findByDocumentName(documentName)
+                    .or(() -> contentSha256 == null
+                            ? Optional.empty()
+                            : repository.findFirstByStoreIdAndContentSha256AndDocumentNameIsNullAndSupersededAtIsNull(storeId,
+                                    contentSha256))
+                    .orElse(null);
+            if (document == null) {
+                document = new DocumentManifestEntity(storeId, remote.optString("displayName", documentName),
+                        DocumentState.PENDING);
+                created++;
+            } else {
+                updated++;
+            }
+
+            document.setStoreId(storeId);
+            document.setDocumentName(documentName);
+            document.setDisplayName(remote.optString("displayName", document.getDisplayName()));
+            document.setState(mapState(remote.optString("state", "")));
+            document.setMimeType(remote.optString("mimeType", document.getMimeType()));
+            document.setSizeBytes(remote.optLong("sizeBytes", document.getSizeBytes()));
+            document.setMetadata(writeMetadata(metadata));
+            if (contentSha256 != null) {
+                document.setContentSha256(contentSha256);
+            }
+            document.setSyncedAt(syncStart);
+            repository.save(document);
+        }
+
+        int removed = repository.deleteMissing(storeId, syncStart);
+        return Map.of("remotos", remoteDocuments.size(), "criados", created, "atualizados", updated,
+                "removidos", removed);
+    }
+
+    private static String parseMetadata(JSONArray customMetadata, Map<String, String> metadata) {
+        String contentSha256 = null;
+        if (customMetadata == null) {
+            return null;
+        }
+        for (int i = 0; i < customMetadata.length(); i++) {
+            JSONObject item = customMetadata.optJSONObject(i);
+            if (item == null) {
+                continue;
+            }
+            String key = item.optString("key", "");
+            String value;
+            if (item.has("stringValue")) {
+                value = item.optString("stringValue");
+            } else if (item.has("numericValue")) {
+                value = String.valueOf(item.opt("numericValue"));
+            } else if (item.has("stringListValue")) {
+                JSONArray values = item.getJSONObject("stringListValue").optJSONArray("values");
+                value = values == null ? "" : String.join(",", values.toList().stream().map(String::valueOf).toList());
+            } else {
+                continue;
+            }
+            if (CONTENT_HASH_KEY.equals(key)) {
+                contentSha256 = value;
+            } else {
+                metadata.put(key, value);
+            }
+        }
+        return contentSha256;
+    }
+
+    private static DocumentState mapState(String state) {
+        return switch (state) {
+            case "STATE_ACTIVE", "ACTIVE" -> DocumentState.ACTIVE;
+            case "STATE_FAILED", "FAILED" -> DocumentState.FAILED;
+            default -> DocumentState.PENDING;
+        };
+    }
+
+    private String writeMetadata(Map<String, String> metadata) {
+        if (metadata == null || metadata.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao serializar metadata: " + e.getMessage(), e);
+        }
+    }
+
+    private Map<String, String> readMetadata(String metadata) {
+        if (metadata == null || metadata.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(metadata, new TypeReference<>() {
+            });
+        } catch (JsonProcessingException e) {
+            return Map.of();
+        }
+    }
+}
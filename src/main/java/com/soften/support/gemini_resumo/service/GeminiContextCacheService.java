@@ -0,0 +1,174 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.client.GeminiHttpClient;
+import com.soften.support.gemini_resumo.client.SingleFlight;
+import com.soften.support.gemini_resumo.utils.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class GeminiContextCacheService {
+
+    @Value("${gemini.api.key:}")
+    private String apiKey;
+
+    private record CachedPrefix(String name, Instant expiresAt) {
+    }
+
+    private static final String CACHED_CONTENTS_URL = "https://generativelanguage.googleapis.com/v1beta/cachedContents";
+    private static final String MODEL = "models/gemini-2.5-flash-lite";
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final GeminiHttpClient httpClient;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration refreshMargin;
+    private final Duration failureBackoff;
+    private final Duration rejectedBackoff;
+    private final int minTokens;
+    private final ConcurrentHashMap<String, CachedPrefix> prefixes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Instant> unavailableUntil = new ConcurrentHashMap<>();
+    private final SingleFlight<CachedPrefix> createFlight;
+
+    private final Counter hits;
+    private final Counter created;
+    private final Counter fallbacks;
+    private final Counter invalidated;
+    private final Counter tooSmall;
+
+    public GeminiContextCacheService(GeminiHttpClient httpClient, MeterRegistry meterRegistry,
+            @Value("${gemini.context-cache.enabled:true}") boolean enabled,
+            @Value("${gemini.context-cache.ttl:1h}") Duration ttl,
+            @Value("${gemini.context-cache.refresh-margin:5m}") Duration refreshMargin,
+            @Value("${gemini.context-cache.failure-backoff:10m}") Duration failureBackoff,
+            @Value("${gemini.context-cache.rejected-backoff:6h}") Duration rejectedBackoff,
+            @Value("${gemini.context-cache.min-tokens:1024}") int minTokens) {
+        this.httpClient = httpClient;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.refreshMargin = refreshMargin;
+        this.failureBackoff = failureBackoff;
+        this.rejectedBackoff = rejectedBackoff;
+        this.minTokens = minTokens;
+        this.createFlight = new SingleFlight<>("context-cache", meterRegistry);
+
+        this.hits = Counter.builder("gemini.context-cache").tag("result", "hit").register(meterRegistry);
+        this.created = Counter.builder("gemini.context-cache").tag("result", "created").register(meterRegistry);
+        this.fallbacks = Counter.builder("gemini.context-cache").tag("result", "inline").register(meterRegistry);
+        this.invalidated = Counter.builder("gemini.context-cache").tag("result", "invalidated")
+                .register(meterRegistry);
+        this.tooSmall = Counter.builder("gemini.context-cache").tag("result", "too-small").register(meterRegistry);
+        Gauge.builder("gemini.context-cache.size", prefixes, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    public Optional<String> resolve(String prefix) {
+        if (!enabled || prefix == null || prefix.isBlank()) {
+            return Optional.empty();
+        }
+        if (prefix.length() / CHARS_PER_TOKEN < minTokens) {
+            tooSmall.increment();
+            return Optional.empty();
+        }
+
+        String key = Hashing.sha256(prefix);
+        Instant now = Instant.now();
+
+        CachedPrefix cached = prefixes.get(key);
+        if (cached != null && now.plus(refreshMargin).isBefore(cached.expiresAt())) {
+            hits.increment();
+            return Optional.of(cached.name());
+        }
+
+        Instant blockedUntil = unavailableUntil.get(key);
+        if (blockedUntil != null && now.isBefore(blockedUntil)) {
+            fallbacks.increment();
+            return Optional.empty();
+        }
+
+        try {
+            CachedPrefix fresh = createFlight.execute(key, () -> create(key, prefix));
+            return Optional.of(fresh.name());
+        } catch (HttpClientErrorException e) {
+            boolean rejected = e.getStatusCode().value() == 400;
+            unavailableUntil.put(key, now.plus(rejected ? rejectedBackoff : failureBackoff));
+            fallbacks.increment();
+            System.err.println("⚠️ Gemini recusou o cache de contexto (HTTP " + e.getStatusCode().value()
+                    + (rejected ? ", prompt abaixo do mínimo de tokens?" : "") + "), usando prompt inline");
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            unavailableUntil.put(key, now.plus(failureBackoff));
+            fallbacks.increment();
+            System.err.println("⚠️ Cache de contexto indisponível, usando prompt inline: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void invalidate(String prefix) {
+        if (prefix != null && prefixes.remove(Hashing.sha256(prefix)) != null) {
+            invalidated.increment();
+            System.out.println("♻️ Cache de contexto invalidado, será recriado na próxima chamada");
+        }
+    }
+
+    public void reject(String prefix, HttpClientErrorException e) {
+        if (prefix == null || e.getStatusCode().value() != 400) {
+            return;
+        }
+        unavailableUntil.put(Hashing.sha256(prefix), Instant.now().plus(rejectedBackoff));
+        System.err.println("⚠️ Gemini recusou a chamada com cache de contexto (HTTP 400), usando prompt inline por "
+                + rejectedBackoff);
+    }
+
+    public boolean isCacheError(HttpClientErrorException e) {
+        int status = e.getStatusCode().value();
+        return status == 400 || status == 403 || status == 404;
+    }
+
+    private CachedPrefix create(String key, String prefix) {
+        JSONObject body = new JSONObject();
+        body.put("model", MODEL);
+        body.put("displayName", "ResumoChat_Prompt_" + key.substring(0, 12));
+        body.put("ttl", ttl.toSeconds() + "s");
+
+        JSONArray contents = new JSONArray();
+        JSONObject contentItem = new JSONObject();
+        contentItem.put("role", "user");
+        contentItem.put("parts", new JSONArray().put(new JSONObject().put("text", prefix)));
+        contents.put(contentItem);
+        body.put("contents", contents);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<String> entity = new HttpEntity<>(body.toString(), headers);
+
+        ResponseEntity<String> response = httpClient.post(GeminiHttpClient.Operation.ADMIN,
+                CACHED_CONTENTS_URL + "?key=" + apiKey, entity);
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new RuntimeException("Erro HTTP ao criar cache de contexto: " + response.getStatusCode().value());
+        }
+
+        JSONObject json = new JSONObject(response.getBody());
+        String name = json.getString("name");
+        String expireTime = json.optString("expireTime", "");
+        Instant expiresAt = expireTime.isBlank() ? Instant.now().plus(ttl) : Instant.parse(expireTime);
+
+        CachedPrefix cached = new CachedPrefix(name, expiresAt);
+        prefixes.put(key, cached);
+        unavailableUntil.remove(key);
+        created.increment();
+        System.out.println("🗄️ Cache de contexto criado: " + name + " (expira em " + expiresAt + ")");
+        return cached;
+    }
+}
@@ -1,29 +1,85 @@
 package com.soften.support.gemini_resumo.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soften.support.gemini_resumo.client.CircuitBreakerRegistry;
+import com.soften.support.gemini_resumo.client.GeminiApiException;
+import com.soften.support.gemini_resumo.client.GeminiHttpClient;
+import com.soften.support.gemini_resumo.client.GeminiRateLimitException;
+import com.soften.support.gemini_resumo.client.GeminiResponse;
+import com.soften.support.gemini_resumo.client.GeminiResponseDecoder;
+import com.soften.support.gemini_resumo.client.SingleFlight;
+import com.soften.support.gemini_resumo.models.dtos.PreprocessedTranscript;
+import com.soften.support.gemini_resumo.models.enums.ModulesCalled;
+import com.soften.support.gemini_resumo.models.enums.MoodClient;
+import com.soften.support.gemini_resumo.utils.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class GeminiService {
 
     @Value("${gemini.api.key:}")
     private String apiKey;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final GeminiHttpClient httpClient;
     private final GoogleFileSearchService fileSearchService;
+    private final SummaryCacheService summaryCache;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final SingleFlight<String> summaryFlight;
+    private final SingleFlight<String> askFlight;
+    private final TranscriptPreprocessor preprocessor;
+    private final GeminiContextCacheService contextCache;
+    private final GeminiResponseDecoder responseDecoder;
+    private final ManualsIndexService manualsIndex;
+    private final Counter localSearches;
+    private final Counter fileSearches;
+    private final Counter promptTokens;
+    private final Counter cachedTokens;
+    private final Counter outputTokens;
     private static final String GEMINI_URL_BASE = "https://generativelanguage.googleapis.com/v1/models/gemini-2.5-flash-lite:generateContent?key=";
-
-    public GeminiService(GoogleFileSearchService fileSearchService) {
+    private static final String GEMINI_STREAM_URL_BASE = "https://generativelanguage.googleapis.com/v1/models/gemini-2.5-flash-lite:streamGenerateContent?alt=sse&key=";
+    private static final String GEMINI_CACHED_URL_BASE = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite:generateContent?key=";
+    private static final String GEMINI_CACHED_STREAM_URL_BASE = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash-lite:streamGenerateContent?alt=sse&key=";
+
+    public GeminiService(GoogleFileSearchService fileSearchService, GeminiHttpClient httpClient,
+            SummaryCacheService summaryCache, CircuitBreakerRegistry circuitBreakers,
+            MeterRegistry meterRegistry, TranscriptPreprocessor preprocessor,
+            GeminiContextCacheService contextCache, GeminiResponseDecoder responseDecoder,
+            ManualsIndexService manualsIndex) {
         this.fileSearchService = fileSearchService;
+        this.httpClient = httpClient;
+        this.summaryCache = summaryCache;
+        this.circuitBreakers = circuitBreakers;
+        this.summaryFlight = new SingleFlight<>("summary", meterRegistry);
+        this.askFlight = new SingleFlight<>("ask", meterRegistry);
+        this.preprocessor = preprocessor;
+        this.contextCache = contextCache;
+        this.responseDecoder = responseDecoder;
+        this.manualsIndex = manualsIndex;
+        this.localSearches = Counter.builder("gemini.docs.search").tag("tier", "local").register(meterRegistry);
+        this.fileSearches = Counter.builder("gemini.docs.search").tag("tier", "file_search").register(meterRegistry);
+        this.promptTokens = Counter.builder("gemini.tokens").tag("type", "prompt").register(meterRegistry);
+        this.cachedTokens = Counter.builder("gemini.tokens").tag("type", "cached").register(meterRegistry);
+        this.outputTokens = Counter.builder("gemini.tokens").tag("type", "output").register(meterRegistry);
     }
 
     @PostConstruct
@@ -35,31 +91,86 @@ public class GeminiService {
         }
     }
 
-    private String generateGenericSummary(String textService, String contextPrompt) {
+    private JSONObject createSummaryRequestBody(String textService, String contextPrompt, String cachedContent,
+            JSONObject responseSchema) {
+        JSONObject body = new JSONObject();
+        if (cachedContent != null) {
+            body.put("cachedContent", cachedContent);
+        }
+        JSONArray contents = new JSONArray();
+        JSONObject contentItem = new JSONObject();
+        contentItem.put("role", "user");
+        JSONArray parts = new JSONArray();
+        parts.put(new JSONObject().put("text", cachedContent != null
+                ? "ATENDIMENTO ANALISADO:\n"
+                : contextPrompt + "\n\nATENDIMENTO ANALISADO:\n"));
+        parts.put(new JSONObject().put("text", textService));
+        contentItem.put("parts", parts);
+        contents.put(contentItem);
+        body.put("contents", contents);
+
+        JSONObject generationConfig = new JSONObject();
+        generationConfig.put("temperature", 0.3);
+        generationConfig.put("maxOutputTokens", 2048);
+        if (responseSchema != null) {
+            generationConfig.put("responseMimeType", "application/json");
+            generationConfig.put("responseSchema", responseSchema);
+        }
+        body.put("generationConfig", generationConfig);
+        return body;
+    }
+
+    private JSONObject createSummarySchema() {
+        List<String> fields = List.of("problem", "solution", "upsell", "prints", "mood", "modules");
+
+        JSONObject properties = new JSONObject();
+        properties.put("problem", new JSONObject().put("type", "STRING"));
+        properties.put("solution", new JSONObject().put("type", "STRING"));
+        properties.put("upsell", new JSONObject().put("type", "STRING"));
+        properties.put("prints", new JSONObject().put("type", "BOOLEAN"));
+        properties.put("mood", new JSONObject().put("type", "STRING")
+                .put("enum", new JSONArray(Arrays.stream(MoodClient.values()).map(Enum::name).toList())));
+        properties.put("modules", new JSONObject().put("type", "STRING")
+                .put("enum", new JSONArray(Arrays.stream(ModulesCalled.values()).map(Enum::name).toList())));
+
+        return new JSONObject()
+                .put("type", "OBJECT")
+                .put("properties", properties)
+                .put("required", new JSONArray(fields))
+                .put("propertyOrdering", new JSONArray(fields));
+    }
+
+    private <T> T withContextCache(String prefix, Function<String, T> call) {
+        Optional<String> cachedContent = contextCache.resolve(prefix);
+        if (cachedContent.isEmpty()) {
+            return call.apply(null);
+        }
         try {
-            String prompt = contextPrompt + "\n\nATENDIMENTO ANALISADO:\n" + textService + "\n";
-
-            JSONObject body = new JSONObject();
-            JSONArray contents = new JSONArray();
-            JSONObject contentItem = new JSONObject();
-            contentItem.put("role", "user");
-            JSONArray parts = new JSONArray();
-            parts.put(new JSONObject().put("text", prompt));
-            contentItem.put("parts", parts);
-            contents.put(contentItem);
-            body.put("contents", contents);
-
-            JSONObject generationConfig = new JSONObject();
-            generationConfig.put("temperature", 0.3);
-            generationConfig.put("maxOutputTokens", 2048);
-            body.put("generationConfig", generationConfig);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(body.toString(), headers);
-
-            String url = GEMINI_URL_BASE + apiKey;
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+            return call.apply(cachedContent.get());
+        } catch (HttpClientErrorException e) {
+            if (!contextCache.isCacheError(e)) {
+                throw e;
+            }
+            contextCache.invalidate(prefix);
+            T result = call.apply(null);
+            contextCache.reject(prefix, e);
+            return result;
+        }
+    }
+
+    private String generateGenericSummary(String textService, String contextPrompt, JSONObject responseSchema) {
+        try {
+            ResponseEntity<String> response = withContextCache(contextPrompt, cachedContent -> {
+                JSONObject body = createSummaryRequestBody(textService, contextPrompt, cachedContent, responseSchema);
+
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                HttpEntity<String> entity = new HttpEntity<>(body.toString(), headers);
+
+                String url = (cachedContent != null || responseSchema != null ? GEMINI_CACHED_URL_BASE : GEMINI_URL_BASE)
+                        + apiKey;
+                return httpClient.post(GeminiHttpClient.Operation.GENERATE, url, entity);
+            });
 
             if (!response.getStatusCode().is2xxSuccessful()) {
                 throw new RuntimeException("Erro HTTP: " + response.getStatusCode().value());
@@ -70,27 +181,14 @@ public class GeminiService {
                 throw new RuntimeException("Resposta vazia da API Gemini.");
             }
 
-            JSONObject json = new JSONObject(respBody);
-            String rawText = json.getJSONArray("candidates")
-                    .getJSONObject(0).getJSONObject("content").getJSONArray("parts")
-                    .getJSONObject(0).getString("text");
+            GeminiResponse decoded = responseDecoder.decode(respBody);
+            recordUsage(decoded);
 
-            String finishReason = json
-                    .getJSONArray("candidates")
-                    .getJSONObject(0)
-                    .optString("finishReason", null);
-
-            if ("MAX_TOKENS".equalsIgnoreCase(finishReason)) {
+            if ("MAX_TOKENS".equalsIgnoreCase(decoded.finishReason())) {
                 throw new RuntimeException("Erro: A resposta da API foi cortada por exceder o limite de tokens.");
             }
 
-            String summary = json
-                    .getJSONArray("candidates")
-                    .getJSONObject(0)
-                    .getJSONObject("content")
-                    .getJSONArray("parts")
-                    .getJSONObject(0)
-                    .getString("text");
+            String summary = decoded.text();
 
             if (summary == null || summary.isBlank()) {
                 throw new RuntimeException("Erro: a API não retornou um summary válido.");
@@ -98,19 +196,166 @@ public class GeminiService {
 
             return summary;
 
+        } catch (GeminiRateLimitException e) {
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
-            throw new RuntimeException("Erro ao chamar a API Gemini: " + e.getMessage(), e);
+            throw new GeminiApiException("Erro ao chamar a API Gemini: " + e.getMessage(), e);
         }
     }
 
     public String generateSummary(String textService, String prompt) {
-        return generateGenericSummary(textService, prompt);
+        return generateSummary(textService, prompt, null);
+    }
+
+    private String generateSummary(String textService, String prompt, JSONObject responseSchema) {
+        String cacheKey = summaryCache.key(textService, prompt);
+        return summaryCache.get(cacheKey).orElseGet(() -> summaryFlight.execute(cacheKey, () -> {
+            String summary = circuitBreakers.get(CircuitBreakerRegistry.Circuit.SUMMARY)
+                    .call(() -> generateGenericSummary(textService, prompt, responseSchema));
+            summaryCache.put(cacheKey, summary);
+            return summary;
+        }));
     }
 
     public String generateSummary(String textService) {
+        return generateSummary(preprocessor.process(textService));
+    }
+
+    public String generateSummary(PreprocessedTranscript transcript) {
+        logPreprocessing(transcript);
+        String prompt = createSummaryPrompt();
+        return generateSummary(transcript.text(), prompt);
+    }
+
+    public String generateStructuredSummary(String textService) {
+        return generateStructuredSummary(preprocessor.process(textService));
+    }
+
+    public String generateStructuredSummary(PreprocessedTranscript transcript) {
+        logPreprocessing(transcript);
+        return generateSummary(transcript.text(), createStructuredSummaryPrompt(), createSummarySchema());
+    }
+
+    public void evictStructuredSummary(String textService) {
+        evictStructuredSummary(preprocessor.process(textService));
+    }
+
+    public void evictStructuredSummary(PreprocessedTranscript transcript) {
+        summaryCache.evict(summaryCache.key(transcript.text(), createStructuredSummaryPrompt()));
+    }
+
+    private void logPreprocessing(PreprocessedTranscript transcript) {
+        System.out.println("✂️ Pré-processamento: " + transcript.originalChars() + " -> " + transcript.processedChars()
+                + " caracteres (~" + transcript.estimatedTokensSaved() + " tokens economizados, "
+                + transcript.droppedBotLines() + " linhas de bot, " + transcript.droppedGreetings() + " saudações, "
+                + transcript.maskedIds() + " IDs mascarados)");
+    }
+
+    public String streamSummary(String textService, Consumer<String> consumer) {
+        Consumer<String> onChunk = detachOnFailure(consumer);
+        PreprocessedTranscript transcript = preprocessor.process(textService);
+        logPreprocessing(transcript);
+        String text = transcript.text();
         String prompt = createSummaryPrompt();
-        return generateGenericSummary(textService, prompt);
+        String cacheKey = summaryCache.key(text, prompt);
+
+        Optional<String> cached = summaryCache.get(cacheKey);
+        if (cached.isPresent()) {
+            onChunk.accept(cached.get());
+            return cached.get();
+        }
+
+        AtomicBoolean streamed = new AtomicBoolean(false);
+        String summary = summaryFlight.execute(cacheKey, () -> {
+            streamed.set(true);
+            String result = circuitBreakers.get(CircuitBreakerRegistry.Circuit.SUMMARY)
+                    .call(() -> streamGenericSummary(text, prompt, onChunk));
+            summaryCache.put(cacheKey, result);
+            return result;
+        });
+        if (!streamed.get()) {
+            onChunk.accept(summary);
+        }
+        return summary;
+    }
+
+    static Consumer<String> detachOnFailure(Consumer<String> consumer) {
+        AtomicBoolean detached = new AtomicBoolean(false);
+        return chunk -> {
+            if (detached.get()) {
+                return;
+            }
+            try {
+                consumer.accept(chunk);
+            } catch (RuntimeException e) {
+                detached.set(true);
+                System.out.println("ℹ️ Cliente do streaming desconectou, o resumo continua sendo gerado: "
+                        + e.getMessage());
+            }
+        };
+    }
+
+    private String streamGenericSummary(String textService, String contextPrompt, Consumer<String> onChunk) {
+        try {
+            String summary = withContextCache(contextPrompt, cachedContent -> {
+                byte[] body = createSummaryRequestBody(textService, contextPrompt, cachedContent, null).toString()
+                        .getBytes(StandardCharsets.UTF_8);
+
+                String url = (cachedContent != null ? GEMINI_CACHED_STREAM_URL_BASE : GEMINI_STREAM_URL_BASE) + apiKey;
+                return httpClient.execute(GeminiHttpClient.Operation.GENERATE, url, HttpMethod.POST,
+                        request -> {
+                            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                            request.getBody().write(body);
+                        },
+                        response -> readSummaryStream(response.getBody(), onChunk));
+            });
+
+            if (summary == null || summary.isBlank()) {
+                throw new RuntimeException("Erro: a API não retornou um summary válido.");
+            }
+
+            return summary;
+
+        } catch (GeminiRateLimitException e) {
+            throw e;
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new GeminiApiException("Erro ao chamar a API Gemini: " + e.getMessage(), e);
+        }
+    }
+
+    private String readSummaryStream(InputStream stream, Consumer<String> onChunk) throws IOException {
+        StringBuilder summary = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+
+        GeminiResponse usage = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+
+            GeminiResponse chunk = responseDecoder.decode(line.substring(5));
+            if (chunk.hasUsage()) {
+                usage = chunk;
+            }
+
+            String text = chunk.text();
+            if (text != null && !text.isEmpty()) {
+                summary.append(text);
+                onChunk.accept(text);
+            }
+
+            if ("MAX_TOKENS".equalsIgnoreCase(chunk.finishReason())) {
+                throw new RuntimeException("Erro: A resposta da API foi cortada por exceder o limite de tokens.");
+            }
+        }
+
+        if (usage != null) {
+            recordUsage(usage);
+        }
+        return summary.toString();
     }
 
     private String createSummaryPrompt() {
@@ -190,38 +435,76 @@ public class GeminiService {
                     """;
     }
 
-    public String ask(String prompt) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    private String createStructuredSummaryPrompt() {
+        StringBuilder modules = new StringBuilder();
+        for (ModulesCalled module : ModulesCalled.values()) {
+            modules.append("- ").append(module.getLabel()).append(" = ").append(module.name()).append("\n");
+        }
+
+        return createSummaryPrompt() + """
+
+                    **FORMATO DE SAÍDA:** Responda SOMENTE com o objeto JSON definido no schema, sem markdown e sem
+                    os títulos das seções. Cada campo recebe o conteúdo da seção correspondente acima:
+                    - problem = PROBLEMA / DÚVIDA
+                    - solution = SOLUÇÃO APRESENTADA
+                    - upsell = OPORTUNIDADE DE UPSELL
+                    - prints = PRINTS DE ERRO OU DE MENSAGENS RELEVANTES (true para 'Sim', false para 'Não')
+                    - mood = HUMOR DO CLIENTE (GOOD para 'BOM', NEUTRAL para 'NEUTRO', IRRITATED para 'IRRITADO')
+                    - modules = MÓDULO, usando o código da categoria escolhida:
+                    """ + modules;
+    }
 
-        Map<String, Object> parts = Map.of("text", prompt);
-        Map<String, Object> contents = Map.of("parts", List.of(parts));
-        Map<String, Object> body = Map.of("contents", List.of(contents));
+    public String ask(String prompt) {
+        return askFlight.execute(prompt, () -> doAsk(null, prompt));
+    }
 
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
-        String urlFinal = GEMINI_URL_BASE + apiKey;
+    public String ask(String instructions, String prompt) {
+        return askFlight.execute(Hashing.sha256(instructions) + "\n" + prompt, () -> doAsk(instructions, prompt));
+    }
 
+    private String doAsk(String instructions, String prompt) {
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(urlFinal, request, String.class);
+            ResponseEntity<String> response = withContextCache(instructions, cachedContent -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+
+                String text = cachedContent == null && instructions != null ? instructions + prompt : prompt;
+                Map<String, Object> parts = Map.of("text", text);
+                Map<String, Object> contents = Map.of("role", "user", "parts", List.of(parts));
+                Map<String, Object> body = new LinkedHashMap<>();
+                if (cachedContent != null) {
+                    body.put("cachedContent", cachedContent);
+                }
+                body.put("contents", List.of(contents));
+
+                HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
+                String urlFinal = (cachedContent != null ? GEMINI_CACHED_URL_BASE : GEMINI_URL_BASE) + apiKey;
+                return httpClient.post(GeminiHttpClient.Operation.GENERATE, urlFinal, request);
+            });
             return extractTextGemini(response.getBody());
+        } catch (GeminiRateLimitException e) {
+            throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Erro ao enviar requisição para o Gemini: " + e.getMessage());
+            throw new GeminiApiException("Erro ao enviar requisição para o Gemini: " + e.getMessage(), e);
         }
     }
 
     private String extractTextGemini(String json) {
         try {
-            JsonNode node = new ObjectMapper().readTree(json);
-            return node
-                    .path("candidates").get(0)
-                    .path("content")
-                    .path("parts").get(0)
-                    .path("text").asText();
+            GeminiResponse decoded = responseDecoder.decode(json);
+            recordUsage(decoded);
+            return decoded.text() != null ? decoded.text() : "";
         } catch (Exception e) {
             throw new RuntimeException("Erro ao extrair texto da resposta do Gemini: " + e.getMessage());
         }
     }
 
+    private void recordUsage(GeminiResponse response) {
+        promptTokens.increment(response.promptTokens());
+        cachedTokens.increment(response.cachedTokens());
+        outputTokens.increment(response.outputTokens());
+    }
+
     public String getPromptSummary() {
         return createSummaryPrompt();
     }
@@ -235,6 +518,29 @@ public class GeminiService {
         try {
             System.out.println("🔍 Busca Smart de documentação [" + categoria + "] para: " + query);
 
+            String filtro = categoria == null || categoria.isBlank() || "manuais".equalsIgnoreCase(categoria)
+                    ? null
+                    : categoria;
+            Optional<List<ManualsIndexService.Hit>> local = manualsIndex.searchConfident(query, filtro);
+            if (local.isPresent()) {
+                localSearches.increment();
+                System.out.println("⚡ Documentação encontrada no índice local (" + local.get().size() + " trecho(s))");
+                return local.get().stream()
+                        .map(hit -> new org.springframework.ai.document.Document(
+                                "local-" + hit.documentKey().substring(0, Math.min(12, hit.documentKey().length()))
+                                        + "-" + Math.abs(hit.text().hashCode()),
+                                hit.text(),
+                                Map.<String, Object>of(
+                                        "source", "Índice local (BM25)",
+                                        "query", query,
+                                        "categoria", categoria != null ? categoria : "N/A",
+                                        "documento", hit.displayName() != null ? hit.displayName() : "N/A",
+                                        "score", hit.score(),
+                                        "timestamp", System.currentTimeMillis())))
+                        .toList();
+            }
+            fileSearches.increment();
+
             String systemInstruction = String.format("""
                     Você é um assistente especializado em documentação técnica para o módulo/categoria: '%s'.
                     Retorne apenas documentação oficial e relevante para a consulta fornecida.
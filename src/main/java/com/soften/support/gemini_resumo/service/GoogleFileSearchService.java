@@ -1,18 +1,50 @@
 package com.soften.support.gemini_resumo.service;
 
+import com.soften.support.gemini_resumo.client.CircuitBreakerRegistry;
+import com.soften.support.gemini_resumo.client.GeminiHttpClient;
+import com.soften.support.gemini_resumo.client.GeminiResponse;
+import com.soften.support.gemini_resumo.client.GeminiResponseDecoder;
+import com.soften.support.gemini_resumo.client.RateLimiter;
+import com.soften.support.gemini_resumo.client.SingleFlight;
+import com.soften.support.gemini_resumo.models.dtos.StoreResetDto;
+import com.soften.support.gemini_resumo.models.entities.DocumentManifestEntity;
+import com.soften.support.gemini_resumo.utils.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.AbstractResource;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 @Service
 public class GoogleFileSearchService {
@@ -20,106 +52,171 @@ public class GoogleFileSearchService {
     @Value("${gemini.api.key:}")
     private String apiKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final GeminiHttpClient httpClient;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final SingleFlight<String> searchFlight;
+    private final GeminiResponseDecoder responseDecoder;
+    private final UploadOperationService uploadOperations;
+    private final DocumentManifestService manifest;
+    private final StoreIdCacheService storeIdCache;
+    private final ManualsIndexService manualsIndex;
+    private final long resumableThreshold;
+    private final long uploadChunkSize;
+    private final int uploadChunkRetries;
+    private final int resetParallelism;
+    private final RateLimiter deleteRate;
+    private final ReentrantLock resetLock = new ReentrantLock();
+    private final AtomicReference<StoreIds> storeIds = new AtomicReference<>(new StoreIds(null, null));
+    private volatile ResetRun lastReset;
+    private volatile Instant storesValidatedAt;
+
+    private record StoreIds(String classification, String manuals) {
+    }
 
     private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1beta";
     private static final String UPLOAD_URL = "https://generativelanguage.googleapis.com/upload/v1beta";
     private static final String CLASSIFICATION_STORE_NAME = "ResumoChat_Classification_v2";
     private static final String MANUALS_STORE_NAME = "ResumoChat_Manuals_v2";
+    private static final long UPLOAD_CHUNK_GRANULARITY = 256 * 1024;
+    private static final int DOCUMENTS_PAGE_SIZE = 20;
+    private static final int STORES_PAGE_SIZE = 20;
+    private static final int FILES_PAGE_SIZE = 100;
+    private static final int RESET_PROGRESS_EVERY = 100;
+
+    public GoogleFileSearchService(GeminiHttpClient httpClient, CircuitBreakerRegistry circuitBreakers,
+            MeterRegistry meterRegistry, GeminiResponseDecoder responseDecoder,
+            UploadOperationService uploadOperations, DocumentManifestService manifest,
+            StoreIdCacheService storeIdCache, ManualsIndexService manualsIndex,
+            @Value("${gemini.upload.resumable-threshold:8MB}") DataSize resumableThreshold,
+            @Value("${gemini.upload.chunk-size:8MB}") DataSize uploadChunkSize,
+            @Value("${gemini.upload.chunk-retries:5}") int uploadChunkRetries,
+            @Value("${gemini.reset.max-parallelism:16}") int resetParallelism,
+            @Value("${gemini.reset.deletes-per-second:10}") double deletesPerSecond) {
+        this.httpClient = httpClient;
+        this.responseDecoder = responseDecoder;
+        this.uploadOperations = uploadOperations;
+        this.manifest = manifest;
+        this.storeIdCache = storeIdCache;
+        this.manualsIndex = manualsIndex;
+        this.resumableThreshold = resumableThreshold.toBytes();
+        this.uploadChunkSize = Math.max(UPLOAD_CHUNK_GRANULARITY,
+                uploadChunkSize.toBytes() / UPLOAD_CHUNK_GRANULARITY * UPLOAD_CHUNK_GRANULARITY);
+        this.uploadChunkRetries = uploadChunkRetries;
+        this.resetParallelism = resetParallelism;
+        this.deleteRate = new RateLimiter(deletesPerSecond);
+        this.circuitBreakers = circuitBreakers;
+        this.searchFlight = new SingleFlight<>("file-search", meterRegistry);
+    }
 
-    public boolean deleteStores() {
+    public StoreResetDto deleteStores() {
+        if (!resetLock.tryLock()) {
+            throw new RuntimeException("Já existe um reset de base em andamento.");
+        }
+        ResetRun run = new ResetRun();
+        lastReset = run;
         try {
             System.out.println("☢️ INICIANDO LIMPEZA NUCLEAR DA BASE GOOGLE...");
 
-            String listStoresUrl = BASE_URL + "/fileSearchStores?key=" + apiKey;
-            ResponseEntity<String> storeResponse = restTemplate.getForEntity(listStoresUrl, String.class);
-            if (storeResponse.getStatusCode().is2xxSuccessful() && storeResponse.getBody() != null) {
-                JSONObject json = new JSONObject(storeResponse.getBody());
-                if (json.has("fileSearchStores")) {
-                    JSONArray stores = json.getJSONArray("fileSearchStores");
-                    for (int i = 0; i < stores.length(); i++) {
-                        JSONObject store = stores.getJSONObject(i);
-                        String dName = store.optString("displayName", "");
-                        String sName = store.getString("name");
-
-                        if (dName.contains("ResumoChat_")) {
-                            System.out.println("📋 Processando Store: [" + dName + "] (" + sName + ")");
-
-                            int deletedFiles = deleteAllFilesFromStore(sName);
-                            System.out.println("  ✅ Deletados " + deletedFiles + " arquivo(s) do store");
-
-                            System.out.println("  🗑️ Removendo Store vazio: [" + dName + "]");
-                            deleteSpecificStore(sName);
-                        }
-                    }
-                }
+            List<JSONObject> oldStores = listPaged(BASE_URL + "/fileSearchStores", "fileSearchStores",
+                    STORES_PAGE_SIZE).stream()
+                    .filter(store -> store.optString("displayName", "").contains("ResumoChat_"))
+                    .toList();
+
+            String classification = createStore(CLASSIFICATION_STORE_NAME);
+            String manuals = createStore(MANUALS_STORE_NAME);
+            if (classification == null || manuals == null) {
+                throw new RuntimeException("Não foi possível criar os novos stores; nada foi removido.");
             }
 
-            String listFilesUrl = BASE_URL + "/files?key=" + apiKey;
-            ResponseEntity<String> fileResponse = restTemplate.getForEntity(listFilesUrl, String.class);
-            if (fileResponse.getStatusCode().is2xxSuccessful() && fileResponse.getBody() != null) {
-                JSONObject json = new JSONObject(fileResponse.getBody());
-                if (json.has("files")) {
-                    JSONArray files = json.getJSONArray("files");
-                    int orphanCount = 0;
-                    for (int i = 0; i < files.length(); i++) {
-                        JSONObject file = files.getJSONObject(i);
-                        String dName = file.optString("displayName", "");
-                        String fName = file.getString("name");
-
-                        if (dName.startsWith("CLASS_") || dName.contains(".txt")) {
-                            System.out.println("🗑️ Removendo Arquivo Órfão: " + dName);
-                            deleteFile(fName);
-                            orphanCount++;
-                        }
-                    }
-                    if (orphanCount > 0) {
-                        System.out.println("✅ Deletados " + orphanCount + " arquivo(s) órfão(s)");
-                    }
+            StoreIds fresh = new StoreIds(classification, manuals);
+            storeIds.set(fresh);
+            persistStoreIds(fresh);
+            storesValidatedAt = Instant.now();
+            manualsIndex.clear();
+            System.out.println("🔀 Novos uploads já seguem para " + classification + " e " + manuals);
+
+            for (JSONObject store : oldStores) {
+                String dName = store.optString("displayName", "");
+                String sName = store.getString("name");
+                int documents = store.optInt("activeDocumentsCount", 0) + store.optInt("pendingDocumentsCount", 0)
+                        + store.optInt("failedDocumentsCount", 0);
+                run.found.addAndGet(documents);
+
+                System.out.println("🗑️ Removendo Store: [" + dName + "] (" + sName + ") com " + documents
+                        + " documento(s)");
+                if (deleteSpecificStore(sName)) {
+                    run.stores.incrementAndGet();
+                    run.deleted.addAndGet(documents);
+                    manifest.removeStore(sName);
+                } else {
+                    run.failed.addAndGet(documents);
                 }
             }
 
-            this.classificationStoreId = null;
-            this.manualsStoreId = null;
-            System.out.println("✨ LIMPEZA NUCLEAR CONCLUÍDA COM SUCESSO.");
-            return true;
+            List<String> orphans = listPaged(BASE_URL + "/files", "files", FILES_PAGE_SIZE).stream()
+                    .filter(isOrphanFile())
+                    .map(file -> file.getString("name"))
+                    .toList();
+            if (!orphans.isEmpty()) {
+                int orphanCount = deleteInParallel(orphans, run, run.orphans);
+                System.out.println("✅ Deletados " + orphanCount + " arquivo(s) órfão(s)");
+            }
+
+            run.finish("CONCLUIDO", classification, manuals, null);
+            System.out.println("✨ LIMPEZA NUCLEAR CONCLUÍDA: novos stores " + classification + " e " + manuals);
+            return run.snapshot();
         } catch (Exception e) {
             System.err.println("❌ Erro durante a limpeza total: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            run.finish("ERRO", getClassificationStoreId(), getManualsStoreId(), e.getMessage());
+            return run.snapshot();
+        } finally {
+            resetLock.unlock();
         }
     }
 
-    private int deleteAllFilesFromStore(String storeId) {
-        try {
-            String listFilesUrl = BASE_URL + "/files?key=" + apiKey;
-            ResponseEntity<String> response = restTemplate.getForEntity(listFilesUrl, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                JSONObject json = new JSONObject(response.getBody());
-                int deletedCount = 0;
-
-                if (json.has("files")) {
-                    JSONArray files = json.getJSONArray("files");
-
-                    for (int i = 0; i < files.length(); i++) {
-                        JSONObject file = files.getJSONObject(i);
-                        String fileName = file.getString("name");
-                        String displayName = file.optString("displayName", "");
+    public Optional<StoreResetDto> resetProgress() {
+        ResetRun run = lastReset;
+        return run == null ? Optional.empty() : Optional.of(run.snapshot());
+    }
 
-                        System.out.println("    🗑️ Deletando arquivo: " + displayName + " (" + fileName + ")");
-                        if (deleteFile(fileName)) {
-                            deletedCount++;
+    private int deleteInParallel(List<String> names, ResetRun run, AtomicInteger counter) {
+        int before = counter.get();
+        Semaphore permits = new Semaphore(resetParallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String name : names) {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Reset interrompido", e);
+                }
+                executor.submit(() -> {
+                    try {
+                        deleteRate.acquire();
+                        if (deleteFile(name)) {
+                            int done = counter.incrementAndGet();
+                            if (done % RESET_PROGRESS_EVERY == 0) {
+                                System.out.println("  🧹 " + done + " removido(s) até agora, "
+                                        + run.failed.get() + " falha(s)");
+                            }
+                        } else {
+                            run.failed.incrementAndGet();
                         }
+                    } finally {
+                        permits.release();
                     }
-                }
-
-                return deletedCount;
+                });
             }
-        } catch (Exception e) {
-            System.err.println("⚠️ Erro ao deletar arquivos do store " + storeId + ": " + e.getMessage());
         }
-        return 0;
+        return counter.get() - before;
+    }
+
+    private static Predicate<JSONObject> isOrphanFile() {
+        return file -> {
+            String dName = file.optString("displayName", "");
+            return dName.startsWith("CLASS_") || dName.contains(".txt");
+        };
     }
 
     private boolean deleteSpecificStore(String storeId) {
@@ -127,8 +224,8 @@ public class GoogleFileSearchService {
             return false;
         try {
             System.out.println("🔄 Deletando Store: " + storeId);
-            String deleteUrl = BASE_URL + "/" + storeId + "?key=" + apiKey;
-            restTemplate.delete(deleteUrl);
+            String deleteUrl = BASE_URL + "/" + storeId + "?force=true&key=" + apiKey;
+            httpClient.delete(GeminiHttpClient.Operation.ADMIN, deleteUrl);
             return true;
         } catch (Exception e) {
             System.err.println("❌ Erro ao deletar store " + storeId + ": " + e.getMessage());
@@ -136,37 +233,119 @@ public class GoogleFileSearchService {
         }
     }
 
-    private String classificationStoreId;
-    private String manualsStoreId;
+    private static final class ResetRun {
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger stores = new AtomicInteger();
+        private final AtomicInteger found = new AtomicInteger();
+        private final AtomicInteger deleted = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger orphans = new AtomicInteger();
+        private volatile String status = "EM_ANDAMENTO";
+        private volatile Instant finishedAt;
+        private volatile String classificationStore;
+        private volatile String manualsStore;
+        private volatile String error;
+
+        private void finish(String status, String classificationStore, String manualsStore, String error) {
+            this.classificationStore = classificationStore;
+            this.manualsStore = manualsStore;
+            this.error = error;
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        private StoreResetDto snapshot() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            return new StoreResetDto(status, stores.get(), found.get(), deleted.get(), failed.get(), orphans.get(),
+                    startedAt, java.time.Duration.between(startedAt, end).toMillis(), classificationStore,
+                    manualsStore, error);
+        }
+    }
 
     @PostConstruct
     public void init() {
-        if (apiKey != null && !apiKey.isBlank()) {
-            this.classificationStoreId = ensureStoreExists(CLASSIFICATION_STORE_NAME);
-            this.manualsStoreId = ensureStoreExists(MANUALS_STORE_NAME);
+        String classification = storeIdCache.load(CLASSIFICATION_STORE_NAME).orElse(null);
+        String manuals = storeIdCache.load(MANUALS_STORE_NAME).orElse(null);
+        storeIds.set(new StoreIds(classification, manuals));
+        if (classification != null && manuals != null) {
+            System.out.println("📦 Stores carregados do cache local: " + classification + ", " + manuals);
+        } else {
+            System.out.println("⏳ Stores ainda não resolvidos, aguardando validação em segundo plano");
         }
     }
 
-    private String ensureStoreExists(String displayName) {
+    @EventListener(ApplicationReadyEvent.class)
+    public void revalidateOnStartup() {
+        Thread.ofVirtual().name("file-search-store-validation").start(this::revalidateStores);
+    }
+
+    @Scheduled(initialDelayString = "${gemini.stores.revalidate-interval-ms:1800000}",
+            fixedDelayString = "${gemini.stores.revalidate-interval-ms:1800000}")
+    public void revalidateStores() {
+        if (apiKey == null || apiKey.isBlank()) {
+            return;
+        }
         try {
-            String listUrl = BASE_URL + "/fileSearchStores?key=" + apiKey;
-            ResponseEntity<String> response = restTemplate.getForEntity(listUrl, String.class);
+            StoreIds current = storeIds.get();
+            List<JSONObject> remote = listPaged(BASE_URL + "/fileSearchStores", "fileSearchStores",
+                    STORES_PAGE_SIZE);
+            StoreIds resolved = new StoreIds(
+                    resolveStore(CLASSIFICATION_STORE_NAME, current.classification(), remote),
+                    resolveStore(MANUALS_STORE_NAME, current.manuals(), remote));
+
+            if (!storeIds.compareAndSet(current, resolved)) {
+                System.out.println("ℹ️ Stores alterados durante a validação, resultado descartado");
+                return;
+            }
+            persistStoreIds(resolved);
+            storesValidatedAt = Instant.now();
+            if (!resolved.equals(current)) {
+                System.out.println("🔁 Stores atualizados: " + resolved.classification() + ", " + resolved.manuals());
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Erro ao validar stores do File Search, mantendo IDs atuais: " + e.getMessage());
+        }
+    }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                JSONObject json = new JSONObject(response.getBody());
-                if (json.has("fileSearchStores")) {
-                    JSONArray stores = json.getJSONArray("fileSearchStores");
-                    for (int i = 0; i < stores.length(); i++) {
-                        JSONObject store = stores.getJSONObject(i);
-                        if (store.optString("displayName").equals(displayName)) {
-                            String storeId = store.getString("name");
-                            System.out.println("✅ Found existing File Search Store [" + displayName + "]: " + storeId);
-                            return storeId;
-                        }
-                    }
-                }
+    public boolean storesAvailable() {
+        StoreIds current = storeIds.get();
+        return current.classification() != null && current.manuals() != null;
+    }
+
+    public Instant getStoresValidatedAt() {
+        return storesValidatedAt;
+    }
+
+    private String resolveStore(String displayName, String cachedId, List<JSONObject> remote) {
+        if (cachedId != null && remote.stream().anyMatch(store -> cachedId.equals(store.optString("name")))) {
+            return cachedId;
+        }
+        Optional<String> existing = remote.stream()
+                .filter(store -> displayName.equals(store.optString("displayName")))
+                .map(store -> store.getString("name"))
+                .findFirst();
+        if (existing.isPresent()) {
+            System.out.println("✅ Found existing File Search Store [" + displayName + "]: " + existing.get());
+            return existing.get();
+        }
+        return createStore(displayName);
+    }
+
+    private void persistStoreIds(StoreIds ids) {
+        try {
+            if (ids.classification() != null) {
+                storeIdCache.save(CLASSIFICATION_STORE_NAME, ids.classification());
+            }
+            if (ids.manuals() != null) {
+                storeIdCache.save(MANUALS_STORE_NAME, ids.manuals());
             }
+        } catch (Exception e) {
+            System.err.println("⚠️ Não foi possível salvar o cache de stores: " + e.getMessage());
+        }
+    }
 
+    private String createStore(String displayName) {
+        try {
             System.out.println("🔨 Creating new File Search Store: " + displayName);
             String createUrl = BASE_URL + "/fileSearchStores?key=" + apiKey;
             JSONObject createBody = new JSONObject();
@@ -176,34 +355,33 @@ public class GoogleFileSearchService {
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<String> createEntity = new HttpEntity<>(createBody.toString(), headers);
 
-            ResponseEntity<String> createResponse = restTemplate.postForEntity(createUrl, createEntity, String.class);
+            ResponseEntity<String> createResponse = httpClient.post(GeminiHttpClient.Operation.ADMIN, createUrl, createEntity);
             if (createResponse.getStatusCode().is2xxSuccessful() && createResponse.getBody() != null) {
                 JSONObject createJson = new JSONObject(createResponse.getBody());
                 String storeId = createJson.getString("name");
                 System.out.println("✨ Created File Search Store [" + displayName + "]: " + storeId);
                 return storeId;
             }
-
         } catch (Exception e) {
-            System.err.println("❌ Error ensuring store exists [" + displayName + "]: " + e.getMessage());
+            System.err.println("❌ Error creating store [" + displayName + "]: " + e.getMessage());
         }
         return null;
     }
 
     public String getClassificationStoreId() {
-        return classificationStoreId;
+        return storeIds.get().classification();
     }
 
     public String getManualsStoreId() {
-        return manualsStoreId;
+        return storeIds.get().manuals();
     }
 
     public String uploadFileToClassification(String displayName, byte[] content, String mimeType) {
-        return uploadFile(displayName, content, mimeType, classificationStoreId);
+        return uploadFile(displayName, content, mimeType, getClassificationStoreId());
     }
 
     public String uploadFileToManuals(String displayName, byte[] content, String mimeType) {
-        return uploadFile(displayName, content, mimeType, manualsStoreId);
+        return uploadFile(displayName, content, mimeType, getManualsStoreId());
     }
 
     public String uploadFile(String displayName, byte[] content, String mimeType, String storeId) {
@@ -212,11 +390,18 @@ public class GoogleFileSearchService {
             return null;
         }
 
+        String contentSha256 = Hashing.sha256(content);
+        Optional<String> existing = existingUpload(storeId, contentSha256, displayName);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
         String uploadUrl = UPLOAD_URL + "/" + storeId + ":uploadToFileSearchStore?key=" + apiKey;
 
         try {
             JSONObject metadata = new JSONObject();
             metadata.put("displayName", displayName);
+            metadata.put("customMetadata", new JSONArray().put(contentHashMetadata(contentSha256)));
 
             HttpHeaders jsonHeaders = new HttpHeaders();
             jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
@@ -246,10 +431,23 @@ public class GoogleFileSearchService {
 
             HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(parts, mainHeaders);
 
-            ResponseEntity<String> response = restTemplate.postForEntity(uploadUrl, requestEntity, String.class);
+            ResponseEntity<String> response = httpClient.post(GeminiHttpClient.Operation.UPLOAD, uploadUrl, requestEntity);
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 JSONObject responseJson = new JSONObject(response.getBody());
+                boolean done = responseJson.optBoolean("done", false) && responseJson.has("response");
+                String resultName = done
+                        ? responseJson.getJSONObject("response").optString("name")
+                        : responseJson.optString("name", null);
+                if (resultName != null) {
+                    recordManifest(storeId, displayName, mimeType, content.length, contentSha256, null,
+                            resultName, done);
+                    indexLocally(storeId, contentSha256, displayName, mimeType, null,
+                            new ByteArrayResource(content));
+                    if (!done) {
+                        uploadOperations.track(resultName, displayName, storeId, content.length);
+                    }
+                }
                 if (responseJson.has("response")) {
                     return responseJson.getJSONObject("response").optString("name");
                 }
@@ -265,101 +463,319 @@ public class GoogleFileSearchService {
     }
 
     public String uploadDocument(String title, String content) {
-        return uploadFile(title, content.getBytes(StandardCharsets.UTF_8), "text/plain", classificationStoreId);
+        return uploadFile(title, content.getBytes(StandardCharsets.UTF_8), "text/plain", getClassificationStoreId());
     }
 
     public String uploadFileWithMetadata(String displayName, byte[] fileContent, String mimeType,
             Map<String, String> customMetadata, String storeId) {
+        return uploadFileWithMetadata(displayName, new ByteArrayResource(fileContent), fileContent.length, mimeType,
+                customMetadata, storeId);
+    }
+
+    public String uploadFileWithMetadata(String displayName, InputStreamSource content, long size, String mimeType,
+            Map<String, String> customMetadata, String storeId) {
         if (storeId == null) {
             System.err.println("❌ Target Store ID is null. Cannot upload with metadata.");
             throw new RuntimeException("File Search Store is not available.");
         }
 
-        String uploadUrl = UPLOAD_URL + "/" + storeId + ":uploadToFileSearchStore?key=" + apiKey;
-
         try {
+            String contentSha256;
+            try (InputStream in = content.getInputStream()) {
+                contentSha256 = Hashing.sha256(in);
+            }
+            Optional<String> existing = existingUpload(storeId, contentSha256, displayName);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+
             JSONObject metadata = new JSONObject();
             metadata.put("displayName", displayName);
 
-            if (customMetadata != null && !customMetadata.isEmpty()) {
-                JSONArray customMetadataArray = new JSONArray();
+            JSONArray customMetadataArray = new JSONArray();
+            if (customMetadata != null) {
                 for (Map.Entry<String, String> entry : customMetadata.entrySet()) {
                     JSONObject metadataItem = new JSONObject();
                     metadataItem.put("key", entry.getKey());
                     metadataItem.put("stringValue", entry.getValue());
                     customMetadataArray.put(metadataItem);
                 }
-                metadata.put("customMetadata", customMetadataArray);
             }
+            customMetadataArray.put(contentHashMetadata(contentSha256));
+            metadata.put("customMetadata", customMetadataArray);
 
-            HttpHeaders jsonHeaders = new HttpHeaders();
-            jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> jsonPart = new HttpEntity<>(metadata.toString(), jsonHeaders);
+            String responseBody = size >= resumableThreshold
+                    ? uploadResumable(metadata, content, size, mimeType, storeId)
+                    : uploadMultipart(metadata, displayName, content, size, mimeType, storeId);
 
-            HttpHeaders fileHeaders = new HttpHeaders();
-            try {
-                fileHeaders.setContentType(MediaType.parseMediaType(mimeType));
-            } catch (Exception e) {
-                fileHeaders.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            JSONObject responseJson = new JSONObject(responseBody);
+
+            String operationName = responseJson.optString("name", "Unknown");
+            boolean done = responseJson.optBoolean("done", false);
+
+            System.out.println("📤 Upload com metadata:");
+            System.out.println("  Arquivo: " + displayName + " (" + size + " bytes)");
+            System.out.println("  Metadata: " + customMetadata);
+            System.out.println("  Status: " + (done ? "Concluído" : "Processando"));
+
+            if (done && responseJson.has("response")) {
+                String documentName = responseJson.getJSONObject("response").optString("name", operationName);
+                recordManifest(storeId, displayName, mimeType, size, contentSha256, customMetadata,
+                        documentName, true);
+                indexLocally(storeId, contentSha256, displayName, mimeType, customMetadata, content);
+                return documentName;
             }
 
-            ByteArrayResource fileResource = new ByteArrayResource(fileContent) {
-                @Override
-                public String getFilename() {
-                    return displayName != null ? displayName : "file";
-                }
-            };
-            HttpEntity<ByteArrayResource> filePart = new HttpEntity<>(fileResource, fileHeaders);
+            if (!done && responseJson.has("name")) {
+                recordManifest(storeId, displayName, mimeType, size, contentSha256, customMetadata,
+                        operationName, false);
+                indexLocally(storeId, contentSha256, displayName, mimeType, customMetadata, content);
+                uploadOperations.track(operationName, displayName, storeId, size);
+            }
 
-            MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
-            parts.add("metadata", jsonPart);
-            parts.add("file", filePart);
+            return operationName;
 
-            HttpHeaders mainHeaders = new HttpHeaders();
-            mainHeaders.setContentType(MediaType.MULTIPART_FORM_DATA);
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error uploading document with metadata: " + e.getMessage());
+        }
+    }
 
-            HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(parts, mainHeaders);
+    private String uploadMultipart(JSONObject metadata, String displayName, InputStreamSource content, long size,
+            String mimeType, String storeId) {
+        String uploadUrl = UPLOAD_URL + "/" + storeId + ":uploadToFileSearchStore?key=" + apiKey;
 
-            ResponseEntity<String> response = restTemplate.postForEntity(uploadUrl, requestEntity, String.class);
+        HttpHeaders jsonHeaders = new HttpHeaders();
+        jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<String> jsonPart = new HttpEntity<>(metadata.toString(), jsonHeaders);
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                JSONObject responseJson = new JSONObject(response.getBody());
+        HttpHeaders fileHeaders = new HttpHeaders();
+        fileHeaders.setContentType(parseMimeType(mimeType));
 
-                String operationName = responseJson.optString("name", "Unknown");
-                boolean done = responseJson.optBoolean("done", false);
+        AbstractResource fileResource = new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "upload " + displayName;
+            }
 
-                System.out.println("📤 Upload com metadata:");
-                System.out.println("  Arquivo: " + displayName);
-                System.out.println("  Metadata: " + customMetadata);
-                System.out.println("  Status: " + (done ? "Concluído" : "Processando"));
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return content.getInputStream();
+            }
 
-                if (done && responseJson.has("response")) {
-                    return responseJson.getJSONObject("response").optString("name", operationName);
-                }
+            @Override
+            public long contentLength() {
+                return size;
+            }
 
-                return operationName;
+            @Override
+            public String getFilename() {
+                return displayName != null ? displayName : "file";
             }
+        };
+        HttpEntity<Resource> filePart = new HttpEntity<>(fileResource, fileHeaders);
+
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("metadata", jsonPart);
+        parts.add("file", filePart);
 
+        HttpHeaders mainHeaders = new HttpHeaders();
+        mainHeaders.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(parts, mainHeaders);
+
+        ResponseEntity<String> response = httpClient.post(GeminiHttpClient.Operation.UPLOAD, uploadUrl, requestEntity);
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
             throw new RuntimeException("Upload failed with status: " + response.getStatusCode());
+        }
+        return response.getBody();
+    }
+
+    private String uploadResumable(JSONObject metadata, InputStreamSource content, long size, String mimeType,
+            String storeId) throws IOException {
+        String startUrl = UPLOAD_URL + "/" + storeId + ":uploadToFileSearchStore?key=" + apiKey;
+
+        HttpHeaders startHeaders = new HttpHeaders();
+        startHeaders.setContentType(MediaType.APPLICATION_JSON);
+        startHeaders.set("X-Goog-Upload-Protocol", "resumable");
+        startHeaders.set("X-Goog-Upload-Command", "start");
+        startHeaders.set("X-Goog-Upload-Header-Content-Length", String.valueOf(size));
+        startHeaders.set("X-Goog-Upload-Header-Content-Type", parseMimeType(mimeType).toString());
+
+        ResponseEntity<String> started = httpClient.post(GeminiHttpClient.Operation.UPLOAD, startUrl,
+                new HttpEntity<>(metadata.toString(), startHeaders));
+        String sessionUrl = started.getHeaders().getFirst("X-Goog-Upload-URL");
+        if (sessionUrl == null) {
+            throw new RuntimeException("Google não retornou a URL da sessão de upload resumível.");
+        }
+
+        System.out.println("📦 Upload resumível iniciado: " + size + " bytes em blocos de " + uploadChunkSize);
+
+        long offset = 0;
+        int failures = 0;
+        InputStream in = content.getInputStream();
+        try {
+            while (true) {
+                long length = Math.min(uploadChunkSize, size - offset);
+                boolean last = offset + length >= size;
+                try {
+                    String body = uploadChunk(sessionUrl, in, offset, length, last);
+                    offset += length;
+                    failures = 0;
+                    if (last) {
+                        return body;
+                    }
+                } catch (ResourceAccessException | HttpServerErrorException e) {
+                    if (++failures > uploadChunkRetries) {
+                        throw e;
+                    }
+                    sleepBeforeResume(failures);
+
+                    UploadStatus status = queryUploadStatus(sessionUrl);
+                    if (status.finalBody() != null) {
+                        return status.finalBody();
+                    }
+                    System.out.println("🔁 Retomando upload a partir do byte " + status.received() + " de " + size
+                            + " após: " + e.getMessage());
+
+                    in.close();
+                    in = content.getInputStream();
+                    in.skipNBytes(status.received());
+                    offset = status.received();
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private String uploadChunk(String sessionUrl, InputStream in, long offset, long length, boolean last) {
+        return httpClient.execute(GeminiHttpClient.Operation.UPLOAD, sessionUrl, HttpMethod.POST,
+                request -> {
+                    request.getHeaders().set("X-Goog-Upload-Command", last ? "upload, finalize" : "upload");
+                    request.getHeaders().set("X-Goog-Upload-Offset", String.valueOf(offset));
+                    request.getHeaders().setContentLength(length);
+                    if (request instanceof StreamingHttpOutputMessage streaming) {
+                        streaming.setBody(out -> copy(in, out, length));
+                    } else {
+                        copy(in, request.getBody(), length);
+                    }
+                },
+                response -> new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private UploadStatus queryUploadStatus(String sessionUrl) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Goog-Upload-Command", "query");
+        ResponseEntity<String> response = httpClient.post(GeminiHttpClient.Operation.UPLOAD, sessionUrl,
+                new HttpEntity<>(headers));
+
+        String status = response.getHeaders().getFirst("X-Goog-Upload-Status");
+        if ("final".equalsIgnoreCase(status)) {
+            return new UploadStatus(-1, response.getBody());
+        }
+        String received = response.getHeaders().getFirst("X-Goog-Upload-Size-Received");
+        if (received == null) {
+            throw new RuntimeException("Google não informou quantos bytes do upload foram recebidos.");
+        }
+        return new UploadStatus(Long.parseLong(received), null);
+    }
+
+    private record UploadStatus(long received, String finalBody) {
+    }
+
+    private static void copy(InputStream in, OutputStream out, long length) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IOException("Arquivo terminou antes do tamanho informado (faltam " + remaining + " bytes)");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private static void sleepBeforeResume(int failures) {
+        try {
+            Thread.sleep(Math.min(30_000L, 1000L << Math.min(failures - 1, 5)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrompido aguardando para retomar o upload", e);
+        }
+    }
 
+    private static MediaType parseMimeType(String mimeType) {
+        try {
+            return MediaType.parseMediaType(mimeType);
         } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Error uploading document with metadata: " + e.getMessage());
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    private Optional<String> existingUpload(String storeId, String contentSha256, String displayName) {
+        Optional<DocumentManifestEntity> existing;
+        try {
+            existing = manifest.findByContent(storeId, contentSha256);
+        } catch (Exception e) {
+            System.err.println("⚠️ Manifesto local indisponível, enviando sem deduplicação: " + e.getMessage());
+            return Optional.empty();
+        }
+        existing.ifPresent(document -> System.out.println("♻️ Conteúdo idêntico já enviado como '"
+                + document.getDisplayName() + "', upload de '" + displayName + "' ignorado"));
+        return existing.map(document -> document.getDocumentName() != null
+                ? document.getDocumentName()
+                : document.getOperationName());
+    }
+
+    private void recordManifest(String storeId, String displayName, String mimeType, long size,
+            String contentSha256, Map<String, String> metadata, String resultName, boolean done) {
+        try {
+            manifest.recordUpload(storeId, displayName, mimeType, size, contentSha256, metadata, resultName, done);
+        } catch (Exception e) {
+            System.err.println("⚠️ Não foi possível registrar '" + displayName + "' no manifesto local: "
+                    + e.getMessage());
+        }
+    }
+
+    private void indexLocally(String storeId, String contentSha256, String displayName, String mimeType,
+            Map<String, String> metadata, InputStreamSource content) {
+        if (!storeId.equals(getManualsStoreId()) || !manualsIndex.supports(displayName, mimeType)) {
+            return;
         }
+        try {
+            manualsIndex.index(contentSha256, displayName, metadata != null ? metadata.get("categoria") : null,
+                    content);
+        } catch (Exception e) {
+            System.err.println("⚠️ Não foi possível indexar '" + displayName + "' localmente: " + e.getMessage());
+        }
+    }
+
+    private static JSONObject contentHashMetadata(String contentSha256) {
+        JSONObject metadataItem = new JSONObject();
+        metadataItem.put("key", DocumentManifestService.CONTENT_HASH_KEY);
+        metadataItem.put("stringValue", contentSha256);
+        return metadataItem;
     }
 
     public String uploadFileWithMetadataToClassification(String displayName, byte[] fileContent, String mimeType,
             Map<String, String> customMetadata) {
-        return uploadFileWithMetadata(displayName, fileContent, mimeType, customMetadata, classificationStoreId);
+        return uploadFileWithMetadata(displayName, fileContent, mimeType, customMetadata, getClassificationStoreId());
     }
 
     public String uploadFileWithMetadataToManuals(String displayName, byte[] fileContent, String mimeType,
             Map<String, String> customMetadata) {
-        return uploadFileWithMetadata(displayName, fileContent, mimeType, customMetadata, manualsStoreId);
+        return uploadFileWithMetadata(displayName, fileContent, mimeType, customMetadata, getManualsStoreId());
+    }
+
+    public String uploadFileWithMetadataToManuals(String displayName, InputStreamSource content, long size,
+            String mimeType, Map<String, String> customMetadata) {
+        return uploadFileWithMetadata(displayName, content, size, mimeType, customMetadata, getManualsStoreId());
     }
 
     public boolean fileExistsInClassification(String displayName) {
-        return fileExists(displayName, classificationStoreId);
+        return fileExists(displayName, getClassificationStoreId());
     }
 
     public boolean fileExists(String displayName, String storeId) {
@@ -367,83 +783,76 @@ public class GoogleFileSearchService {
             System.err.println("⚠️ Cannot check file existence: displayName is null or empty");
             return false;
         }
+        if (storeId == null) {
+            return false;
+        }
 
         try {
-            System.out.println("🔍 Checking if file exists: " + displayName);
-
-            String url = BASE_URL + "/files?key=" + apiKey;
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                JSONObject json = new JSONObject(response.getBody());
-                if (json.has("files")) {
-                    JSONArray files = json.getJSONArray("files");
-                    for (int i = 0; i < files.length(); i++) {
-                        JSONObject file = files.getJSONObject(i);
-                        String existingDisplayName = file.optString("displayName", "");
-
-                        if (displayName.equals(existingDisplayName)) {
-                            String state = file.optString("state", "UNKNOWN");
-                            System.out.println("  📝 Found file with state: " + state);
-
-                            if ("ACTIVE".equals(state) || "PROCESSING".equals(state)) {
-                                System.out.println("  ✅ File exists and is valid: " + displayName);
-                                return true;
-                            } else if ("FAILED".equals(state)) {
-                                System.out.println("  ⚠️ File exists but is in FAILED state: " + displayName);
-                                return false;
-                            }
-                        }
-                    }
-                }
-            }
-
-            System.out.println("  ❌ File NOT found: " + displayName);
-            return false;
+            return manifest.exists(storeId, displayName);
         } catch (Exception e) {
             System.err.println("⚠️ Erro ao verificar existência do arquivo '" + displayName + "': " + e.getMessage());
-            e.printStackTrace();
+            return false;
         }
-        return false;
     }
 
     public java.util.List<java.util.Map<String, Object>> listClassificationFiles() {
-        return listFiles(classificationStoreId);
+        return listFiles(getClassificationStoreId());
     }
 
     public java.util.List<java.util.Map<String, Object>> listFiles(String storeId) {
         if (storeId == null)
             return java.util.Collections.emptyList();
 
-        String url = BASE_URL + "/" + storeId + "/files?key=" + apiKey;
         try {
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                JSONObject json = new JSONObject(response.getBody());
-                java.util.List<java.util.Map<String, Object>> fileList = new java.util.ArrayList<>();
-                if (json.has("files")) {
-                    JSONArray files = json.getJSONArray("files");
-                    for (int i = 0; i < files.length(); i++) {
-                        JSONObject file = files.getJSONObject(i);
-                        fileList.add(java.util.Map.of(
-                                "name", file.getString("name"),
-                                "displayName", file.optString("displayName", "unnamed")));
-                    }
-                }
-                return fileList;
+            java.util.List<java.util.Map<String, Object>> fileList = new java.util.ArrayList<>();
+            for (JSONObject document : listDocuments(storeId)) {
+                fileList.add(java.util.Map.of(
+                        "name", document.getString("name"),
+                        "displayName", document.optString("displayName", "unnamed")));
             }
+            return fileList;
         } catch (Exception e) {
             System.err.println("❌ Erro ao listar arquivos do store " + storeId + ": " + e.getMessage());
         }
         return java.util.Collections.emptyList();
     }
 
+    public List<JSONObject> listDocuments(String storeId) {
+        return listPaged(BASE_URL + "/" + storeId + "/documents", "documents", DOCUMENTS_PAGE_SIZE);
+    }
+
+    private List<JSONObject> listPaged(String baseUrl, String field, int pageSize) {
+        List<JSONObject> items = new ArrayList<>();
+        String pageToken = null;
+        do {
+            String url = baseUrl + "?pageSize=" + pageSize
+                    + (pageToken != null ? "&pageToken=" + java.net.URLEncoder.encode(pageToken, StandardCharsets.UTF_8) : "") + "&key=" + apiKey;
+            ResponseEntity<String> response = httpClient.get(GeminiHttpClient.Operation.ADMIN, url);
+            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+                throw new RuntimeException("Erro ao listar " + field + ". Status: " + response.getStatusCode());
+            }
+
+            JSONObject json = new JSONObject(response.getBody());
+            JSONArray page = json.optJSONArray(field);
+            if (page != null) {
+                for (int i = 0; i < page.length(); i++) {
+                    items.add(page.getJSONObject(i));
+                }
+            }
+            pageToken = json.optString("nextPageToken", "");
+            if (pageToken.isBlank()) {
+                pageToken = null;
+            }
+        } while (pageToken != null);
+        return items;
+    }
+
     public String searchClassification(String query, String systemInstruction) {
-        return simpleSearch(query, systemInstruction, classificationStoreId);
+        return simpleSearch(query, systemInstruction, getClassificationStoreId());
     }
 
     public String searchManuals(String query, String systemInstruction) {
-        return simpleSearch(query, systemInstruction, manualsStoreId);
+        return simpleSearch(query, systemInstruction, getManualsStoreId());
     }
 
     public String simpleSearch(String query, String systemInstruction, String storeId) {
@@ -451,6 +860,12 @@ public class GoogleFileSearchService {
             return "Erro: Store ID não inicializado.";
         }
 
+        String key = storeId + "\u0000" + systemInstruction + "\u0000" + query;
+        return searchFlight.execute(key, () -> doSimpleSearch(query, systemInstruction, storeId));
+    }
+
+    private String doSimpleSearch(String query, String systemInstruction, String storeId) {
+
         String generateUrl = BASE_URL + "/models/gemini-2.5-flash-lite:generateContent?key=" + apiKey;
 
         try {
@@ -485,43 +900,30 @@ public class GoogleFileSearchService {
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<String> entity = new HttpEntity<>(body.toString(), headers);
 
-            ResponseEntity<String> response = restTemplate.postForEntity(generateUrl, entity, String.class);
+            ResponseEntity<String> response = circuitBreakers.get(CircuitBreakerRegistry.Circuit.FILE_SEARCH)
+                    .call(() -> httpClient.post(GeminiHttpClient.Operation.FILE_SEARCH, generateUrl, entity));
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 String responseBody = response.getBody();
-                System.out.println("📥 File Search Response: " + responseBody);
 
                 try {
-                    JSONObject json = new JSONObject(responseBody);
+                    GeminiResponse decoded = responseDecoder.decode(responseBody);
+                    System.out.println("📥 File Search Response: " + (decoded.text() != null ? decoded.text().length() : 0)
+                            + " caracteres, finishReason=" + decoded.finishReason()
+                            + ", tokens=" + decoded.totalTokens());
 
-                    if (!json.has("candidates") || json.getJSONArray("candidates").length() == 0) {
+                    if (!decoded.hasCandidates()) {
                         System.err.println("❌ No candidates in response");
                         return "Nenhuma correspondência encontrada na documentação.";
                     }
 
-                    JSONObject candidate = json.getJSONArray("candidates").getJSONObject(0);
-
-                    if (!candidate.has("content")) {
-                        System.err.println("❌ No content in candidate");
-                        return "Resposta sem conteúdo.";
-                    }
-
-                    JSONObject content = candidate.getJSONObject("content");
-
-                    if (!content.has("parts") || content.getJSONArray("parts").length() == 0) {
-                        System.err.println("❌ No parts in content");
-                        return "Resposta sem partes de texto.";
-                    }
-
-                    JSONObject firstPart = content.getJSONArray("parts").getJSONObject(0);
-
-                    if (firstPart.has("text")) {
-                        return firstPart.getString("text");
-                    } else {
-                        System.err.println("❌ No text in first part: " + firstPart.toString());
+                    if (decoded.text() == null) {
+                        System.err.println("❌ No text in candidate");
                         return "Resposta sem texto.";
                     }
 
+                    return decoded.text();
+
                 } catch (Exception parseException) {
                     System.err.println("❌ Error parsing response: " + parseException.getMessage());
                     System.err.println("Response was: " + responseBody);
@@ -546,7 +948,7 @@ public class GoogleFileSearchService {
         String url = BASE_URL + "/" + storeId + "?key=" + apiKey;
 
         try {
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            ResponseEntity<String> response = httpClient.get(GeminiHttpClient.Operation.ADMIN, url);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 JSONObject storeInfo = new JSONObject(response.getBody());
@@ -579,13 +981,19 @@ public class GoogleFileSearchService {
             return false;
 
         try {
-            if (!fileName.startsWith("files/")) {
+            if (!fileName.contains("/")) {
                 fileName = "files/" + fileName;
             }
 
-            String deleteUrl = BASE_URL + "/" + fileName + "?key=" + apiKey;
+            String deleteUrl = BASE_URL + "/" + fileName + "?"
+                    + (fileName.contains("/documents/") ? "force=true&" : "") + "key=" + apiKey;
 
-            restTemplate.delete(deleteUrl);
+            httpClient.delete(GeminiHttpClient.Operation.ADMIN, deleteUrl);
+            String manuals = getManualsStoreId();
+            if (manuals != null && fileName.startsWith(manuals + "/") && !manifest.hasOtherLiveCopy(fileName)) {
+                manifest.contentHashOf(fileName).ifPresent(manualsIndex::remove);
+            }
+            manifest.remove(fileName);
             System.out.println("🗑️ Arquivo deletado: " + fileName);
             return true;
         } catch (Exception e) {
@@ -600,43 +1008,43 @@ public class GoogleFileSearchService {
             return null;
         }
 
-        String url = BASE_URL + "/" + operationName + "?key=" + apiKey;
-
         try {
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                JSONObject operation = new JSONObject(response.getBody());
-
-                boolean done = operation.optBoolean("done", false);
-                String name = operation.optString("name", "N/A");
-
-                System.out.println("🔍 Operation Status:");
-                System.out.println("  Name: " + name);
-                System.out.println("  Done: " + done);
-
-                if (done) {
-                    if (operation.has("error")) {
-                        JSONObject error = operation.getJSONObject("error");
-                        System.out.println("  ❌ Error: " + error.optString("message", "Unknown error"));
-                    } else if (operation.has("response")) {
-                        JSONObject result = operation.getJSONObject("response");
-                        System.out.println("  ✅ Success: " + result.optString("name", "Completed"));
-                    }
-                } else {
-                    System.out.println("  ⏳ Still processing...");
+            JSONObject operation = fetchOperation(operationName);
+
+            boolean done = operation.optBoolean("done", false);
+            String name = operation.optString("name", "N/A");
+
+            System.out.println("🔍 Operation Status:");
+            System.out.println("  Name: " + name);
+            System.out.println("  Done: " + done);
+
+            if (done) {
+                if (operation.has("error")) {
+                    JSONObject error = operation.getJSONObject("error");
+                    System.out.println("  ❌ Error: " + error.optString("message", "Unknown error"));
+                } else if (operation.has("response")) {
+                    JSONObject result = operation.getJSONObject("response");
+                    System.out.println("  ✅ Success: " + result.optString("name", "Completed"));
                 }
-
-                return operation;
             } else {
-                System.err.println("❌ Erro ao verificar operação. Status: " + response.getStatusCode());
-                return null;
+                System.out.println("  ⏳ Still processing...");
             }
 
+            return operation;
+
         } catch (Exception e) {
             System.err.println("❌ Erro ao verificar status da operação: " + e.getMessage());
             e.printStackTrace();
             return null;
         }
     }
+
+    public JSONObject fetchOperation(String operationName) {
+        String url = BASE_URL + "/" + operationName + "?key=" + apiKey;
+        ResponseEntity<String> response = httpClient.get(GeminiHttpClient.Operation.ADMIN, url);
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new RuntimeException("Erro ao verificar operação. Status: " + response.getStatusCode());
+        }
+        return new JSONObject(response.getBody());
+    }
 }
@@ -0,0 +1,123 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.dtos.JobResponseDto;
+import com.soften.support.gemini_resumo.models.entities.JobEntity;
+import com.soften.support.gemini_resumo.models.enums.JobStatus;
+import com.soften.support.gemini_resumo.models.enums.JobType;
+import com.soften.support.gemini_resumo.repositorys.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class JobService {
+
+    private final JobRepository jobRepository;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    public JobService(JobRepository jobRepository,
+                      @Value("${gemini.jobs.lease:10m}") Duration lease,
+                      @Value("${gemini.jobs.max-attempts:3}") int maxAttempts,
+                      @Value("${gemini.jobs.retry-backoff:30s}") Duration retryBackoff) {
+        this.jobRepository = jobRepository;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+    }
+
+    public JobEntity enqueue(JobType type, String payload) {
+        return jobRepository.save(new JobEntity(type, payload));
+    }
+
+    public Optional<JobResponseDto> find(UUID id) {
+        return jobRepository.findById(id).map(job -> new JobResponseDto(
+                job.getId(),
+                job.getType(),
+                job.getStatus(),
+                job.getAttempts(),
+                job.getCreatedAt(),
+                job.getUpdatedAt(),
+                job.getResult(),
+                job.getError()));
+    }
+
+    @Transactional
+    public List<JobEntity> claim(String workerId, int limit) {
+        Instant now = Instant.now();
+        List<JobEntity> jobs = new ArrayList<>();
+        for (JobEntity job : jobRepository.findClaimable(now, limit)) {
+            if (job.getAttempts() >= maxAttempts) {
+                System.err.println("❌ Job " + job.getId() + " abandonado após " + job.getAttempts()
+                        + " tentativa(s) sem conclusão");
+                job.setStatus(JobStatus.FAILED);
+                job.setError("Job excedeu " + maxAttempts + " tentativas sem concluir (lease expirado em "
+                        + job.getLockedBy() + ")");
+                job.setLockedBy(null);
+                job.setLockedUntil(null);
+                job.setUpdatedAt(now);
+                continue;
+            }
+            jobs.add(job);
+            job.setStatus(JobStatus.RUNNING);
+            job.setLockedBy(workerId);
+            job.setLockedUntil(now.plus(lease));
+            job.setAttempts(job.getAttempts() + 1);
+            job.setUpdatedAt(now);
+        }
+        return jobRepository.saveAll(jobs);
+    }
+
+    @Transactional
+    public int renewLeases(String workerId, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        int renewed = jobRepository.renewLeases(ids, workerId, JobStatus.RUNNING, now.plus(lease), now);
+        if (renewed < ids.size()) {
+            System.err.println("⚠️ " + (ids.size() - renewed) + " job(s) em execução em " + workerId
+                    + " perderam o lease e podem ser reexecutados por outro worker");
+        }
+        return renewed;
+    }
+
+    @Transactional
+    public void complete(UUID id, String workerId, String result) {
+        jobRepository.findById(id)
+                .filter(job -> workerId.equals(job.getLockedBy()) && job.getStatus() == JobStatus.RUNNING)
+                .ifPresent(job -> {
+                    job.setStatus(JobStatus.DONE);
+                    job.setResult(result);
+                    job.setError(null);
+                    job.setLockedBy(null);
+                    job.setLockedUntil(null);
+                    job.setUpdatedAt(Instant.now());
+                });
+    }
+
+    @Transactional
+    public void fail(UUID id, String workerId, String error) {
+        jobRepository.findById(id)
+                .filter(job -> workerId.equals(job.getLockedBy()) && job.getStatus() == JobStatus.RUNNING)
+                .ifPresent(job -> {
+                    Instant now = Instant.now();
+                    boolean retry = job.getAttempts() < maxAttempts;
+                    job.setStatus(retry ? JobStatus.PENDING : JobStatus.FAILED);
+                    job.setRunAfter(retry ? now.plus(retryBackoff.multipliedBy(job.getAttempts())) : job.getRunAfter());
+                    job.setError(error != null && error.length() > 2000 ? error.substring(0, 2000) : error);
+                    job.setLockedBy(null);
+                    job.setLockedUntil(null);
+                    job.setUpdatedAt(now);
+                });
+    }
+}
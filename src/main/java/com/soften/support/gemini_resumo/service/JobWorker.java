@@ -0,0 +1,133 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soften.support.gemini_resumo.models.dtos.SummaryDto;
+import com.soften.support.gemini_resumo.models.dtos.TipResponseDto;
+import com.soften.support.gemini_resumo.models.entities.CalledEntity;
+import com.soften.support.gemini_resumo.models.entities.JobEntity;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@ConditionalOnProperty(name = "gemini.jobs.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class JobWorker {
+
+    private final JobService jobService;
+    private final SummaryService summaryService;
+    private final CalledService calledService;
+    private final ObjectMapper objectMapper;
+    private final int maxConcurrency;
+    private final String workerId;
+    private final AtomicInteger running = new AtomicInteger();
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public JobWorker(JobService jobService,
+                     SummaryService summaryService,
+                     CalledService calledService,
+                     ObjectMapper objectMapper,
+                     @Value("${gemini.jobs.worker.concurrency:16}") int maxConcurrency) {
+        this.jobService = jobService;
+        this.summaryService = summaryService;
+        this.calledService = calledService;
+        this.objectMapper = objectMapper;
+        this.maxConcurrency = maxConcurrency;
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Scheduled(fixedDelayString = "${gemini.jobs.worker.poll-interval-ms:1000}")
+    public void poll() {
+        int free = maxConcurrency - running.get();
+        if (free <= 0) {
+            return;
+        }
+
+        List<JobEntity> jobs;
+        try {
+            jobs = jobService.claim(workerId, free);
+        } catch (Exception e) {
+            System.err.println("⚠️ Erro ao buscar jobs pendentes: " + e.getMessage());
+            return;
+        }
+
+        for (JobEntity job : jobs) {
+            running.incrementAndGet();
+            inFlight.add(job.getId());
+            executor.submit(() -> {
+                try {
+                    run(job);
+                } finally {
+                    inFlight.remove(job.getId());
+                    running.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gemini.jobs.worker.heartbeat-interval-ms:60000}")
+    public void heartbeat() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        try {
+            jobService.renewLeases(workerId, List.copyOf(inFlight));
+        } catch (Exception e) {
+            System.err.println("⚠️ Erro ao renovar o lease dos jobs em execução: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run(JobEntity job) {
+        System.out.println("⚙️ Job " + job.getId() + " [" + job.getType() + "] tentativa " + job.getAttempts()
+                + " em " + workerId);
+        try {
+            Object result = switch (job.getType()) {
+                case SUMMARY -> {
+                    SummaryDto summary = summaryService.createDtoSummary(job.getPayload());
+                    CalledEntity saved = calledService.SaveCall(summary.formatSummary());
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("summary", summary.fullSummary());
+                    body.put("id", saved.getId());
+                    yield body;
+                }
+                case TIP -> {
+                    TipResponseDto tip = calledService.processFullTip(job.getPayload());
+                    if (tip.status() != null && tip.status().startsWith("ERROR")) {
+                        throw new RuntimeException(tip.status());
+                    }
+                    yield tip;
+                }
+            };
+            jobService.complete(job.getId(), workerId, objectMapper.writeValueAsString(result));
+        } catch (Exception e) {
+            System.err.println("❌ Job " + job.getId() + " falhou: " + e.getMessage());
+            jobService.fail(job.getId(), workerId, e.getMessage());
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "worker";
+        }
+    }
+}
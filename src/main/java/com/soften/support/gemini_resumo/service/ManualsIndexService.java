@@ -0,0 +1,411 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.utils.IndexSegment;
+import com.soften.support.gemini_resumo.utils.PortugueseAnalyzer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Service
+public class ManualsIndexService {
+
+    public record Hit(String documentKey, String displayName, String categoria, String text, double score,
+            double coverage) {
+    }
+
+    private static final class Accumulator {
+        private double score;
+        private long matchedTerms;
+    }
+
+    private static final String SEGMENT_SUFFIX = ".bm25";
+    private static final String DELETED_FILE = "deleted.txt";
+    private static final int MAX_QUERY_TERMS = 32;
+    private static final Set<String> TEXT_EXTENSIONS = Set.of("txt", "md", "markdown", "csv", "json", "xml",
+            "html", "htm", "yaml", "yml", "log");
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int maxSegments;
+    private final int passageChars;
+    private final long maxDocumentBytes;
+    private final double k1;
+    private final double b;
+    private final double minCoverage;
+    private final double minScore;
+    private final double relativeCutoff;
+    private final int maxResults;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+    private final AtomicLong segmentSequence = new AtomicLong();
+    private volatile List<IndexSegment> segments = List.of();
+    private volatile Set<String> manifestKeys;
+
+    public ManualsIndexService(MeterRegistry meterRegistry,
+            @Value("${gemini.local-search.enabled:true}") boolean enabled,
+            @Value("${gemini.local-search.path:${java.io.tmpdir}/gemini-manuals-index}") String directory,
+            @Value("${gemini.local-search.max-segments:10}") int maxSegments,
+            @Value("${gemini.local-search.passage-chars:1200}") int passageChars,
+            @Value("${gemini.local-search.max-document-bytes:10485760}") long maxDocumentBytes,
+            @Value("${gemini.local-search.k1:1.2}") double k1,
+            @Value("${gemini.local-search.b:0.75}") double b,
+            @Value("${gemini.local-search.min-coverage:0.8}") double minCoverage,
+            @Value("${gemini.local-search.min-score:4.0}") double minScore,
+            @Value("${gemini.local-search.relative-cutoff:0.5}") double relativeCutoff,
+            @Value("${gemini.local-search.max-results:3}") int maxResults) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxSegments = maxSegments;
+        this.passageChars = passageChars;
+        this.maxDocumentBytes = maxDocumentBytes;
+        this.k1 = k1;
+        this.b = b;
+        this.minCoverage = minCoverage;
+        this.minScore = minScore;
+        this.relativeCutoff = relativeCutoff;
+        this.maxResults = maxResults;
+
+        Gauge.builder("gemini.local-search.passages", this,
+                index -> index.segments.stream().mapToInt(IndexSegment::passageCount).sum())
+                .register(meterRegistry);
+        Gauge.builder("gemini.local-search.segments", this, index -> index.segments.size())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<IndexSegment> loaded = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(f -> f.toString().endsWith(SEGMENT_SUFFIX)).sorted().toList()) {
+                    try {
+                        loaded.add(IndexSegment.open(file));
+                        segmentSequence.accumulateAndGet(sequenceOf(file), Math::max);
+                    } catch (Exception e) {
+                        System.err.println("⚠️ Segmento de índice ignorado " + file + ": " + e.getMessage());
+                    }
+                }
+            }
+            Path deletedFile = directory.resolve(DELETED_FILE);
+            if (Files.exists(deletedFile)) {
+                deleted.addAll(Files.readAllLines(deletedFile, StandardCharsets.UTF_8));
+            }
+            segments = List.copyOf(loaded);
+            System.out.println("📇 Índice local de manuais: " + loaded.size() + " segmento(s), "
+                    + loaded.stream().mapToInt(IndexSegment::passageCount).sum() + " trecho(s)");
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível abrir o índice local de manuais: " + directory, e);
+        }
+    }
+
+    public boolean supports(String displayName, String mimeType) {
+        if (!enabled) {
+            return false;
+        }
+        if (mimeType != null && (mimeType.startsWith("text/") || mimeType.contains("json")
+                || mimeType.contains("xml") || mimeType.contains("yaml"))) {
+            return true;
+        }
+        int dot = displayName == null ? -1 : displayName.lastIndexOf('.');
+        return dot >= 0 && TEXT_EXTENSIONS.contains(displayName.substring(dot + 1).toLowerCase());
+    }
+
+    public boolean contains(String key) {
+        if (deleted.contains(key)) {
+            return false;
+        }
+        for (IndexSegment segment : segments) {
+            if (segment.documentKeys().contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void index(String key, String displayName, String categoria, InputStreamSource content) {
+        if (key == null || contains(key)) {
+            return;
+        }
+
+        String text;
+        try (InputStream in = content.getInputStream()) {
+            byte[] bytes = in.readNBytes((int) Math.min(maxDocumentBytes, Integer.MAX_VALUE - 8));
+            text = new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao ler documento para o índice local: " + e.getMessage(), e);
+        }
+
+        List<String> passages = split(text);
+        if (passages.isEmpty()) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            if (deleted.contains(key)) {
+                merge();
+            }
+            IndexSegment segment = IndexSegment.write(nextSegmentFile(),
+                    List.of(new IndexSegment.Document(key, displayName, categoria, passages)));
+            List<IndexSegment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            segments = List.copyOf(updated);
+            Set<String> known = manifestKeys;
+            if (known != null) {
+                known.add(key);
+            }
+            System.out.println("📇 Indexado localmente: " + displayName + " (" + passages.size() + " trecho(s))");
+            if (segments.size() > maxSegments) {
+                merge();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao gravar o índice local: " + e.getMessage(), e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(String key) {
+        if (key == null || !contains(key)) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            deleted.add(key);
+            writeDeleted();
+        } catch (IOException e) {
+            System.err.println("⚠️ Não foi possível persistir remoção no índice local: " + e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void clear() {
+        writeLock.lock();
+        try {
+            List<IndexSegment> old = segments;
+            segments = List.of();
+            deleted.clear();
+            writeDeleted();
+            if (manifestKeys != null) {
+                manifestKeys = ConcurrentHashMap.newKeySet();
+            }
+            for (IndexSegment segment : old) {
+                Files.deleteIfExists(segment.file());
+            }
+            System.out.println("🧹 Índice local de manuais limpo");
+        } catch (IOException e) {
+            System.err.println("⚠️ Erro ao limpar índice local: " + e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isInSync() {
+        return manifestKeys != null;
+    }
+
+    public int retainOnly(Set<String> keys) {
+        writeLock.lock();
+        try {
+            int removed = 0;
+            for (IndexSegment segment : segments) {
+                for (String key : segment.documentKeys()) {
+                    if (!keys.contains(key) && deleted.add(key)) {
+                        removed++;
+                    }
+                }
+            }
+            if (removed > 0) {
+                writeDeleted();
+            }
+            return removed;
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao gravar remoções no índice local: " + e.getMessage(), e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void markInSync(Set<String> keys) {
+        Set<String> known = ConcurrentHashMap.newKeySet();
+        known.addAll(keys);
+        manifestKeys = known;
+    }
+
+    public List<Hit> search(String query, String categoria) {
+        List<IndexSegment> snapshot = segments;
+        Set<String> known = manifestKeys;
+        List<String> terms = PortugueseAnalyzer.analyze(query).stream().distinct().limit(MAX_QUERY_TERMS).toList();
+        if (!enabled || snapshot.isEmpty() || terms.isEmpty()) {
+            return List.of();
+        }
+
+        long passages = 0;
+        long tokens = 0;
+        for (IndexSegment segment : snapshot) {
+            passages += segment.passageCount();
+            tokens += segment.totalTokens();
+        }
+        double averageLength = passages == 0 ? 1 : Math.max(1.0, (double) tokens / passages);
+
+        double[] idf = new double[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            long df = 0;
+            for (IndexSegment segment : snapshot) {
+                df += segment.documentFrequency(terms.get(t));
+            }
+            idf[t] = Math.log(1 + (passages - df + 0.5) / (df + 0.5));
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        for (IndexSegment segment : snapshot) {
+            Map<Integer, Accumulator> scores = new HashMap<>();
+            for (int t = 0; t < terms.size(); t++) {
+                int termIndex = t;
+                double termIdf = idf[t];
+                segment.postings(terms.get(t), (passage, tf) -> {
+                    double norm = k1 * (1 - b + b * segment.tokenCount(passage) / averageLength);
+                    Accumulator accumulated = scores.computeIfAbsent(passage, p -> new Accumulator());
+                    accumulated.score += termIdf * tf * (k1 + 1) / (tf + norm);
+                    accumulated.matchedTerms |= 1L << termIndex;
+                });
+            }
+
+            for (Map.Entry<Integer, Accumulator> entry : scores.entrySet()) {
+                int passage = entry.getKey();
+                if (deleted.contains(segment.documentKey(passage))
+                        || known != null && !known.contains(segment.documentKey(passage))) {
+                    continue;
+                }
+                if (categoria != null && !categoria.equalsIgnoreCase(segment.categoria(passage))) {
+                    continue;
+                }
+                double score = entry.getValue().score;
+                if (top.size() < maxResults || score > top.peek().score()) {
+                    double coverage = (double) Long.bitCount(entry.getValue().matchedTerms) / terms.size();
+                    top.add(new Hit(segment.documentKey(passage), segment.displayName(passage),
+                            segment.categoria(passage), segment.text(passage), score, coverage));
+                    if (top.size() > maxResults) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return hits;
+    }
+
+    public Optional<List<Hit>> searchConfident(String query, String categoria) {
+        if (!isInSync()) {
+            return Optional.empty();
+        }
+        List<Hit> hits = search(query, categoria);
+        if (hits.isEmpty()) {
+            return Optional.empty();
+        }
+        Hit best = hits.get(0);
+        if (best.coverage() < minCoverage || best.score() < minScore) {
+            return Optional.empty();
+        }
+        double cutoff = best.score() * relativeCutoff;
+        return Optional.of(hits.stream().filter(hit -> hit.score() >= cutoff).toList());
+    }
+
+    private void merge() throws IOException {
+        List<IndexSegment> old = segments;
+        Set<String> excluded = Set.copyOf(deleted);
+        List<IndexSegment.Document> live = new ArrayList<>();
+        Set<String> seen = new HashSet<>(excluded);
+        for (IndexSegment segment : old) {
+            for (IndexSegment.Document document : segment.documents(excluded)) {
+                if (seen.add(document.key())) {
+                    live.add(document);
+                }
+            }
+        }
+
+        List<IndexSegment> merged = live.isEmpty()
+                ? List.of()
+                : List.of(IndexSegment.write(nextSegmentFile(), live));
+        segments = merged;
+        deleted.clear();
+        writeDeleted();
+        for (IndexSegment segment : old) {
+            Files.deleteIfExists(segment.file());
+        }
+        System.out.println("🗜️ Índice local compactado: " + old.size() + " segmento(s) em " + merged.size()
+                + ", " + live.size() + " documento(s)");
+    }
+
+    private List<String> split(String text) {
+        List<String> passages = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String paragraph : text.split("\\R\\s*\\R")) {
+            String trimmed = paragraph.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!current.isEmpty() && current.length() + trimmed.length() > passageChars) {
+                passages.add(current.toString());
+                current.setLength(0);
+            }
+            while (trimmed.length() > passageChars) {
+                int cut = trimmed.lastIndexOf(' ', passageChars);
+                cut = cut <= passageChars / 2 ? passageChars : cut;
+                passages.add(trimmed.substring(0, cut).strip());
+                trimmed = trimmed.substring(cut).strip();
+            }
+            if (!current.isEmpty()) {
+                current.append("\n\n");
+            }
+            current.append(trimmed);
+        }
+        if (!current.isEmpty()) {
+            passages.add(current.toString());
+        }
+        return passages;
+    }
+
+    private Path nextSegmentFile() {
+        return directory.resolve(String.format("seg-%012d%s", segmentSequence.incrementAndGet(), SEGMENT_SUFFIX));
+    }
+
+    private void writeDeleted() throws IOException {
+        Path tmp = Files.createTempFile(directory, DELETED_FILE, ".tmp");
+        Files.write(tmp, deleted, StandardCharsets.UTF_8);
+        Files.move(tmp, directory.resolve(DELETED_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(4, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.entities.DocumentManifestEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class ManualsIndexSyncService {
+
+    private final ManualsIndexService manualsIndex;
+    private final DocumentManifestService manifest;
+    private final GoogleFileSearchService fileSearchService;
+    private final boolean enabled;
+    private final String manualsDir;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public ManualsIndexSyncService(ManualsIndexService manualsIndex, DocumentManifestService manifest,
+                                   GoogleFileSearchService fileSearchService,
+                                   @Value("${gemini.local-search.enabled:true}") boolean enabled,
+                                   @Value("${gemini.sync.manuals-dir:}") String manualsDir) {
+        this.manualsIndex = manualsIndex;
+        this.manifest = manifest;
+        this.fileSearchService = fileSearchService;
+        this.enabled = enabled;
+        this.manualsDir = manualsDir;
+    }
+
+    @Scheduled(initialDelayString = "${gemini.local-search.sync.initial-delay-ms:0}",
+            fixedDelayString = "${gemini.local-search.sync.interval-ms:60000}")
+    public void scheduledSync() {
+        if (enabled) {
+            sync();
+        }
+    }
+
+    public Map<String, Integer> sync() {
+        if (!running.tryLock()) {
+            return Map.of();
+        }
+        try {
+            String storeId = fileSearchService.getManualsStoreId();
+            if (storeId == null) {
+                return Map.of();
+            }
+            List<DocumentManifestEntity> live = manifest.live(storeId);
+            Set<String> keys = new HashSet<>();
+            for (DocumentManifestEntity document : live) {
+                keys.add(document.getContentSha256());
+            }
+
+            int removed = manualsIndex.retainOnly(keys);
+            int rebuilt = 0;
+            for (DocumentManifestEntity document : live) {
+                if (rebuild(document)) {
+                    rebuilt++;
+                }
+            }
+            boolean firstSync = !manualsIndex.isInSync();
+            manualsIndex.markInSync(keys);
+
+            Map<String, Integer> result = new LinkedHashMap<>();
+            result.put("manifest", keys.size());
+            result.put("removed", removed);
+            result.put("rebuilt", rebuilt);
+            if (firstSync || removed > 0 || rebuilt > 0) {
+                System.out.println("📇 Índice local alinhado ao manifesto: " + result);
+            }
+            return result;
+        } catch (Exception e) {
+            System.err.println("⚠️ Erro ao alinhar índice local ao manifesto: " + e.getMessage());
+            return Map.of();
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private boolean rebuild(DocumentManifestEntity document) {
+        String contentSha256 = document.getContentSha256();
+        if (manualsDir.isBlank() || document.getSourcePath() == null || manualsIndex.contains(contentSha256)
+                || !manualsIndex.supports(document.getDisplayName(), document.getMimeType())) {
+            return false;
+        }
+        Path file = Path.of(manualsDir).resolve(document.getSourcePath());
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try {
+            manualsIndex.index(contentSha256, document.getDisplayName(),
+                    manifest.metadataOf(document).get("categoria"), new FileSystemResource(file));
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Não foi possível reindexar " + file + " localmente: " + e.getMessage());
+            return false;
+        }
+    }
+}
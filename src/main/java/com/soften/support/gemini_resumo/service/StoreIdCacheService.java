@@ -0,0 +1,43 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.entities.StoreCacheEntity;
+import com.soften.support.gemini_resumo.repositorys.StoreCacheRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Service
+public class StoreIdCacheService {
+
+    private final StoreCacheRepository repository;
+
+    public StoreIdCacheService(StoreCacheRepository repository) {
+        this.repository = repository;
+    }
+
+    public Optional<String> load(String displayName) {
+        try {
+            return repository.findById(displayName).map(StoreCacheEntity::getStoreId);
+        } catch (Exception e) {
+            System.err.println("⚠️ Cache de stores indisponível: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Transactional
+    public void save(String displayName, String storeId) {
+        StoreCacheEntity cached = repository.findById(displayName).orElse(null);
+        if (cached == null) {
+            repository.save(new StoreCacheEntity(displayName, storeId));
+            return;
+        }
+        Instant now = Instant.now();
+        if (!storeId.equals(cached.getStoreId())) {
+            cached.setStoreId(storeId);
+            cached.setResolvedAt(now);
+        }
+        cached.setValidatedAt(now);
+    }
+}
@@ -1,5 +1,7 @@
 package com.soften.support.gemini_resumo.service;
 
+import com.soften.support.gemini_resumo.client.CircuitBreakerRegistry;
+import com.soften.support.gemini_resumo.client.CircuitOpenException;
 import com.soften.support.gemini_resumo.models.entities.CalledEntity;
 import org.springframework.stereotype.Service;
 
@@ -9,10 +11,51 @@ import java.util.stream.Collectors;
 @Service
 public class SuggestionService {
 
+    private static final String SIMILARITY_INSTRUCTIONS = """
+            Você é um analista de suporte técnico especializado. Sua tarefa é identificar problemas históricos que são SIMILARES ao problema atual.
+
+             **INSTRUÇÕES CRÍTICAS:**
+            1. Use APENAS os IDs UUID listados nos problemas históricos (não invente IDs)
+            2. Foque na ESSÊNCIA do problema atual: 'não consegue inserir o valor'
+            3. Considere problemas similares sobre: inserção de valores, campos, preenchimento, valores monetários
+            4. Ignore problemas sobre NCM, códigos, digitação - foco em VALORES
+            5. Selecione IDs de problemas com sintomas similares (máximo 3)
+
+            **FORMATO DA RESPOSTA (OBRIGATÓRIO):**
+            APENAS UUIDs exatos separados por vírgula
+            Exemplo: 45caef16-2937-4f29-a4b8-73dc487024c7, f5671055-c8d1-4eaf-8521-a8df4ff8bd6d
+            Se NENHUM for similar: 0
+
+            """;
+
+    private static final String TIPS_INSTRUCTIONS = """
+            Você é um analista técnico sênior. Com base nas soluções aplicadas a problemas similares, gere dicas práticas para resolver o problema atual.
+
+            **INSTRUÇÕES PARA AS DICAS:**
+            1. Extraia PADRÕES COMUNS das soluções
+            2. Crie dicas PRÁTICAS e EXECUTÁVEIS
+            3. Foque em etapas de solução de problemas sobre INSERÇÃO DE VALORES
+            4. Inclua verificações de configuração se relevantes
+            5. Priorize as soluções mais eficazes
+            6. Gere 3-6 dicas no máximo
+
+            **FORMATO DA RESPOSTA (em português):**
+            - Cada dica em uma nova linha começando com • (ponto de lista)
+            - Dicas devem ser em português
+            - Seja claro e conciso
+            - Exemplo:
+            • Verifique se o campo de valor está habilitado
+            • Confirme as permissões do usuário
+            • Reinicie o módulo fiscal
+
+            """;
+
     private final GeminiService geminiService;
+    private final CircuitBreakerRegistry circuitBreakers;
 
-    public SuggestionService(GeminiService geminiService) {
+    public SuggestionService(GeminiService geminiService, CircuitBreakerRegistry circuitBreakers) {
         this.geminiService = geminiService;
+        this.circuitBreakers = circuitBreakers;
     }
 
     public List<CalledEntity> filterCallsBySimilarity(List<CalledEntity> moduleCalls, String currentProblem) {
@@ -39,7 +82,8 @@ public class SuggestionService {
 
             String prompt = createPromptForSimilarityAnalysis(moduleCalls, currentProblem);
 
-            String response = geminiService.ask(prompt);
+            String response = circuitBreakers.get(CircuitBreakerRegistry.Circuit.SIMILARITY)
+                    .call(() -> geminiService.ask(SIMILARITY_INSTRUCTIONS, prompt));
             System.out.println("Gemini response (similarity): '" + response + "'");
 
             List<UUID> similarIds = extractSimilarUUIDs(response);
@@ -57,6 +101,8 @@ public class SuggestionService {
 
             return similarCalls;
 
+        } catch (CircuitOpenException e) {
+            throw e;
         } catch (Exception e) {
             System.err.println("Error in similarity filtering: " + e.getMessage());
             e.printStackTrace();
@@ -65,11 +111,50 @@ public class SuggestionService {
         }
     }
 
+    public List<CalledEntity> filterCallsLocally(List<CalledEntity> moduleCalls, String currentProblem, int limit) {
+        if (moduleCalls == null || moduleCalls.isEmpty() ||
+                currentProblem == null || currentProblem.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        Set<String> currentTerms = terms(currentProblem);
+        if (currentTerms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        record ScoredCall(CalledEntity call, double score) {}
+
+        return moduleCalls.stream()
+                .filter(c -> c.getSolution() != null && !c.getSolution().isBlank())
+                .map(c -> {
+                    Set<String> callTerms = terms(c.getProblem());
+                    long shared = callTerms.stream().filter(currentTerms::contains).count();
+                    int union = currentTerms.size() + callTerms.size() - (int) shared;
+                    return new ScoredCall(c, union == 0 ? 0 : (double) shared / union);
+                })
+                .filter(sc -> sc.score() > 0)
+                .sorted(Comparator.comparingDouble(ScoredCall::score).reversed())
+                .limit(limit)
+                .map(ScoredCall::call)
+                .collect(Collectors.toList());
+    }
+
+    private Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{Nd}]+")) {
+            if (word.length() > 3) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
     private String createPromptForSimilarityAnalysis(List<CalledEntity> calls, String currentProblem) {
         StringBuilder prompt = new StringBuilder();
 
-        prompt.append("Você é um analista de suporte técnico especializado. Sua tarefa é identificar problemas históricos que são SIMILARES ao problema atual.\n\n");
-
         prompt.append("**PROBLEMA ATUAL (analise com atenção):**\n");
         prompt.append("\"\"\"\n").append(currentProblem).append("\n\"\"\"\n\n");
 
@@ -88,18 +173,6 @@ public class SuggestionService {
             prompt.append("\n");
         }
 
-        prompt.append("\n **INSTRUÇÕES CRÍTICAS:**\n");
-        prompt.append("1. Use APENAS os IDs UUID listados acima (não invente IDs)\n");
-        prompt.append("2. Foque na ESSÊNCIA do problema atual: 'não consegue inserir o valor'\n");
-        prompt.append("3. Considere problemas similares sobre: inserção de valores, campos, preenchimento, valores monetários\n");
-        prompt.append("4. Ignore problemas sobre NCM, códigos, digitação - foco em VALORES\n");
-        prompt.append("5. Selecione IDs de problemas com sintomas similares (máximo 3)\n\n");
-
-        prompt.append("**FORMATO DA RESPOSTA (OBRIGATÓRIO):**\n");
-        prompt.append("APENAS UUIDs exatos separados por vírgula\n");
-        prompt.append("Exemplo: 45caef16-2937-4f29-a4b8-73dc487024c7, f5671055-c8d1-4eaf-8521-a8df4ff8bd6d\n");
-        prompt.append("Se NENHUM for similar: 0\n\n");
-
         prompt.append("**IDs SIMILARES (use apenas UUIDs listados acima):**\n");
 
         return prompt.toString();
@@ -166,8 +239,6 @@ public class SuggestionService {
     private String createPromptForTipsGeneration(List<String> solutions, String currentProblem) {
         StringBuilder prompt = new StringBuilder();
 
-        prompt.append("Você é um analista técnico sênior. Com base nas soluções aplicadas a problemas similares, gere dicas práticas para resolver o problema atual.\n\n");
-
         prompt.append("**PROBLEMA ATUAL PARA RESOLVER:**\n");
         prompt.append("\"\"\"\n").append(currentProblem).append("\n\"\"\"\n\n");
 
@@ -183,23 +254,6 @@ public class SuggestionService {
             prompt.append("... e mais ").append(solutions.size() - 10).append(" soluções\n\n");
         }
 
-        prompt.append("\n**INSTRUÇÕES PARA AS DICAS:**\n");
-        prompt.append("1. Extraia PADRÕES COMUNS das soluções\n");
-        prompt.append("2. Crie dicas PRÁTICAS e EXECUTÁVEIS\n");
-        prompt.append("3. Foque em etapas de solução de problemas sobre INSERÇÃO DE VALORES\n");
-        prompt.append("4. Inclua verificações de configuração se relevantes\n");
-        prompt.append("5. Priorize as soluções mais eficazes\n");
-        prompt.append("6. Gere 3-6 dicas no máximo\n\n");
-
-        prompt.append("**FORMATO DA RESPOSTA (em português):**\n");
-        prompt.append("- Cada dica em uma nova linha começando com • (ponto de lista)\n");
-        prompt.append("- Dicas devem ser em português\n");
-        prompt.append("- Seja claro e conciso\n");
-        prompt.append("- Exemplo:\n");
-        prompt.append("• Verifique se o campo de valor está habilitado\n");
-        prompt.append("• Confirme as permissões do usuário\n");
-        prompt.append("• Reinicie o módulo fiscal\n\n");
-
         prompt.append("**SUAS DICAS (em português):**\n");
 
         return prompt.toString();
@@ -286,7 +340,8 @@ public class SuggestionService {
 
             String prompt = createPromptForTipsGeneration(solutions, currentProblem);
 
-            String response = geminiService.ask(prompt);
+            String response = circuitBreakers.get(CircuitBreakerRegistry.Circuit.TIPS)
+                    .call(() -> geminiService.ask(TIPS_INSTRUCTIONS, prompt));
             System.out.println("Gemini response (tips): " +
                     (response.length() > 200 ? response.substring(0, 200) + "..." : response));
 
@@ -304,6 +359,9 @@ public class SuggestionService {
             System.out.println("Tips generated: " + tips.size());
             return tips;
 
+        } catch (CircuitOpenException e) {
+            System.out.println("Tips circuit open, using local fallback: " + e.getMessage());
+            return createFallbackTips(solutions);
         } catch (Exception e) {
             System.err.println("Error generating tips: " + e.getMessage());
             tips.add("Erro ao processar dicas automaticamente.");
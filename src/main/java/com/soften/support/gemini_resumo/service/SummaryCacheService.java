@@ -0,0 +1,253 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.utils.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Service
+public class SummaryCacheService {
+
+    private record CachedSummary(String summary, long createdAtMillis) {
+    }
+
+    private record DiskEntry(Path file, long createdAtMillis) {
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path diskPath;
+    private final int diskMaxEntries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, CachedSummary> memory;
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+
+    public SummaryCacheService(MeterRegistry meterRegistry,
+                               @Value("${gemini.summary-cache.max-entries:2000}") int maxEntries,
+                               @Value("${gemini.summary-cache.ttl:24h}") Duration ttl,
+                               @Value("${gemini.summary-cache.disk.enabled:false}") boolean diskEnabled,
+                               @Value("${gemini.summary-cache.disk.path:${java.io.tmpdir}/gemini-summary-cache}") String diskPath,
+                               @Value("${gemini.summary-cache.disk.max-entries:20000}") int diskMaxEntries) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.diskPath = diskEnabled ? Path.of(diskPath) : null;
+        this.diskMaxEntries = diskMaxEntries;
+        this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSummary> eldest) {
+                return size() > SummaryCacheService.this.maxEntries;
+            }
+        };
+
+        this.memoryHits = Counter.builder("gemini.summary.cache").tag("result", "hit").tag("tier", "memory")
+                .register(meterRegistry);
+        this.diskHits = Counter.builder("gemini.summary.cache").tag("result", "hit").tag("tier", "disk")
+                .register(meterRegistry);
+        this.misses = Counter.builder("gemini.summary.cache").tag("result", "miss").tag("tier", "none")
+                .register(meterRegistry);
+        Gauge.builder("gemini.summary.cache.size", this::size).register(meterRegistry);
+
+        if (this.diskPath != null) {
+            try {
+                Files.createDirectories(this.diskPath);
+                System.out.println("💾 Cache de resumos em disco: " + this.diskPath);
+            } catch (IOException e) {
+                throw new IllegalStateException("Não foi possível criar o diretório do cache de resumos: " + diskPath, e);
+            }
+        }
+    }
+
+    public String key(String transcript, String prompt) {
+        return Hashing.sha256(Hashing.sha256(prompt) + "\n" + normalize(transcript));
+    }
+
+    public Optional<String> get(String key) {
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            CachedSummary cached = memory.get(key);
+            if (cached != null) {
+                if (now - cached.createdAtMillis() <= ttlMillis) {
+                    memoryHits.increment();
+                    return Optional.of(cached.summary());
+                }
+                memory.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        CachedSummary fromDisk = readFromDisk(key, now);
+        if (fromDisk != null) {
+            diskHits.increment();
+            putInMemory(key, fromDisk);
+            return Optional.of(fromDisk.summary());
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(String key, String summary) {
+        CachedSummary cached = new CachedSummary(summary, System.currentTimeMillis());
+        putInMemory(key, cached);
+        writeToDisk(key, summary);
+    }
+
+    public void evict(String key) {
+        lock.lock();
+        try {
+            memory.remove(key);
+        } finally {
+            lock.unlock();
+        }
+        if (diskPath != null) {
+            try {
+                Files.deleteIfExists(diskFile(key));
+            } catch (IOException e) {
+                System.err.println("⚠️ Erro ao remover cache de resumo em disco: " + e.getMessage());
+            }
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return memory.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${gemini.summary-cache.disk.sweep-interval-ms:600000}",
+            fixedDelayString = "${gemini.summary-cache.disk.sweep-interval-ms:600000}")
+    public void sweepDisk() {
+        if (diskPath == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<DiskEntry> live = new ArrayList<>();
+        int removed = 0;
+        try {
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(diskPath, 2)) {
+                files = walk.filter(Files::isRegularFile).toList();
+            }
+            for (Path file : files) {
+                long createdAt = Files.getLastModifiedTime(file).toMillis();
+                boolean summary = file.getFileName().toString().endsWith(".txt");
+                if (now - createdAt > ttlMillis) {
+                    removed += Files.deleteIfExists(file) ? 1 : 0;
+                } else if (summary) {
+                    live.add(new DiskEntry(file, createdAt));
+                }
+            }
+
+            int excess = live.size() - diskMaxEntries;
+            if (excess > 0) {
+                live.sort(Comparator.comparingLong(DiskEntry::createdAtMillis));
+                for (DiskEntry entry : live.subList(0, excess)) {
+                    removed += Files.deleteIfExists(entry.file()) ? 1 : 0;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Erro ao limpar cache de resumos em disco: " + e.getMessage());
+        }
+        if (removed > 0) {
+            System.out.println("🧹 Cache de resumos em disco: " + removed + " arquivo(s) removido(s), "
+                    + Math.min(live.size(), diskMaxEntries) + " mantido(s)");
+        }
+    }
+
+    private void putInMemory(String key, CachedSummary cached) {
+        lock.lock();
+        try {
+            memory.put(key, cached);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CachedSummary readFromDisk(String key, long now) {
+        if (diskPath == null) {
+            return null;
+        }
+        Path file = diskFile(key);
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            long createdAt = Files.getLastModifiedTime(file).toMillis();
+            if (now - createdAt > ttlMillis) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return new CachedSummary(Files.readString(file, StandardCharsets.UTF_8), createdAt);
+        } catch (IOException e) {
+            System.err.println("⚠️ Erro ao ler cache de resumo em disco: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, String summary) {
+        if (diskPath == null) {
+            return;
+        }
+        Path file = diskFile(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+            Files.writeString(tmp, summary, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("⚠️ Erro ao gravar cache de resumo em disco: " + e.getMessage());
+        }
+    }
+
+    private Path diskFile(String key) {
+        return diskPath.resolve(key.substring(0, 2)).resolve(key + ".txt");
+    }
+
+    private static String normalize(String transcript) {
+        if (transcript == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(transcript.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < transcript.length(); i++) {
+            char c = transcript.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
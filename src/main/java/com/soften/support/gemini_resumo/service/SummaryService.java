@@ -1,53 +1,112 @@
 package com.soften.support.gemini_resumo.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.soften.support.gemini_resumo.models.dtos.FormatSummary;
+import com.soften.support.gemini_resumo.models.dtos.PreprocessedTranscript;
 import com.soften.support.gemini_resumo.models.dtos.SummaryDto;
 import com.soften.support.gemini_resumo.models.enums.ModulesCalled;
 import com.soften.support.gemini_resumo.models.enums.MoodClient;
-import com.soften.support.gemini_resumo.utils.ModuleMapper;
+import com.soften.support.gemini_resumo.utils.SummaryParser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class SummaryService {
 
     private final GeminiService geminiService;
+    private final ObjectMapper objectMapper;
+    private final boolean structuredOutput;
+    private final int maxConsecutiveFailures;
+    private final Duration disabledFor;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile Instant structuredDisabledUntil = Instant.MIN;
 
-    public SummaryService(GeminiService geminiService) {
+    private final Counter structuredParsed;
+    private final Counter structuredFallbacks;
+
+    public SummaryService(GeminiService geminiService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                          @Value("${gemini.summary.structured-output:true}") boolean structuredOutput,
+                          @Value("${gemini.summary.structured-output.max-consecutive-failures:5}") int maxConsecutiveFailures,
+                          @Value("${gemini.summary.structured-output.disabled-for:30m}") Duration disabledFor) {
         this.geminiService = geminiService;
+        this.objectMapper = objectMapper;
+        this.structuredOutput = structuredOutput;
+        this.maxConsecutiveFailures = maxConsecutiveFailures;
+        this.disabledFor = disabledFor;
+
+        this.structuredParsed = Counter.builder("gemini.summary.structured").tag("result", "parsed")
+                .register(meterRegistry);
+        this.structuredFallbacks = Counter.builder("gemini.summary.structured").tag("result", "fallback")
+                .register(meterRegistry);
+        Gauge.builder("gemini.summary.structured.enabled", this, s -> s.structuredEnabled() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    boolean structuredEnabled() {
+        return structuredOutput && Instant.now().isAfter(structuredDisabledUntil);
     }
 
     public String generateFormattedSummary(String textService) {
-        String prompt = geminiService.getPromptSummary();
-        return geminiService.generateSummary(textService, prompt);
+        return geminiService.generateSummary(textService);
     }
 
     public FormatSummary extractFieldsFromSummary(String summaryComplete) {
-        String problem = extractField(summaryComplete, "\\*\\*PROBLEMA / DÚVIDA:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
-        String solution = extractField(summaryComplete, "\\*\\*SOLUÇÃO APRESENTADA:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
-        String upsell = extractField(summaryComplete, "\\*\\*OPORTUNIDADE DE UPSELL:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
-        String prints = extractField(summaryComplete, "\\*\\*PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
-        String humor = extractField(summaryComplete, "\\*\\*HUMOR DO CLIENTE:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
-        String module = extractField(summaryComplete, "\\*\\*MÓDULO:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
+        return SummaryParser.parse(summaryComplete);
+    }
 
-        boolean printsFlag = prints.trim().toLowerCase().startsWith("sim");
-        MoodClient mood = mapMood(humor);
-        ModulesCalled modulesCalled = ModuleMapper.map(module);
+    public SummaryDto createDtoSummary(String textCall) {
+        return createDtoSummary(
+                () -> geminiService.generateStructuredSummary(textCall),
+                () -> geminiService.evictStructuredSummary(textCall),
+                () -> generateFormattedSummary(textCall));
+    }
 
-        return new FormatSummary(
-                problem.trim(),
-                solution.trim(),
-                upsell.trim(),
-                printsFlag,
-                mood,
-                modulesCalled
-        );
+    public SummaryDto createDtoSummary(PreprocessedTranscript transcript) {
+        return createDtoSummary(
+                () -> geminiService.generateStructuredSummary(transcript),
+                () -> geminiService.evictStructuredSummary(transcript),
+                () -> geminiService.generateSummary(transcript));
     }
 
-    public SummaryDto createDtoSummary(String textCall) {
-        String summaryComplete = generateFormattedSummary(textCall);
+    private SummaryDto createDtoSummary(Supplier<String> structured, Runnable evictStructured,
+                                        Supplier<String> markdown) {
+        if (structuredEnabled()) {
+            String json = structured.get();
+            try {
+                FormatSummary formatSummary = parseStructuredSummary(json);
+                consecutiveFailures.set(0);
+                structuredParsed.increment();
+                return new SummaryDto(
+                        renderMarkdown(formatSummary),
+                        formatSummary.modules(),
+                        formatSummary.problem(),
+                        formatSummary.solution(),
+                        formatSummary
+                );
+            } catch (JsonProcessingException e) {
+                evictStructured.run();
+                structuredFallbacks.increment();
+                System.err.println("⚠️ Resposta estruturada inválida, usando resumo em markdown: " + e.getOriginalMessage());
+                if (consecutiveFailures.incrementAndGet() >= maxConsecutiveFailures) {
+                    consecutiveFailures.set(0);
+                    structuredDisabledUntil = Instant.now().plus(disabledFor);
+                    System.err.println("⚠️ " + maxConsecutiveFailures + " respostas estruturadas inválidas seguidas, "
+                            + "usando somente markdown por " + disabledFor);
+                }
+            }
+        }
+
+        String summaryComplete = markdown.get();
         FormatSummary formatSummary = extractFieldsFromSummary(summaryComplete);
 
         return new SummaryDto(
@@ -59,18 +118,37 @@ public class SummaryService {
         );
     }
 
-    private String extractField(String text, String regex) {
-        Pattern p = Pattern.compile(regex);
-        Matcher m = p.matcher(text);
-        if (m.find()) return m.group(1).trim();
-        return "";
+    private FormatSummary parseStructuredSummary(String json) throws JsonProcessingException {
+        FormatSummary parsed = objectMapper.readValue(json, FormatSummary.class);
+        return new FormatSummary(
+                parsed.problem() == null ? "" : parsed.problem().trim(),
+                parsed.solution() == null ? "" : parsed.solution().trim(),
+                parsed.upsell() == null ? "" : parsed.upsell().trim(),
+                parsed.prints(),
+                parsed.mood() == null ? MoodClient.GOOD : parsed.mood(),
+                parsed.modules() == null ? ModulesCalled.GENERIC : parsed.modules()
+        );
+    }
+
+    public String renderMarkdown(FormatSummary summary) {
+        return "**PROBLEMA / DÚVIDA:** " + summary.problem() + "\n\n"
+                + "**SOLUÇÃO APRESENTADA:** " + summary.solution() + "\n\n"
+                + "**OPORTUNIDADE DE UPSELL:** " + summary.upsell() + "\n\n"
+                + "**PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:** " + (summary.prints() ? "Sim" : "Não") + "\n\n"
+                + "**HUMOR DO CLIENTE:** " + summary.mood().getLabel() + ".\n\n"
+                + "**MÓDULO:** " + summary.modules().getLabel();
     }
 
-    private MoodClient mapMood(String humor) {
-        String h = humor.toUpperCase();
-        if (h.contains("BOM")) return MoodClient.GOOD;
-        if (h.contains("NEUTRO")) return MoodClient.NEUTRAL;
-        if (h.contains("IRRITADO")) return MoodClient.IRRITATED;
-        return MoodClient.GOOD;
+    public SummaryDto streamDtoSummary(String textCall, Consumer<String> onChunk) {
+        String summaryComplete = geminiService.streamSummary(textCall, onChunk);
+        FormatSummary formatSummary = extractFieldsFromSummary(summaryComplete);
+
+        return new SummaryDto(
+                summaryComplete,
+                formatSummary.modules(),
+                formatSummary.problem(),
+                formatSummary.solution(),
+                formatSummary
+        );
     }
 }
\ No newline at end of file
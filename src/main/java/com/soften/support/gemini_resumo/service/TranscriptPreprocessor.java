@@ -0,0 +1,306 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.dtos.PreprocessedTranscript;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.text.Normalizer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Service
+public class TranscriptPreprocessor {
+
+    private static final int MAX_SPEAKER_LENGTH = 40;
+    private static final int MAX_VISIBLE_DIGITS = 5;
+    private static final int FISCAL_CONTEXT_WINDOW = 25;
+    private static final String ID_MASK = "[ID]";
+
+    private static final Set<String> GREETINGS = Set.of(
+            "oi", "ola", "bom dia", "boa tarde", "boa noite", "tudo bem", "oi tudo bem", "ola tudo bem",
+            "bom dia tudo bem", "boa tarde tudo bem", "boa noite tudo bem", "opa", "e ai", "obrigado", "obrigada");
+
+    private static final Set<String> FISCAL_KEYWORDS = Set.of(
+            "nf", "nfe", "nfce", "nfc", "nota", "notas", "cupom", "ct", "cte", "mdf", "mdfe", "danfe", "doc",
+            "documento", "chave", "numero", "nº", "n°", "r$");
+    private static final int MAX_GROUPED_DIGITS = 3;
+
+    private final boolean enabled;
+    private final Set<String> botNames;
+    private final DistributionSummary tokensSaved;
+
+    public TranscriptPreprocessor(MeterRegistry meterRegistry,
+                                  @Value("${gemini.preprocess.enabled:true}") boolean enabled,
+                                  @Value("${gemini.preprocess.bot-names:automatico}") List<String> botNames) {
+        this.enabled = enabled;
+        this.botNames = new HashSet<>();
+        for (String name : botNames) {
+            this.botNames.add(fold(name));
+        }
+        this.tokensSaved = DistributionSummary.builder("gemini.preprocess.tokens.saved")
+                .description("Tokens estimados removidos do atendimento antes do envio ao Gemini")
+                .register(meterRegistry);
+    }
+
+    public PreprocessedTranscript process(String transcript) {
+        if (transcript == null) {
+            return new PreprocessedTranscript("", 0, 0, 0, 0);
+        }
+        return process(new StringReader(transcript));
+    }
+
+    public PreprocessedTranscript process(Reader reader) {
+        if (!enabled) {
+            String transcript = readAll(reader);
+            return new PreprocessedTranscript(transcript.trim(), transcript.length(), 0, 0, 0);
+        }
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        StringBuilder out = new StringBuilder();
+        Set<String> greetedSpeakers = new HashSet<>();
+
+        int originalChars = 0;
+        int droppedBotLines = 0;
+        int droppedGreetings = 0;
+        int maskedIds = 0;
+        boolean insideBotMessage = false;
+
+        try {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                originalChars += line.length() + 1;
+
+                int colon = speakerSeparator(line);
+                String speaker = colon >= 0 ? fold(stripTimestamp(line.substring(0, colon))) : null;
+                if (speaker != null) {
+                    insideBotMessage = isBot(speaker);
+                }
+                if (insideBotMessage) {
+                    droppedBotLines++;
+                    continue;
+                }
+
+                if (speaker != null && isGreeting(line.substring(colon + 1)) && !greetedSpeakers.add(speaker)) {
+                    droppedGreetings++;
+                    continue;
+                }
+
+                int lengthBefore = out.length();
+                maskedIds += appendCollapsed(line, out);
+                if (out.length() == lengthBefore) {
+                    continue;
+                }
+                out.append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler o atendimento", e);
+        }
+
+        if (!out.isEmpty()) {
+            out.setLength(out.length() - 1);
+        }
+
+        PreprocessedTranscript result = new PreprocessedTranscript(
+                out.toString(), Math.max(0, originalChars - 1), droppedBotLines, droppedGreetings, maskedIds);
+        tokensSaved.record(result.estimatedTokensSaved());
+        return result;
+    }
+
+    private int speakerSeparator(String line) {
+        int start = 0;
+        while (start < line.length() && isTimestampChar(line.charAt(start))) {
+            start++;
+        }
+        int limit = Math.min(line.length(), start + MAX_SPEAKER_LENGTH);
+        for (int i = start; i < limit; i++) {
+            char c = line.charAt(i);
+            if (c == ':') {
+                return i > start ? i : -1;
+            }
+            if (Character.isDigit(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private String stripTimestamp(String prefix) {
+        int start = 0;
+        while (start < prefix.length() && isTimestampChar(prefix.charAt(start))) {
+            start++;
+        }
+        return prefix.substring(start).trim();
+    }
+
+    private boolean isTimestampChar(char c) {
+        return Character.isDigit(c) || Character.isWhitespace(c)
+                || c == '[' || c == ']' || c == '(' || c == ')' || c == '/' || c == ':' || c == '-' || c == '.' || c == ',';
+    }
+
+    private boolean isBot(String speaker) {
+        for (String bot : botNames) {
+            if (speaker.contains(bot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isGreeting(String message) {
+        String folded = fold(message);
+        StringBuilder words = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetter(c)) {
+                words.append(c);
+            } else if (!words.isEmpty() && words.charAt(words.length() - 1) != ' ') {
+                words.append(' ');
+            }
+        }
+        return GREETINGS.contains(words.toString().trim());
+    }
+
+    private int appendCollapsed(String line, StringBuilder out) {
+        int masked = 0;
+        int lineStart = out.length();
+        boolean pendingSpace = false;
+        int i = 0;
+
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > lineStart;
+                i++;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+
+            if (Character.isDigit(c)) {
+                int end = numberRunEnd(line, i);
+                int digits = countDigits(line, i, end);
+                if (digits > MAX_VISIBLE_DIGITS && !isFiscalContext(line, i, end)) {
+                    out.append(ID_MASK);
+                    masked++;
+                } else {
+                    out.append(line, i, end);
+                }
+                i = end;
+                continue;
+            }
+
+            out.append(c);
+            i++;
+        }
+
+        return masked;
+    }
+
+    private int numberRunEnd(String line, int start) {
+        int end = start;
+        int i = start;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (Character.isDigit(c)) {
+                i++;
+                end = i;
+            } else if ((c == '.' || c == '-') && i + 1 < line.length()
+                    && Character.isDigit(line.charAt(i + 1))) {
+                i++;
+            } else if (c == ' ' && isDigitGroupSeparator(line, i)) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return end;
+    }
+
+    private boolean isDigitGroupSeparator(String line, int space) {
+        int before = 0;
+        for (int j = space - 1; j >= 0 && Character.isDigit(line.charAt(j)); j--) {
+            before++;
+        }
+        int after = 0;
+        for (int j = space + 1; j < line.length() && Character.isDigit(line.charAt(j)); j++) {
+            after++;
+        }
+        return before >= 1 && before <= MAX_GROUPED_DIGITS && after == MAX_GROUPED_DIGITS;
+    }
+
+    private int countDigits(String line, int start, int end) {
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            if (Character.isDigit(line.charAt(i))) {
+                digits++;
+            }
+        }
+        return digits;
+    }
+
+    private boolean isFiscalContext(String line, int start, int end) {
+        if (end < line.length() && line.charAt(end) == ',' && end + 1 < line.length()
+                && Character.isDigit(line.charAt(end + 1))) {
+            return true;
+        }
+        int from = Math.max(0, start - FISCAL_CONTEXT_WINDOW);
+        while (from > 0 && from < start && isWordChar(line.charAt(from - 1))) {
+            from++;
+        }
+        String before = line.substring(from, start).toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < before.length()) {
+            while (i < before.length() && !isWordChar(before.charAt(i))) {
+                i++;
+            }
+            int wordStart = i;
+            while (i < before.length() && isWordChar(before.charAt(i))) {
+                i++;
+            }
+            if (i > wordStart && FISCAL_KEYWORDS.contains(fold(before.substring(wordStart, i)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetter(c) || c == '$' || c == 'º' || c == '°';
+    }
+
+    private static String fold(String value) {
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    private static String readAll(Reader reader) {
+        StringBuilder out = new StringBuilder();
+        char[] buffer = new char[8192];
+        try {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                out.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler o atendimento", e);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.entities.UploadOperationEntity;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Service
+@ConditionalOnProperty(name = "gemini.upload.poller.enabled", havingValue = "true", matchIfMissing = true)
+public class UploadOperationPoller {
+
+    private final UploadOperationService operations;
+    private final GoogleFileSearchService fileSearchService;
+    private final int batchSize;
+
+    public UploadOperationPoller(UploadOperationService operations,
+                                 GoogleFileSearchService fileSearchService,
+                                 @Value("${gemini.upload.poller.batch-size:20}") int batchSize) {
+        this.operations = operations;
+        this.fileSearchService = fileSearchService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${gemini.upload.poller.tick-ms:1000}")
+    public void poll() {
+        List<UploadOperationEntity> due;
+        try {
+            due = operations.claimDue(batchSize);
+        } catch (Exception e) {
+            System.err.println("⚠️ Erro ao buscar operações de indexação pendentes: " + e.getMessage());
+            return;
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (UploadOperationEntity operation : due) {
+                executor.submit(() -> check(operation.getOperationName()));
+            }
+        }
+    }
+
+    private void check(String operationName) {
+        try {
+            JSONObject operation = fileSearchService.fetchOperation(operationName);
+            if (!operation.optBoolean("done", false)) {
+                operations.reschedule(operationName);
+            } else if (operation.has("error")) {
+                operations.markFailed(operationName,
+                        operation.getJSONObject("error").optString("message", "Erro desconhecido"));
+            } else {
+                JSONObject response = operation.optJSONObject("response");
+                operations.markActive(operationName, response != null ? response.optString("name", null) : null)
+                        .ifPresent(this::deleteSuperseded);
+            }
+        } catch (HttpClientErrorException.NotFound e) {
+            operations.markFailed(operationName, "Operação não encontrada no Google File Search.");
+        } catch (Exception e) {
+            System.err.println("⚠️ Erro ao consultar operação " + operationName + ": " + e.getMessage());
+            try {
+                operations.reschedule(operationName);
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    private void deleteSuperseded(String documentName) {
+        System.out.println("♻️ Documento substituído antes de concluir a indexação, removendo: " + documentName);
+        if (!fileSearchService.deleteFile(documentName)) {
+            System.err.println("⚠️ Não foi possível remover o documento substituído " + documentName);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.dtos.UploadOperationDto;
+import com.soften.support.gemini_resumo.models.entities.UploadOperationEntity;
+import com.soften.support.gemini_resumo.models.enums.UploadOperationStatus;
+import com.soften.support.gemini_resumo.repositorys.UploadOperationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class UploadOperationService {
+
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+    private static final double ESTIMATE_WEIGHT = 0.2;
+
+    private final UploadOperationRepository repository;
+    private final DocumentManifestService manifest;
+    private final Duration initialInterval;
+    private final Duration maxInterval;
+    private final double growth;
+    private final Duration lease;
+    private final Duration maxAge;
+    private final Duration awaitRecheck;
+    private final ConcurrentHashMap<String, CompletableFuture<UploadOperationDto>> waiters = new ConcurrentHashMap<>();
+    private final ReentrantLock estimateLock = new ReentrantLock();
+    private volatile double millisPerMegabyte = -1;
+
+    private final Timer indexedActive;
+    private final Timer indexedFailed;
+    private final Counter polls;
+
+    public UploadOperationService(UploadOperationRepository repository, DocumentManifestService manifest,
+            MeterRegistry meterRegistry,
+            @Value("${gemini.upload.poller.initial-interval:2s}") Duration initialInterval,
+            @Value("${gemini.upload.poller.max-interval:30s}") Duration maxInterval,
+            @Value("${gemini.upload.poller.growth:1.5}") double growth,
+            @Value("${gemini.upload.poller.lease:1m}") Duration lease,
+            @Value("${gemini.upload.poller.max-age:2h}") Duration maxAge,
+            @Value("${gemini.upload.poller.await-recheck:5s}") Duration awaitRecheck) {
+        this.repository = repository;
+        this.manifest = manifest;
+        this.initialInterval = initialInterval;
+        this.maxInterval = maxInterval;
+        this.growth = Math.max(1.0, growth);
+        this.lease = lease;
+        this.maxAge = maxAge;
+        this.awaitRecheck = awaitRecheck;
+
+        this.indexedActive = Timer.builder("gemini.upload.indexing").tag("result", "active").register(meterRegistry);
+        this.indexedFailed = Timer.builder("gemini.upload.indexing").tag("result", "failed").register(meterRegistry);
+        this.polls = Counter.builder("gemini.upload.operation.polls").register(meterRegistry);
+    }
+
+    public void track(String operationName, String displayName, String storeId, long sizeBytes) {
+        try {
+            UploadOperationEntity operation = new UploadOperationEntity(operationName, displayName, storeId,
+                    sizeBytes, Instant.now().plus(firstInterval(sizeBytes)));
+            repository.save(operation);
+            System.out.println("🛰️ Operação de indexação registrada: " + operationName);
+        } catch (Exception e) {
+            System.err.println("⚠️ Não foi possível registrar a operação " + operationName + ": " + e.getMessage());
+        }
+    }
+
+    public Optional<UploadOperationDto> find(String operationName) {
+        return repository.findByOperationName(operationName).map(UploadOperationService::toDto);
+    }
+
+    public Optional<UploadOperationDto> await(String operationName, Duration timeout) {
+        Instant deadline = Instant.now().plus(timeout);
+        while (true) {
+            Optional<UploadOperationDto> current = find(operationName);
+            if (current.isEmpty() || current.get().status() != UploadOperationStatus.PROCESSING) {
+                waiters.remove(operationName);
+                return current;
+            }
+
+            long remaining = Duration.between(Instant.now(), deadline).toMillis();
+            if (remaining <= 0) {
+                return current;
+            }
+
+            CompletableFuture<UploadOperationDto> waiter = waiters.computeIfAbsent(operationName,
+                    name -> new CompletableFuture<>());
+            try {
+                return Optional.of(waiter.get(Math.min(remaining, awaitRecheck.toMillis()), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return current;
+            } catch (ExecutionException e) {
+                return current;
+            }
+        }
+    }
+
+    @Transactional
+    public List<UploadOperationEntity> claimDue(int limit) {
+        Instant now = Instant.now();
+        List<UploadOperationEntity> due = repository.findDue(now, limit);
+        for (UploadOperationEntity operation : due) {
+            operation.setPolls(operation.getPolls() + 1);
+            operation.setNextPollAt(now.plus(lease));
+            operation.setUpdatedAt(now);
+        }
+        polls.increment(due.size());
+        return repository.saveAll(due);
+    }
+
+    @Transactional
+    public Optional<String> markActive(String operationName, String documentName) {
+        return repository.findByOperationName(operationName)
+                .filter(operation -> operation.getStatus() == UploadOperationStatus.PROCESSING)
+                .flatMap(operation -> finish(operation, UploadOperationStatus.ACTIVE, documentName, null));
+    }
+
+    @Transactional
+    public void markFailed(String operationName, String error) {
+        finish(operationName, UploadOperationStatus.FAILED, null, error);
+    }
+
+    @Transactional
+    public void reschedule(String operationName) {
+        repository.findByOperationName(operationName)
+                .filter(operation -> operation.getStatus() == UploadOperationStatus.PROCESSING)
+                .ifPresent(operation -> {
+                    Instant now = Instant.now();
+                    if (Duration.between(operation.getCreatedAt(), now).compareTo(maxAge) > 0) {
+                        finish(operation, UploadOperationStatus.FAILED, null,
+                                "Indexação não concluiu em " + maxAge.toMinutes() + " minutos.");
+                        return;
+                    }
+                    operation.setNextPollAt(now.plus(nextInterval(operation.getPolls())));
+                    operation.setUpdatedAt(now);
+                });
+    }
+
+    private void finish(String operationName, UploadOperationStatus status, String documentName, String error) {
+        repository.findByOperationName(operationName)
+                .filter(operation -> operation.getStatus() == UploadOperationStatus.PROCESSING)
+                .ifPresent(operation -> finish(operation, status, documentName, error));
+    }
+
+    private Optional<String> finish(UploadOperationEntity operation, UploadOperationStatus status,
+            String documentName, String error) {
+        Instant now = Instant.now();
+        operation.setStatus(status);
+        operation.setDocumentName(documentName);
+        operation.setError(error != null && error.length() > 2000 ? error.substring(0, 2000) : error);
+        operation.setCompletedAt(now);
+        operation.setUpdatedAt(now);
+
+        Duration elapsed = Duration.between(operation.getCreatedAt(), now);
+        Optional<String> superseded = Optional.empty();
+        if (status == UploadOperationStatus.ACTIVE) {
+            superseded = manifest.markIndexed(operation.getOperationName(), documentName);
+            indexedActive.record(elapsed);
+            learn(operation.getSizeBytes(), elapsed);
+            System.out.println("✅ Documento indexado: " + operation.getDisplayName() + " em " + elapsed.toMillis()
+                    + "ms após " + operation.getPolls() + " consultas");
+        } else {
+            manifest.markFailed(operation.getOperationName());
+            indexedFailed.record(elapsed);
+            System.err.println("❌ Indexação falhou: " + operation.getDisplayName() + " - " + error);
+        }
+
+        CompletableFuture<UploadOperationDto> waiter = waiters.remove(operation.getOperationName());
+        if (waiter != null) {
+            waiter.complete(toDto(operation));
+        }
+        return superseded;
+    }
+
+    private Duration firstInterval(long sizeBytes) {
+        double estimate = millisPerMegabyte;
+        if (estimate <= 0) {
+            return initialInterval;
+        }
+        long expected = (long) (estimate * sizeBytes / BYTES_PER_MEGABYTE);
+        return Duration.ofMillis(Math.clamp(expected, initialInterval.toMillis(), maxInterval.toMillis()));
+    }
+
+    private Duration nextInterval(int polls) {
+        double interval = initialInterval.toMillis() * Math.pow(growth, polls);
+        double jitter = 0.9 + ThreadLocalRandom.current().nextDouble() * 0.2;
+        return Duration.ofMillis((long) Math.min(maxInterval.toMillis(), interval * jitter));
+    }
+
+    private void learn(long sizeBytes, Duration elapsed) {
+        double megabytes = Math.max(sizeBytes / BYTES_PER_MEGABYTE, 0.01);
+        double sample = elapsed.toMillis() / megabytes;
+        estimateLock.lock();
+        try {
+            millisPerMegabyte = millisPerMegabyte <= 0
+                    ? sample
+                    : millisPerMegabyte + ESTIMATE_WEIGHT * (sample - millisPerMegabyte);
+        } finally {
+            estimateLock.unlock();
+        }
+    }
+
+    private static UploadOperationDto toDto(UploadOperationEntity operation) {
+        return new UploadOperationDto(
+                operation.getOperationName(),
+                operation.getDisplayName(),
+                operation.getStoreId(),
+                operation.getStatus(),
+                operation.getDocumentName(),
+                operation.getError(),
+                operation.getPolls(),
+                operation.getCreatedAt(),
+                operation.getCompletedAt(),
+                operation.getCompletedAt() == null
+                        ? null
+                        : Duration.between(operation.getCreatedAt(), operation.getCompletedAt()).toMillis());
+    }
+}
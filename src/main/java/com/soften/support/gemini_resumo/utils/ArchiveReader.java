@@ -0,0 +1,190 @@
+package com.soften.support.gemini_resumo.utils;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class ArchiveReader {
+
+    public interface EntryHandler {
+        void handle(String name, InputStream content) throws IOException;
+    }
+
+    private static final int TAR_BLOCK = 512;
+
+    public static void read(InputStream archive, EntryHandler handler) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(archive);
+        in.mark(4);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+
+        if (b0 == 'P' && b1 == 'K') {
+            readZip(in, handler);
+        } else if (b0 == 0x1f && b1 == 0x8b) {
+            readTar(new BufferedInputStream(new GZIPInputStream(in)), handler);
+        } else {
+            readTar(in, handler);
+        }
+    }
+
+    private static void readZip(InputStream in, EntryHandler handler) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory()) {
+                handler.handle(entry.getName(), new NonClosingInputStream(zip));
+            }
+            zip.closeEntry();
+        }
+    }
+
+    private static void readTar(InputStream in, EntryHandler handler) throws IOException {
+        byte[] header = new byte[TAR_BLOCK];
+        String longName = null;
+
+        while (in.readNBytes(header, 0, TAR_BLOCK) == TAR_BLOCK && header[0] != 0) {
+            long size = parseOctal(header, 124, 12);
+            char type = (char) header[156];
+
+            if (type == 'L' || type == 'x') {
+                String data = new String(in.readNBytes((int) size), StandardCharsets.UTF_8);
+                longName = type == 'L' ? trimNul(data) : paxPath(data, longName);
+                skipPadding(in, size);
+                continue;
+            }
+
+            String name = longName != null ? longName : entryName(header);
+            longName = null;
+
+            BoundedInputStream content = new BoundedInputStream(in, size);
+            if (type == '0' || type == 0) {
+                handler.handle(name, content);
+            }
+            content.skipRemaining();
+            skipPadding(in, size);
+        }
+    }
+
+    private static String entryName(byte[] header) {
+        String name = field(header, 0, 100);
+        boolean ustar = field(header, 257, 5).equals("ustar");
+        String prefix = ustar ? field(header, 345, 155) : "";
+        return prefix.isEmpty() ? name : prefix + "/" + name;
+    }
+
+    private static String paxPath(String records, String current) {
+        for (String record : records.split("\n")) {
+            int space = record.indexOf(' ');
+            if (space > 0 && record.startsWith("path=", space + 1)) {
+                return record.substring(space + 6);
+            }
+        }
+        return current;
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static String trimNul(String value) {
+        int nul = value.indexOf('\0');
+        return nul >= 0 ? value.substring(0, nul) : value;
+    }
+
+    private static long parseOctal(byte[] header, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = header[i];
+            if (b >= '0' && b <= '7') {
+                value = value * 8 + (b - '0');
+            } else if (value > 0 || (b != ' ' && b != 0)) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    private static void skipPadding(InputStream in, long size) throws IOException {
+        long padding = (TAR_BLOCK - size % TAR_BLOCK) % TAR_BLOCK;
+        in.skipNBytes(padding);
+    }
+
+    private static class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long size) {
+            super(in);
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        void skipRemaining() throws IOException {
+            in.skipNBytes(remaining);
+            remaining = 0;
+        }
+    }
+}
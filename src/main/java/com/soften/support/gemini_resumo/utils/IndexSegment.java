@@ -0,0 +1,310 @@
+package com.soften.support.gemini_resumo.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+public class IndexSegment {
+
+    public record Document(String key, String displayName, String categoria, List<String> passages) {
+    }
+
+    public interface PostingVisitor {
+        void visit(int passage, int termFrequency);
+    }
+
+    private static final int MAGIC = 0x424D3235;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 6 + 8 * 6;
+    private static final int PASSAGE_ENTRY_BYTES = 4 + 8 + 4 + 4;
+    private static final int TERM_ENTRY_BYTES = 4 + 4 + 8 + 4;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final String[] keys;
+    private final String[] displayNames;
+    private final String[] categorias;
+    private final int passageCount;
+    private final int termCount;
+    private final long totalTokens;
+    private final long passagesOffset;
+    private final long termsOffset;
+    private final long termBytesOffset;
+    private final long textOffset;
+
+    private IndexSegment(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Segmento de índice inválido: " + file);
+        }
+        int documentCount = buffer.getInt(8);
+        this.passageCount = buffer.getInt(12);
+        this.termCount = buffer.getInt(16);
+        this.totalTokens = buffer.getLong(24);
+        long documentsOffset = buffer.getLong(32);
+        this.passagesOffset = buffer.getLong(40);
+        this.termsOffset = buffer.getLong(48);
+        this.termBytesOffset = buffer.getLong(56);
+        this.textOffset = buffer.getLong(64);
+
+        this.keys = new String[documentCount];
+        this.displayNames = new String[documentCount];
+        this.categorias = new String[documentCount];
+        ByteBuffer documents = buffer.duplicate().position((int) documentsOffset);
+        for (int i = 0; i < documentCount; i++) {
+            keys[i] = readString(documents);
+            displayNames[i] = readString(documents);
+            categorias[i] = readString(documents);
+        }
+    }
+
+    public static IndexSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Segmento de índice grande demais: " + file);
+            }
+            return new IndexSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static IndexSegment write(Path file, List<Document> documents) throws IOException {
+        Map<String, List<int[]>> postings = new HashMap<>();
+        List<int[]> passages = new ArrayList<>();
+        List<byte[]> texts = new ArrayList<>();
+        long totalTokens = 0;
+        long textBytes = 0;
+
+        for (int doc = 0; doc < documents.size(); doc++) {
+            for (String passage : documents.get(doc).passages()) {
+                int passageIndex = passages.size();
+                List<String> tokens = PortugueseAnalyzer.analyze(passage);
+                Map<String, Integer> frequencies = new HashMap<>();
+                for (String token : tokens) {
+                    frequencies.merge(token, 1, Integer::sum);
+                }
+                frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new ArrayList<>())
+                        .add(new int[]{passageIndex, tf}));
+
+                byte[] text = passage.getBytes(StandardCharsets.UTF_8);
+                passages.add(new int[]{doc, tokens.size()});
+                texts.add(text);
+                textBytes += text.length;
+                totalTokens += tokens.size();
+            }
+        }
+
+        List<Map.Entry<byte[], List<int[]>>> terms = new ArrayList<>(postings.size());
+        long termBytes = 0;
+        long postingCount = 0;
+        for (Map.Entry<String, List<int[]>> entry : postings.entrySet()) {
+            byte[] term = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            terms.add(Map.entry(term, entry.getValue()));
+            termBytes += term.length;
+            postingCount += entry.getValue().size();
+        }
+        terms.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+
+        long documentsOffset = HEADER_BYTES;
+        long documentsBytes = 0;
+        for (Document document : documents) {
+            documentsBytes += stringBytes(document.key()) + stringBytes(document.displayName())
+                    + stringBytes(document.categoria());
+        }
+        long passagesOffset = documentsOffset + documentsBytes;
+        long termsOffset = passagesOffset + (long) passages.size() * PASSAGE_ENTRY_BYTES;
+        long termBytesOffset = termsOffset + (long) terms.size() * TERM_ENTRY_BYTES;
+        long postingsOffset = termBytesOffset + termBytes;
+        long textOffset = postingsOffset + postingCount * 8;
+        long size = textOffset + textBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Segmento de índice grande demais: " + size + " bytes");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+        out.putInt(MAGIC).putInt(VERSION).putInt(documents.size()).putInt(passages.size()).putInt(terms.size())
+                .putInt(0).putLong(totalTokens).putLong(documentsOffset).putLong(passagesOffset)
+                .putLong(termsOffset).putLong(termBytesOffset).putLong(textOffset);
+
+        for (Document document : documents) {
+            writeString(out, document.key());
+            writeString(out, document.displayName());
+            writeString(out, document.categoria());
+        }
+
+        long textPosition = 0;
+        for (int i = 0; i < passages.size(); i++) {
+            out.putInt(passages.get(i)[0]).putLong(textPosition).putInt(texts.get(i).length)
+                    .putInt(passages.get(i)[1]);
+            textPosition += texts.get(i).length;
+        }
+
+        int termPosition = 0;
+        long postingPosition = postingsOffset;
+        for (Map.Entry<byte[], List<int[]>> term : terms) {
+            out.putInt(termPosition).putInt(term.getKey().length).putLong(postingPosition)
+                    .putInt(term.getValue().size());
+            termPosition += term.getKey().length;
+            postingPosition += term.getValue().size() * 8L;
+        }
+        for (Map.Entry<byte[], List<int[]>> term : terms) {
+            out.put(term.getKey());
+        }
+        for (Map.Entry<byte[], List<int[]>> term : terms) {
+            for (int[] posting : term.getValue()) {
+                out.putInt(posting[0]).putInt(posting[1]);
+            }
+        }
+        for (byte[] text : texts) {
+            out.put(text);
+        }
+
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (OutputStream stream = Files.newOutputStream(tmp)) {
+            stream.write(out.array());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int passageCount() {
+        return passageCount;
+    }
+
+    public long totalTokens() {
+        return totalTokens;
+    }
+
+    public Set<String> documentKeys() {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+
+    public int documentFrequency(String term) {
+        int entry = findTerm(term);
+        return entry < 0 ? 0 : buffer.getInt((int) (termsOffset + (long) entry * TERM_ENTRY_BYTES) + 16);
+    }
+
+    public void postings(String term, PostingVisitor visitor) {
+        int entry = findTerm(term);
+        if (entry < 0) {
+            return;
+        }
+        int entryOffset = (int) (termsOffset + (long) entry * TERM_ENTRY_BYTES);
+        int position = (int) buffer.getLong(entryOffset + 8);
+        int count = buffer.getInt(entryOffset + 16);
+        for (int i = 0; i < count; i++, position += 8) {
+            visitor.visit(buffer.getInt(position), buffer.getInt(position + 4));
+        }
+    }
+
+    public int tokenCount(int passage) {
+        return buffer.getInt(passageOffset(passage) + 16);
+    }
+
+    public String documentKey(int passage) {
+        return keys[buffer.getInt(passageOffset(passage))];
+    }
+
+    public String displayName(int passage) {
+        return displayNames[buffer.getInt(passageOffset(passage))];
+    }
+
+    public String categoria(int passage) {
+        return categorias[buffer.getInt(passageOffset(passage))];
+    }
+
+    public String text(int passage) {
+        int offset = passageOffset(passage);
+        byte[] bytes = new byte[buffer.getInt(offset + 12)];
+        buffer.get((int) (textOffset + buffer.getLong(offset + 4)), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public List<Document> documents(Set<String> excludedKeys) {
+        List<List<String>> passagesByDocument = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            passagesByDocument.add(new ArrayList<>());
+        }
+        for (int passage = 0; passage < passageCount; passage++) {
+            passagesByDocument.get(buffer.getInt(passageOffset(passage))).add(text(passage));
+        }
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (!excludedKeys.contains(keys[i])) {
+                documents.add(new Document(keys[i], displayNames[i], categorias[i], passagesByDocument.get(i)));
+            }
+        }
+        return documents;
+    }
+
+    private int passageOffset(int passage) {
+        return (int) (passagesOffset + (long) passage * PASSAGE_ENTRY_BYTES);
+    }
+
+    private int findTerm(String term) {
+        byte[] target = term.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareTerm(mid, target);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareTerm(int entry, byte[] target) {
+        int entryOffset = (int) (termsOffset + (long) entry * TERM_ENTRY_BYTES);
+        int start = (int) termBytesOffset + buffer.getInt(entryOffset);
+        int length = buffer.getInt(entryOffset + 4);
+        int common = Math.min(length, target.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(start + i) & 0xff, target[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, target.length);
+    }
+
+    private static long stringBytes(String value) {
+        return 4 + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package com.soften.support.gemini_resumo.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+final class LabelTrie<E extends Enum<E>> {
+
+    private static final class Node<E> {
+        private final Map<Character, Node<E>> children = new HashMap<>();
+        private E value;
+    }
+
+    private final Node<E> root = new Node<>();
+
+    LabelTrie(E[] values, Function<E, String> label) {
+        for (E value : values) {
+            Node<E> node = root;
+            String key = label.apply(value);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(fold(key.charAt(i)), c -> new Node<>());
+            }
+            if (node.value == null || value.ordinal() < node.value.ordinal()) {
+                node.value = value;
+            }
+        }
+    }
+
+    E find(String text, int start, int end) {
+        E best = null;
+        for (int i = start; i < end; i++) {
+            Node<E> node = root;
+            for (int j = i; j < end; j++) {
+                node = node.children.get(fold(text.charAt(j)));
+                if (node == null) {
+                    break;
+                }
+                if (node.value != null && (best == null || node.value.ordinal() < best.ordinal())) {
+                    best = node.value;
+                    if (best.ordinal() == 0) {
+                        return best;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
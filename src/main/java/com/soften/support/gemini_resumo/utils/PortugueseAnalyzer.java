@@ -0,0 +1,98 @@
+package com.soften.support.gemini_resumo.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class PortugueseAnalyzer {
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "um", "uma", "uns", "umas", "de", "do", "da", "dos", "das", "no", "na", "nos",
+            "nas", "em", "por", "para", "pra", "com", "sem", "sob", "e", "ou", "que", "se", "ao", "aos", "pelo",
+            "pela", "pelos", "pelas", "num", "numa", "este", "esta", "estes", "estas", "isso", "isto", "esse",
+            "essa", "esses", "essas", "aquele", "aquela", "aquilo", "ele", "ela", "eles", "elas", "eu", "voce",
+            "voces", "meu", "minha", "seu", "sua", "seus", "suas", "lhe", "como", "mais", "mas", "ja",
+            "foi", "ser", "ter", "tem", "sao", "estao", "era", "ha", "quando", "onde", "qual", "quais", "muito",
+            "tambem", "so", "ate", "entre", "apos", "sobre", "nem", "sim", "porque", "pois", "ainda",
+            "cada", "outro", "outra", "todo", "toda", "todos", "todas", "deve", "pode", "fazer", "faz");
+
+    public static List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String folded = fold(text);
+        StringBuilder token = new StringBuilder();
+        int length = folded.length();
+        for (int i = 0; i < length; i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (c == '-' && !token.isEmpty() && i + 1 < length
+                    && Character.isLetterOrDigit(folded.charAt(i + 1))) {
+                continue;
+            } else {
+                emit(token, tokens);
+            }
+        }
+        emit(token, tokens);
+        return tokens;
+    }
+
+    private static void emit(StringBuilder token, List<String> tokens) {
+        if (token.isEmpty()) {
+            return;
+        }
+        String term = token.toString();
+        token.setLength(0);
+        if (!STOPWORDS.contains(term)) {
+            tokens.add(stem(term));
+        }
+    }
+
+    private static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(Character.toLowerCase(c));
+            }
+        }
+        return folded.toString();
+    }
+
+    static String stem(String term) {
+        int length = term.length();
+        if (length <= 3 || Character.isDigit(term.charAt(length - 1))) {
+            return term;
+        }
+        if (length > 7 && term.endsWith("mente")) {
+            return term.substring(0, length - 5);
+        }
+        if (length > 4 && (term.endsWith("oes") || term.endsWith("aes"))) {
+            return term.substring(0, length - 3) + "ao";
+        }
+        if (length > 4 && term.endsWith("ais")) {
+            return term.substring(0, length - 3) + "al";
+        }
+        if (length > 4 && term.endsWith("eis")) {
+            return term.substring(0, length - 3) + "el";
+        }
+        if (length > 4 && term.endsWith("ois")) {
+            return term.substring(0, length - 3) + "ol";
+        }
+        if (term.endsWith("ns")) {
+            return term.substring(0, length - 2) + "m";
+        }
+        if (length > 5 && term.endsWith("res")) {
+            return term.substring(0, length - 2);
+        }
+        if (term.endsWith("s") && !term.endsWith("ss")) {
+            return term.substring(0, length - 1);
+        }
+        return term;
+    }
+}
@@ -0,0 +1,134 @@
+package com.soften.support.gemini_resumo.utils;
+
+import com.soften.support.gemini_resumo.models.dtos.FormatSummary;
+import com.soften.support.gemini_resumo.models.enums.MoodClient;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SummaryParser {
+
+    private static final int PROBLEM = 0;
+    private static final int SOLUTION = 1;
+    private static final int UPSELL = 2;
+    private static final int PRINTS = 3;
+    private static final int MOOD = 4;
+    private static final int MODULE = 5;
+
+    private static final String[] HEADERS = {
+            "PROBLEMA / DÚVIDA",
+            "SOLUÇÃO APRESENTADA",
+            "OPORTUNIDADE DE UPSELL",
+            "PRINTS DE ERRO OU DE MENSAGENS RELEVANTES",
+            "HUMOR DO CLIENTE",
+            "MÓDULO"
+    };
+
+    private static final Map<Integer, Integer> SECTIONS_BY_HASH = new HashMap<>();
+    private static final int MAX_HEADER_LENGTH;
+
+    static {
+        int longest = 0;
+        for (int section = 0; section < HEADERS.length; section++) {
+            SECTIONS_BY_HASH.put(HEADERS[section].hashCode(), section);
+            longest = Math.max(longest, HEADERS[section].length());
+        }
+        MAX_HEADER_LENGTH = longest;
+    }
+
+    private static final LabelTrie<MoodClient> MOODS = new LabelTrie<>(MoodClient.values(), MoodClient::getLabel);
+
+    public static FormatSummary parse(String summary) {
+        int[] starts = new int[HEADERS.length];
+        int[] ends = new int[HEADERS.length];
+        Arrays.fill(starts, -1);
+
+        if (summary != null) {
+            int current = -1;
+            int i = summary.indexOf("**");
+            while (i >= 0) {
+                int section = headerAt(summary, i);
+                if (section >= 0) {
+                    if (current >= 0) {
+                        ends[current] = i;
+                    }
+                    if (starts[section] < 0) {
+                        starts[section] = i + HEADERS[section].length() + 5;
+                        ends[section] = summary.length();
+                        current = section;
+                    } else {
+                        current = -1;
+                    }
+                    i = summary.indexOf("**", i + HEADERS[section].length() + 5);
+                } else {
+                    i = summary.indexOf("**", i + 2);
+                }
+            }
+        }
+
+        return new FormatSummary(
+                field(summary, starts[PROBLEM], ends[PROBLEM]),
+                field(summary, starts[SOLUTION], ends[SOLUTION]),
+                field(summary, starts[UPSELL], ends[UPSELL]),
+                startsWithSim(summary, starts[PRINTS], ends[PRINTS]),
+                mood(summary, starts[MOOD], ends[MOOD]),
+                starts[MODULE] < 0 ? ModuleMapper.map(null) : ModuleMapper.map(summary, starts[MODULE], ends[MODULE])
+        );
+    }
+
+    private static MoodClient mood(String text, int start, int end) {
+        if (start < 0) {
+            return MoodClient.GOOD;
+        }
+        MoodClient mood = MOODS.find(text, start, end);
+        return mood != null ? mood : MoodClient.GOOD;
+    }
+
+    private static int headerAt(String text, int markerIndex) {
+        int nameStart = markerIndex + 2;
+        int limit = Math.min(text.length() - 3, nameStart + MAX_HEADER_LENGTH);
+        int hash = 0;
+        for (int close = nameStart; close <= limit; close++) {
+            if (text.startsWith(":**", close)) {
+                Integer section = SECTIONS_BY_HASH.get(hash);
+                if (section == null || HEADERS[section].length() != close - nameStart
+                        || !text.startsWith(HEADERS[section], nameStart)) {
+                    return -1;
+                }
+                return section;
+            }
+            hash = 31 * hash + text.charAt(close);
+        }
+        return -1;
+    }
+
+    private static String field(String text, int start, int end) {
+        if (start < 0) {
+            return "";
+        }
+        return text.substring(trimStart(text, start, end), trimEnd(text, start, end));
+    }
+
+    private static boolean startsWithSim(String text, int start, int end) {
+        if (start < 0) {
+            return false;
+        }
+        int from = trimStart(text, start, end);
+        return trimEnd(text, start, end) - from >= 3 && text.regionMatches(true, from, "sim", 0, 3);
+    }
+
+    private static int trimStart(String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(String text, int start, int end) {
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
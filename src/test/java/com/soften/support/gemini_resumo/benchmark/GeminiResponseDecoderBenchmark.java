@@ -0,0 +1,107 @@
+package com.soften.support.gemini_resumo.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soften.support.gemini_resumo.client.GeminiResponse;
+import com.soften.support.gemini_resumo.client.GeminiResponseDecoder;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeminiResponseDecoderBenchmark {
+
+    private static final String SUMMARY = """
+            **PROBLEMA / DÚVIDA:** O cliente tentou emitir a NF-e e enfrentou rejeição 539 por duplicidade, impedindo o faturamento do pedido.
+
+            **SOLUÇÃO APRESENTADA:** Acessei o sistema do cliente, consultei o status da número doc: 1523 na SEFAZ e verifiquei que a nota já estava autorizada. Baixei o XML, atualizei o status no sistema e orientei o cliente a reimprimir o DANFE.
+
+            **OPORTUNIDADE DE UPSELL:** NÃO. O cliente não deu abertura e não havia contexto para oferta.
+
+            **PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:** Sim
+
+            **HUMOR DO CLIENTE:** NEUTRO.
+
+            **MÓDULO:** NF-E (NOTA FISCAL ELETRÔNICA)
+            """;
+
+    private String response;
+    private ObjectMapper sharedMapper;
+    private GeminiResponseDecoder decoder;
+
+    @Setup
+    public void setup() {
+        JSONObject groundingChunks = new JSONObject();
+        for (int i = 0; i < 5; i++) {
+            groundingChunks.put("chunk" + i, new JSONObject()
+                    .put("retrievedContext", new JSONObject()
+                            .put("title", "manual_nfe_" + i + ".pdf")
+                            .put("text", "Trecho do manual sobre rejeições da SEFAZ e consulta de status da nota " + i)));
+        }
+
+        response = new JSONObject()
+                .put("candidates", new JSONArray().put(new JSONObject()
+                        .put("content", new JSONObject()
+                                .put("role", "model")
+                                .put("parts", new JSONArray().put(new JSONObject().put("text", SUMMARY))))
+                        .put("finishReason", "STOP")
+                        .put("avgLogprobs", -0.21)
+                        .put("groundingMetadata", groundingChunks)))
+                .put("usageMetadata", new JSONObject()
+                        .put("promptTokenCount", 2874)
+                        .put("cachedContentTokenCount", 1630)
+                        .put("candidatesTokenCount", 212)
+                        .put("totalTokenCount", 3086))
+                .put("modelVersion", "gemini-2.5-flash-lite")
+                .put("responseId", "b3JpZ2luYWwtcmVzcG9uc2UtaWQ")
+                .toString();
+
+        sharedMapper = new ObjectMapper();
+        decoder = new GeminiResponseDecoder(sharedMapper);
+    }
+
+    @Benchmark
+    public String orgJsonDom() {
+        JSONObject json = new JSONObject(response);
+        String finishReason = json.getJSONArray("candidates").getJSONObject(0).optString("finishReason", null);
+        String text = json.getJSONArray("candidates").getJSONObject(0).getJSONObject("content")
+                .getJSONArray("parts").getJSONObject(0).getString("text");
+        return finishReason + text;
+    }
+
+    @Benchmark
+    public String jacksonTreeNewMapper() throws IOException {
+        JsonNode node = new ObjectMapper().readTree(response);
+        return node.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText();
+    }
+
+    @Benchmark
+    public String jacksonTreeSharedMapper() throws IOException {
+        JsonNode node = sharedMapper.readTree(response);
+        return node.path("candidates").get(0).path("content").path("parts").get(0).path("text").asText();
+    }
+
+    @Benchmark
+    public GeminiResponse streamingDecoder() throws IOException {
+        return decoder.decode(response);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GeminiResponseDecoderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
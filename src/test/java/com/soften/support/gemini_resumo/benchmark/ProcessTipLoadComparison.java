@@ -0,0 +1,173 @@
+package com.soften.support.gemini_resumo.benchmark;
+
+import com.soften.support.gemini_resumo.client.ConcurrencyLimiterRegistry;
+import com.soften.support.gemini_resumo.client.GeminiHttpClient;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.HttpEntity;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProcessTipLoadComparison {
+
+    private static final int GEMINI_DELAY_MS = Integer.getInteger("gemini.delay-ms", 100);
+    private static final int DB_WORK_MS = Integer.getInteger("db.work-ms", 2);
+    private static final int REQUESTS = Integer.getInteger("requests", 400);
+    private static final int HIKARI_POOL = Integer.getInteger("hikari.pool", 10);
+    private static final int TOMCAT_THREADS = Integer.getInteger("tomcat.threads", 200);
+    private static final int LIMITER_MAX_QUEUE = Integer.getInteger("limiter.max-queue", 2000);
+    private static final Duration LIMITER_MAX_WAIT = Duration.ofSeconds(Integer.getInteger("limiter.max-wait-s", 30));
+    private static final Duration HIKARI_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(GEMINI_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/generate";
+
+        System.out.printf("Gemini stub %dms, %d DB work per step, %d concurrent /processar-dica requests, Hikari pool %d%n",
+                GEMINI_DELAY_MS, DB_WORK_MS, REQUESTS, HIKARI_POOL);
+        System.out.printf("%-34s %10s %10s %10s %12s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "peak gemini", "errors");
+        try {
+            for (boolean virtual : new boolean[]{false, true}) {
+                for (boolean openInView : new boolean[]{true, false}) {
+                    run(url, virtual, openInView);
+                }
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void run(String url, boolean virtual, boolean openInView) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimiterRegistry limiters = new ConcurrencyLimiterRegistry(meterRegistry,
+                16, 2, 200, LIMITER_MAX_QUEUE, LIMITER_MAX_WAIT, 0.7, 2.0);
+        GeminiHttpClient client = new GeminiHttpClient(HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor()).build(), meterRegistry, limiters,
+                256, Duration.ofSeconds(10),
+                Duration.ofSeconds(60), Duration.ofSeconds(45), Duration.ofSeconds(15), Duration.ofMinutes(5),
+                Duration.ofSeconds(15),
+                3, Duration.ofMillis(500), Duration.ofSeconds(10),
+                false, 0.95, 20, 0.1);
+        Semaphore connections = new Semaphore(HIKARI_POOL, true);
+
+        AtomicInteger peak = new AtomicInteger();
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        Thread sampler = Thread.ofPlatform().start(() -> {
+            while (sampling.get()) {
+                peak.accumulateAndGet(client.getActiveRequests(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService tomcat = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            long submitted = System.nanoTime();
+            futures.add(tomcat.submit(() -> {
+                try {
+                    processTip(client, url, connections, openInView);
+                    latencies.add(System.nanoTime() - submitted);
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        tomcat.shutdown();
+        sampling.set(false);
+        sampler.join();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        String mode = (virtual ? "virtual threads" : "platform threads (" + TOMCAT_THREADS + ")")
+                + (openInView ? ", open-in-view" : ", no OSIV");
+        System.out.printf("%-34s %10.1f %10d %10d %12d %8d%n", mode,
+                sorted.size() / (elapsed / 1e9), millis(sorted, 0.50), millis(sorted, 0.99), peak.get(), errors.get());
+    }
+
+    private static void processTip(GeminiHttpClient client, String url, Semaphore connections, boolean openInView)
+            throws InterruptedException {
+        gemini(client, url);
+        if (openInView) {
+            if (!connections.tryAcquire(HIKARI_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Connection is not available, request timed out");
+            }
+            try {
+                Thread.sleep(DB_WORK_MS);
+                gemini(client, url);
+                Thread.sleep(DB_WORK_MS);
+                gemini(client, url);
+            } finally {
+                connections.release();
+            }
+        } else {
+            database(connections);
+            gemini(client, url);
+            database(connections);
+            gemini(client, url);
+        }
+    }
+
+    private static void gemini(GeminiHttpClient client, String url) {
+        client.post(GeminiHttpClient.Operation.GENERATE, url, new HttpEntity<>("{}"));
+    }
+
+    private static void database(Semaphore connections) throws InterruptedException {
+        if (!connections.tryAcquire(HIKARI_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Connection is not available, request timed out");
+        }
+        try {
+            Thread.sleep(DB_WORK_MS);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private static long millis(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, index)));
+    }
+}
@@ -0,0 +1,137 @@
+package com.soften.support.gemini_resumo.benchmark;
+
+import com.soften.support.gemini_resumo.models.dtos.FormatSummary;
+import com.soften.support.gemini_resumo.models.enums.ModulesCalled;
+import com.soften.support.gemini_resumo.models.enums.MoodClient;
+import com.soften.support.gemini_resumo.utils.SummaryParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SummaryParserBenchmark {
+
+    private static final String[] SUMMARIES = {
+            """
+            **PROBLEMA / DÚVIDA:** O cliente tentou emitir a NF-e e enfrentou rejeição 539 por duplicidade, impedindo o faturamento do pedido.
+
+            **SOLUÇÃO APRESENTADA:** Acessei o sistema do cliente, consultei o status da número doc: 1523 na SEFAZ e verifiquei que a nota já estava autorizada. Baixei o XML, atualizei o status no sistema e orientei o cliente a reimprimir o DANFE.
+
+            **OPORTUNIDADE DE UPSELL:** NÃO. O cliente não deu abertura e não havia contexto para oferta.
+
+            **PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:** Sim
+
+            **HUMOR DO CLIENTE:** NEUTRO.
+
+            **MÓDULO:** NF-E (NOTA FISCAL ELETRÔNICA)
+            """,
+            """
+            **PROBLEMA / DÚVIDA:** O cliente não conseguia inserir o valor de desconto no frente de caixa, impedindo a finalização da venda.
+
+            **SOLUÇÃO APRESENTADA:** Verifiquei as permissões do usuário e identifiquei que o perfil **Caixa** não tinha acesso a descontos. Ajustei a permissão, reiniciei o módulo e testei uma venda com o cliente, que foi concluída com sucesso.
+
+            **OPORTUNIDADE DE UPSELL:** SIM. O cliente perguntou sobre o módulo de restaurante; apresentei o plano e a venda ficou em andamento.
+
+            **PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:** Não
+
+            **HUMOR DO CLIENTE:** IRRITADO.
+
+            **MÓDULO:** FRENTE DE CAIXA
+            """,
+            """
+            **PROBLEMA / DÚVIDA:** O cliente apresentou uma dúvida sobre a geração de boletos registrados, sem conseguir enviar a remessa ao banco.
+
+            **SOLUÇÃO APRESENTADA:** Conferi a configuração da carteira, corrigi o convênio informado e gerei novamente o arquivo de remessa. O processo ficou pendente porque o cliente precisa validar o arquivo com o banco; agendei retorno para amanhã às 14h.
+
+            **OPORTUNIDADE DE UPSELL:** NÃO. Não havia necessidade.
+
+            **PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:** Não
+
+            **HUMOR DO CLIENTE:** BOM.
+
+            **MÓDULO:** BOLETOS
+            """
+    };
+
+    private int next;
+
+    @Benchmark
+    public FormatSummary singlePass() {
+        return SummaryParser.parse(SUMMARIES[next++ % SUMMARIES.length]);
+    }
+
+    @Benchmark
+    public FormatSummary regex() {
+        return parseWithRegex(SUMMARIES[next++ % SUMMARIES.length]);
+    }
+
+    public static FormatSummary parseWithRegex(String summaryComplete) {
+        String problem = extractField(summaryComplete, "\\*\\*PROBLEMA / DÚVIDA:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
+        String solution = extractField(summaryComplete, "\\*\\*SOLUÇÃO APRESENTADA:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
+        String upsell = extractField(summaryComplete, "\\*\\*OPORTUNIDADE DE UPSELL:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
+        String prints = extractField(summaryComplete, "\\*\\*PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
+        String humor = extractField(summaryComplete, "\\*\\*HUMOR DO CLIENTE:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
+        String module = extractField(summaryComplete, "\\*\\*MÓDULO:\\*\\*\\s*([\\s\\S]*?)(?=\\*\\*|$)");
+
+        return new FormatSummary(
+                problem.trim(),
+                solution.trim(),
+                upsell.trim(),
+                prints.trim().toLowerCase().startsWith("sim"),
+                mapMood(humor),
+                mapModule(module)
+        );
+    }
+
+    private static String extractField(String text, String regex) {
+        Pattern p = Pattern.compile(regex);
+        Matcher m = p.matcher(text);
+        if (m.find()) return m.group(1).trim();
+        return "";
+    }
+
+    private static MoodClient mapMood(String humor) {
+        String h = humor.toUpperCase();
+        if (h.contains("BOM")) return MoodClient.GOOD;
+        if (h.contains("NEUTRO")) return MoodClient.NEUTRAL;
+        if (h.contains("IRRITADO")) return MoodClient.IRRITATED;
+        return MoodClient.GOOD;
+    }
+
+    private static ModulesCalled mapModule(String module) {
+        String h = module.toUpperCase();
+        if (h.contains("NF-E (NOTA FISCAL ELETRÔNICA)")) return ModulesCalled.NFE;
+        if (h.contains("NFC-E (NOTA FISCAL DO CONSUMIDOR ELETRÔNICA)")) return ModulesCalled.NFCE;
+        if (h.contains("MDF-E")) return ModulesCalled.MDFE;
+        if (h.contains("CT-E")) return ModulesCalled.CTE;
+        if (h.contains("FRENTE DE CAIXA")) return ModulesCalled.FRENTE_DE_CAIXA;
+        if (h.contains("CERTIFICADO")) return ModulesCalled.CERTIFICADO;
+        if (h.contains("CONFIGURAÇÃO DE CONTA")) return ModulesCalled.CONFIGURACAO_DE_CONTA;
+        if (h.contains("COMERCIAL/VENDAS")) return ModulesCalled.COMERCIAL_VENDAS;
+        if (h.contains("ESTOQUE")) return ModulesCalled.ESTOQUE;
+        if (h.contains("FINANCEIRO")) return ModulesCalled.FINANCEIRO;
+        if (h.contains("BOLETOS")) return ModulesCalled.BOLETOS;
+        if (h.contains("MARKETPLACE / LOJA VIRTUAL")) return ModulesCalled.MARKETPLACE_LOJA_VIRTUAL;
+        if (h.contains("RESTAURANTE")) return ModulesCalled.RESTAURANTE;
+        if (h.contains("RELATÓRIO")) return ModulesCalled.RELATORIO;
+        return ModulesCalled.GENERIC;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SummaryParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,130 @@
+package com.soften.support.gemini_resumo.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void growsAdditivelyWhileSaturatedAndLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 100, Duration.ofMillis(50));
+
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < limiter.getLimit(); j++) {
+                limiter.acquire();
+            }
+            int inFlight = limiter.getInFlight();
+            for (int j = 0; j < inFlight; j++) {
+                limiter.onSuccess(1_000_000);
+            }
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void doesNotGrowWhileLatencyIsFarAboveAverage() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 100, Duration.ofMillis(50));
+        limiter.acquire();
+        limiter.onSuccess(1_000_000);
+
+        for (int j = 0; j < 4; j++) {
+            limiter.acquire();
+        }
+        for (int j = 0; j < 4; j++) {
+            limiter.onSuccess(10_000_000);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void backsOffMultiplicativelyOnDropsDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 100, Duration.ofMillis(50));
+
+        limiter.acquire();
+        limiter.onDropped();
+        assertThat(limiter.getLimit()).isEqualTo(14);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.onDropped();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void rejectsWhenNoSlotFreesUpWithinMaxWait() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 100, Duration.ofMillis(30));
+        limiter.acquire();
+        limiter.acquire();
+
+        assertThatThrownBy(limiter::acquire)
+                .isInstanceOf(GeminiRateLimitException.class)
+                .hasMessageContaining("generate");
+        assertThat(limiter.getQueued()).isZero();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 0, Duration.ofSeconds(5));
+        limiter.acquire();
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(limiter::acquire).isInstanceOf(GeminiRateLimitException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void everyQueuedCallerIsAdmittedAsSlotsAreReleased() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1000, Duration.ofSeconds(10));
+        AtomicInteger admitted = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                executor.submit(() -> {
+                    limiter.acquire();
+                    admitted.incrementAndGet();
+                    limiter.onIgnore();
+                });
+            }
+        }
+
+        assertThat(admitted).hasValue(200);
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getQueued()).isZero();
+    }
+
+    @Test
+    void registryKeepsAnIndependentLimiterPerModelOperation() {
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry(new SimpleMeterRegistry(),
+                20, 2, 100, 10, Duration.ofMillis(50), 0.5, 2.0);
+
+        AdaptiveConcurrencyLimiter fileSearch = registry.get(GeminiHttpClient.Operation.FILE_SEARCH);
+        for (int i = 0; i < 3; i++) {
+            fileSearch.acquire();
+            fileSearch.onDropped();
+        }
+
+        assertThat(fileSearch.getLimit()).isEqualTo(2);
+        assertThat(registry.get(GeminiHttpClient.Operation.EMBED).getLimit()).isEqualTo(20);
+        assertThat(registry.get(GeminiHttpClient.Operation.GENERATE).getLimit()).isEqualTo(20);
+        assertThat(registry.get(GeminiHttpClient.Operation.ADMIN)).isNull();
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxQueue, Duration maxWait) {
+        return new AdaptiveConcurrencyLimiter("generate", new SimpleMeterRegistry(), initialLimit, 2, 100,
+                maxQueue, maxWait, 0.7, 2.0);
+    }
+}
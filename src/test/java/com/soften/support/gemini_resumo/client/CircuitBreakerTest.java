@@ -0,0 +1,152 @@
+package com.soften.support.gemini_resumo.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnceTheFailureRateCrossesTheThresholdAfterMinCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 0.5, Duration.ofMinutes(1), 2);
+
+        succeed(breaker);
+        fail(breaker);
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThatThrownBy(() -> breaker.call(() -> "ok")).isInstanceOf(CircuitOpenException.class);
+    }
+
+    @Test
+    void halfOpenClosesAfterEnoughSuccessfulProbes() throws Exception {
+        CircuitBreaker breaker = openBreaker(Duration.ofMillis(20), 2);
+        Thread.sleep(30);
+
+        succeed(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopens() throws Exception {
+        CircuitBreaker breaker = openBreaker(Duration.ofMillis(20), 2);
+        Thread.sleep(30);
+
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void callAdmittedWhileClosedDoesNotConsumeHalfOpenProbeSlots() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 2, 0.5, Duration.ofMillis(20), 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slow = Thread.ofVirtual().start(() -> breaker.call(() -> {
+            started.countDown();
+            await(release);
+            return "late";
+        }));
+        started.await(1, TimeUnit.SECONDS);
+
+        fail(breaker);
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        Thread.sleep(30);
+
+        CountDownLatch probeStarted = new CountDownLatch(1);
+        CountDownLatch probeRelease = new CountDownLatch(1);
+        Thread probe = Thread.ofVirtual().start(() -> breaker.call(() -> {
+            probeStarted.countDown();
+            await(probeRelease);
+            return "probe";
+        }));
+        probeStarted.await(1, TimeUnit.SECONDS);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        release.countDown();
+        slow.join();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+
+        probeRelease.countDown();
+        probe.join();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void probeFromAnEarlierHalfOpenPeriodIsIgnored() throws Exception {
+        CircuitBreaker breaker = openBreaker(Duration.ofMillis(20), 2);
+        Thread.sleep(30);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread stale = Thread.ofVirtual().start(() -> breaker.call(() -> {
+            started.countDown();
+            await(release);
+            return "stale";
+        }));
+        started.await(1, TimeUnit.SECONDS);
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        Thread.sleep(30);
+
+        succeed(breaker);
+        release.countDown();
+        stale.join();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        succeed(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void errorDuringAProbeReleasesItsSlot() throws Exception {
+        CircuitBreaker breaker = openBreaker(Duration.ofMillis(20), 1);
+        Thread.sleep(30);
+
+        assertThatThrownBy(() -> breaker.call(() -> {
+            throw new AssertionError("erro");
+        })).isInstanceOf(AssertionError.class);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        Thread.sleep(30);
+        succeed(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static CircuitBreaker openBreaker(Duration openDuration, int halfOpenCalls) {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 2, 0.5, openDuration, halfOpenCalls);
+        fail(breaker);
+        fail(breaker);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void succeed(CircuitBreaker breaker) {
+        breaker.call(() -> "ok");
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        assertThatThrownBy(() -> breaker.call(() -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
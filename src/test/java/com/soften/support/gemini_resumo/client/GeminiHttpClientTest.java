@@ -0,0 +1,105 @@
+package com.soften.support.gemini_resumo.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeminiHttpClientTest {
+
+    private HttpServer server;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void retryAfterPrefersHeaderSeconds() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "12");
+        HttpClientErrorException e = HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "quota",
+                headers, "{\"retryDelay\": \"40s\"}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+
+        assertThat(GeminiHttpClient.retryAfter(e)).isEqualTo(Duration.ofSeconds(12));
+    }
+
+    @Test
+    void retryAfterFallsBackToRetryDelayInBodyAndThenToDefault() {
+        HttpClientErrorException withBody = HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "quota",
+                new HttpHeaders(), "{\"error\": {\"details\": [{\"retryDelay\": \"7.5s\"}]}}"
+                        .getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        HttpClientErrorException empty = HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "quota",
+                new HttpHeaders(), new byte[0], StandardCharsets.UTF_8);
+
+        assertThat(GeminiHttpClient.retryAfter(withBody)).isEqualTo(Duration.ofSeconds(7));
+        assertThat(GeminiHttpClient.retryAfter(empty)).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void losingHedgeIsCancelledAndReleasesItsPermits() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            if (requests.incrementAndGet() == 2) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/generate";
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimiterRegistry limiters = new ConcurrencyLimiterRegistry(meterRegistry,
+                16, 2, 200, 500, Duration.ofSeconds(5), 0.7, 2.0);
+        GeminiHttpClient client = new GeminiHttpClient(HttpClient.newHttpClient(), meterRegistry, limiters,
+                10, Duration.ofSeconds(5),
+                Duration.ofSeconds(30), Duration.ofSeconds(30), Duration.ofSeconds(30), Duration.ofSeconds(30),
+                Duration.ofSeconds(30),
+                1, Duration.ofMillis(100), Duration.ofSeconds(1),
+                true, 0.5, 1, 1.0);
+
+        client.post(GeminiHttpClient.Operation.GENERATE, url, new HttpEntity<>("{}"));
+        long start = System.nanoTime();
+        client.post(GeminiHttpClient.Operation.GENERATE, url, new HttpEntity<>("{}"));
+
+        assertThat(requests.get()).isEqualTo(3);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (client.getActiveRequests() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(client.getActiveRequests()).isZero();
+        assertThat(limiters.get(GeminiHttpClient.Operation.GENERATE).getInFlight()).isZero();
+        assertThat(limiters.get(GeminiHttpClient.Operation.GENERATE).getLimit()).isGreaterThanOrEqualTo(16);
+    }
+}
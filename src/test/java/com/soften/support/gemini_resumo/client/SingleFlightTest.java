@@ -0,0 +1,118 @@
+package com.soften.support.gemini_resumo.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String> flight = new SingleFlight<>("test", meterRegistry);
+
+    private <T> Future<T> follower(ExecutorService executor, CountDownLatch leaderStarted, Supplier<T> call)
+            throws InterruptedException {
+        leaderStarted.await(5, TimeUnit.SECONDS);
+        Future<T> future = executor.submit(call::get);
+        while (meterRegistry.get("gemini.singleflight").tag("role", "coalesced").counter().count() < 1) {
+            Thread.sleep(5);
+        }
+        return future;
+    }
+
+    @Test
+    void followersShareTheLeaderResult() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flight.execute("k", () -> {
+                calls.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "ok";
+            }));
+            Future<String> follower = follower(executor, leaderStarted,
+                    () -> flight.execute("k", () -> "nunca"));
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void followersReceiveTheLeaderRuntimeException() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("falhou");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> flight.execute("k", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw failure;
+            }));
+            Future<Throwable> follower = follower(executor, leaderStarted, () -> catchFrom("k"));
+            release.countDown();
+
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(failure);
+        }
+    }
+
+    @Test
+    void followersAreReleasedWhenTheLeaderThrowsAnError() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AssertionError failure = new AssertionError("erro");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> flight.execute("k", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw failure;
+            }));
+            Future<Throwable> follower = follower(executor, leaderStarted, () -> catchFrom("k"));
+            release.countDown();
+
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(failure);
+        }
+    }
+
+    @Test
+    void failedKeyIsRetriedByTheNextCaller() {
+        assertThatThrownBy(() -> flight.execute("k", () -> {
+            throw new IllegalStateException("falhou");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(flight.execute("k", () -> "ok")).isEqualTo("ok");
+    }
+
+    private Throwable catchFrom(String key) {
+        try {
+            flight.execute(key, () -> "nunca");
+            return null;
+        } catch (RuntimeException | Error e) {
+            return e;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
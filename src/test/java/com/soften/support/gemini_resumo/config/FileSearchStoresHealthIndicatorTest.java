@@ -0,0 +1,48 @@
+package com.soften.support.gemini_resumo.config;
+
+import com.soften.support.gemini_resumo.service.GoogleFileSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileSearchStoresHealthIndicatorTest {
+
+    private final GoogleFileSearchService fileSearchService = mock(GoogleFileSearchService.class);
+    private final FileSearchStoresHealthIndicator indicator = new FileSearchStoresHealthIndicator(fileSearchService);
+
+    @Test
+    void outOfServiceUntilBothStoresAreKnown() {
+        when(fileSearchService.storesAvailable()).thenReturn(false);
+        when(fileSearchService.getManualsStoreId()).thenReturn("fileSearchStores/manuals");
+
+        Health health = indicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails())
+                .containsEntry("classificationStore", "null")
+                .containsEntry("manualsStore", "fileSearchStores/manuals")
+                .containsEntry("validatedAt", "pendente");
+    }
+
+    @Test
+    void upWithCachedStoresEvenBeforeTheFirstValidation() {
+        when(fileSearchService.storesAvailable()).thenReturn(true);
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void reportsWhenTheStoresWereLastValidated() {
+        Instant validatedAt = Instant.parse("2026-10-18T12:00:00Z");
+        when(fileSearchService.storesAvailable()).thenReturn(true);
+        when(fileSearchService.getStoresValidatedAt()).thenReturn(validatedAt);
+
+        assertThat(indicator.health().getDetails()).containsEntry("validatedAt", "2026-10-18T12:00:00Z");
+    }
+}
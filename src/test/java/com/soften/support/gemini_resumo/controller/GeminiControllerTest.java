@@ -0,0 +1,110 @@
+package com.soften.support.gemini_resumo.controller;
+
+import com.soften.support.gemini_resumo.client.CircuitOpenException;
+import com.soften.support.gemini_resumo.client.GeminiApiException;
+import com.soften.support.gemini_resumo.client.GeminiRateLimitException;
+import com.soften.support.gemini_resumo.models.dtos.FormatSummary;
+import com.soften.support.gemini_resumo.models.dtos.PreprocessedTranscript;
+import com.soften.support.gemini_resumo.models.dtos.SummaryDto;
+import com.soften.support.gemini_resumo.service.BatchSummaryService;
+import com.soften.support.gemini_resumo.service.CalledService;
+import com.soften.support.gemini_resumo.service.SummaryService;
+import com.soften.support.gemini_resumo.service.TranscriptPreprocessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.Reader;
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GeminiControllerTest {
+
+    private final SummaryService summaryService = mock(SummaryService.class);
+    private final CalledService calledService = mock(CalledService.class);
+    private final TranscriptPreprocessor preprocessor = mock(TranscriptPreprocessor.class);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        GeminiController controller = new GeminiController(summaryService, calledService,
+                mock(BatchSummaryService.class), preprocessor, mock(AsyncTaskExecutor.class), Duration.ofSeconds(120));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        when(preprocessor.process(anyString())).thenReturn(new PreprocessedTranscript("chat", 4, 0, 0, 0));
+    }
+
+    private ResultActions postJson(String body) throws Exception {
+        return mockMvc.perform(post("/api/gemini/resumir").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    @Test
+    void rateLimitNeverAdvertisesAZeroRetryAfter() throws Exception {
+        when(summaryService.createDtoSummary(any(PreprocessedTranscript.class)))
+                .thenThrow(new GeminiRateLimitException("Limite atingido", Duration.ZERO));
+
+        postJson("{\"texto\":\"chat\"}")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.erro").value("Limite atingido"));
+    }
+
+    @Test
+    void openCircuitMapsToServiceUnavailable() throws Exception {
+        when(summaryService.createDtoSummary(any(PreprocessedTranscript.class)))
+                .thenThrow(new CircuitOpenException("summary", Duration.ofSeconds(12)));
+
+        postJson("{\"texto\":\"chat\"}")
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "12"));
+    }
+
+    @Test
+    void upstreamFailuresMapToBadGateway() throws Exception {
+        when(summaryService.createDtoSummary(any(PreprocessedTranscript.class)))
+                .thenThrow(new GeminiApiException("Erro ao chamar a API Gemini: timeout",
+                        new ResourceAccessException("timeout")));
+
+        postJson("{\"texto\":\"chat\"}").andExpect(status().isBadGateway());
+    }
+
+    @Test
+    void databaseFailureWhileSavingIsAnInternalError() throws Exception {
+        FormatSummary format = new FormatSummary("problema", "solução", null, false, null, null);
+        when(summaryService.createDtoSummary(any(PreprocessedTranscript.class)))
+                .thenReturn(new SummaryDto("resumo", null, "problema", "solução", format));
+        when(calledService.SaveCall(format)).thenThrow(new DataAccessResourceFailureException("sem conexão"));
+
+        postJson("{\"texto\":\"chat\"}").andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void plainTextEndpointSharesTheSameMapping() throws Exception {
+        when(preprocessor.process(any(Reader.class))).thenReturn(new PreprocessedTranscript("chat", 4, 0, 0, 0));
+        when(summaryService.createDtoSummary(any(PreprocessedTranscript.class)))
+                .thenThrow(new GeminiRateLimitException("Limite atingido", Duration.ofSeconds(7)));
+
+        mockMvc.perform(post("/api/gemini/resumir").contentType(MediaType.TEXT_PLAIN).content("chat"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "7"));
+    }
+
+    @Test
+    void malformedJsonIsStillABadRequest() throws Exception {
+        postJson("{texto").andExpect(status().isBadRequest());
+    }
+}
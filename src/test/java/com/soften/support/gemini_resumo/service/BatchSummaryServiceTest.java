@@ -0,0 +1,118 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.dtos.BatchSummaryItemDto;
+import com.soften.support.gemini_resumo.models.dtos.BatchSummaryResponseDto;
+import com.soften.support.gemini_resumo.models.dtos.FormatSummary;
+import com.soften.support.gemini_resumo.models.dtos.SummaryDto;
+import com.soften.support.gemini_resumo.models.entities.CalledEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchSummaryServiceTest {
+
+    private final SummaryService summaryService = mock(SummaryService.class);
+    private final CalledService calledService = mock(CalledService.class);
+
+    private BatchSummaryService service(int persistChunkSize) {
+        return new BatchSummaryService(summaryService, calledService, 32, 8, 1000, persistChunkSize);
+    }
+
+    private static SummaryDto summary(String text) {
+        FormatSummary format = new FormatSummary("problema " + text, "solução " + text, null, false, null, null);
+        return new SummaryDto("resumo " + text, null, format.problem(), format.solution(), format);
+    }
+
+    private void saveWithIds() {
+        when(calledService.SaveCalls(anyList())).thenAnswer(invocation -> {
+            List<FormatSummary> formats = invocation.getArgument(0);
+            return formats.stream().map(format -> {
+                CalledEntity entity = new CalledEntity();
+                entity.setId(UUID.randomUUID());
+                return entity;
+            }).toList();
+        });
+    }
+
+    @Test
+    void resultsKeepRequestOrderAndOneFailureDoesNotFailTheBatch() {
+        when(summaryService.createDtoSummary(anyString())).thenAnswer(invocation -> {
+            String text = invocation.getArgument(0);
+            if (text.equals("t2")) {
+                throw new RuntimeException("Gemini recusou o texto");
+            }
+            Thread.sleep(10L * (5 - Integer.parseInt(text.substring(1))));
+            return summary(text);
+        });
+        saveWithIds();
+
+        BatchSummaryResponseDto response = service(50).summarize(List.of("t0", "t1", "t2", "t3", "t4"), 5);
+
+        assertThat(response.total()).isEqualTo(5);
+        assertThat(response.sucesso()).isEqualTo(4);
+        assertThat(response.falhas()).isEqualTo(1);
+        assertThat(response.itens()).extracting(BatchSummaryItemDto::indice).containsExactly(0, 1, 2, 3, 4);
+        assertThat(response.itens()).extracting(BatchSummaryItemDto::summary)
+                .containsExactly("resumo t0", "resumo t1", null, "resumo t3", "resumo t4");
+        assertThat(response.itens().get(2).erro()).isEqualTo("Gemini recusou o texto");
+    }
+
+    @Test
+    void blankTextsAreRejectedWithoutCallingGemini() {
+        when(summaryService.createDtoSummary("t1")).thenReturn(summary("t1"));
+        saveWithIds();
+
+        BatchSummaryResponseDto response = service(50).summarize(List.of(" ", "t1"), null);
+
+        assertThat(response.itens()).extracting(BatchSummaryItemDto::status).containsExactly("ERRO", "OK");
+        assertThat(response.itens().get(0).erro()).isEqualTo("Texto vazio.");
+    }
+
+    @Test
+    void persistenceFailureOnlyAffectsItsChunk() {
+        when(summaryService.createDtoSummary(anyString())).thenAnswer(invocation -> summary(invocation.getArgument(0)));
+        AtomicInteger chunks = new AtomicInteger();
+        when(calledService.SaveCalls(anyList())).thenAnswer(invocation -> {
+            List<FormatSummary> formats = invocation.getArgument(0);
+            if (formats.getFirst().problem().equals("problema t2")) {
+                throw new RuntimeException("banco fora");
+            }
+            chunks.incrementAndGet();
+            return formats.stream().map(format -> new CalledEntity()).toList();
+        });
+
+        BatchSummaryResponseDto response = service(2).summarize(List.of("t0", "t1", "t2", "t3"), null);
+
+        assertThat(chunks).hasValue(1);
+        assertThat(response.itens()).extracting(BatchSummaryItemDto::status)
+                .containsExactly("OK", "OK", "ERRO", "ERRO");
+        assertThat(response.itens().get(3).erro()).startsWith("Resumo gerado, mas falhou ao salvar");
+    }
+
+    @Test
+    void requestedParallelismIsCappedByTheConfiguredMaximum() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(summaryService.createDtoSummary(anyString())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return summary(invocation.getArgument(0));
+        });
+        saveWithIds();
+
+        List<String> texts = IntStream.range(0, 24).mapToObj(i -> "t" + i).toList();
+        service(50).summarize(texts, 100);
+
+        assertThat(peak.get()).isLessThanOrEqualTo(8);
+    }
+}
@@ -0,0 +1,133 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.client.GeminiHttpClient;
+import com.soften.support.gemini_resumo.client.GeminiRateLimitException;
+import com.soften.support.gemini_resumo.models.entities.CalledEntity;
+import com.soften.support.gemini_resumo.repositorys.CalledRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CallEmbeddingServiceTest {
+
+    private static final int DIMENSIONS = 3;
+
+    private GeminiHttpClient httpClient;
+    private CalledRepository repository;
+    private CallEmbeddingService service;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = mock(GeminiHttpClient.class);
+        repository = mock(CalledRepository.class);
+        service = new CallEmbeddingService(httpClient, repository, mock(JdbcTemplate.class), new SimpleMeterRegistry(),
+                true, DIMENSIONS, 5, 0.35, 100, Duration.ofMinutes(5));
+        service.init();
+    }
+
+    @Test
+    void failedBatchFallsBackToSingleCallsAndMarksOnlyTheBadRow() {
+        CalledEntity ok = call("erro ao emitir nota");
+        CalledEntity bad = call("texto rejeitado");
+        CalledEntity other = call("impressora nao imprime");
+        when(httpClient.post(eq(GeminiHttpClient.Operation.EMBED), contains(":batchEmbedContents"), any()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "bad", null, null, null));
+        when(httpClient.post(eq(GeminiHttpClient.Operation.EMBED), contains(":embedContent"), any()))
+                .thenAnswer(invocation -> {
+                    HttpEntity<?> entity = invocation.getArgument(2);
+                    if (entity.getBody().toString().contains("rejeitado")) {
+                        throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "bad", null, null, null);
+                    }
+                    return embedding();
+                });
+
+        int done = service.embedNow(List.of(ok, bad, other));
+
+        assertThat(done).isEqualTo(2);
+        verify(repository).updateEmbedding(eq(ok.getId()), anyString());
+        verify(repository).updateEmbedding(eq(other.getId()), anyString());
+        verify(repository).markEmbeddingFailed(bad.getId());
+        verify(repository, times(1)).markEmbeddingFailed(any());
+    }
+
+    @Test
+    void transientFailureLeavesRowsUnmarkedForTheNextBackfill() {
+        when(httpClient.post(eq(GeminiHttpClient.Operation.EMBED), anyString(), any()))
+                .thenThrow(new GeminiRateLimitException("quota", Duration.ofSeconds(5)));
+
+        int done = service.embedNow(List.of(call("a"), call("b")));
+
+        assertThat(done).isZero();
+        verify(repository, never()).markEmbeddingFailed(any());
+    }
+
+    @Test
+    void backfillSkipsRowsThatKeepFailingAndStopsWhenNothingIsEmbedded() {
+        CalledEntity bad = call("texto rejeitado");
+        when(repository.claimWithoutEmbedding(anyInt(), any(), any(), anyInt())).thenReturn(List.of(bad));
+        when(httpClient.post(eq(GeminiHttpClient.Operation.EMBED), anyString(), any()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "bad", null, null, null));
+
+        service.backfill();
+
+        verify(repository, times(1)).claimWithoutEmbedding(eq(3), any(), any(), eq(100));
+        verify(repository).markEmbeddingFailed(bad.getId());
+    }
+
+    @Test
+    void backfillClaimsRowsForTheLeaseUntilNothingIsLeft() {
+        CalledEntity pending = call("erro ao emitir nota");
+        when(repository.claimWithoutEmbedding(anyInt(), any(), any(), anyInt()))
+                .thenReturn(List.of(pending), List.of());
+        when(httpClient.post(eq(GeminiHttpClient.Operation.EMBED), contains(":embedContent"), any()))
+                .thenReturn(ResponseEntity.ok("{\"embedding\": {\"values\": [0.1, 0.2, 0.3]}}"));
+
+        service.backfill();
+
+        ArgumentCaptor<Instant> now = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> claimedUntil = ArgumentCaptor.forClass(Instant.class);
+        verify(repository, times(2)).claimWithoutEmbedding(eq(3), now.capture(), claimedUntil.capture(), eq(100));
+        assertThat(Duration.between(now.getValue(), claimedUntil.getValue())).isEqualTo(Duration.ofMinutes(5));
+        verify(repository).updateEmbedding(pending.getId(), "[0.1,0.2,0.3]");
+    }
+
+    private static CalledEntity call(String problem) {
+        CalledEntity call = new CalledEntity();
+        call.setId(UUID.randomUUID());
+        call.setProblem(problem);
+        return call;
+    }
+
+    private static ResponseEntity<String> embedding() {
+        JSONArray values = new JSONArray();
+        for (int i = 0; i < DIMENSIONS; i++) {
+            values.put(0.1 * (i + 1));
+        }
+        return ResponseEntity.ok(new JSONObject().put("embedding", new JSONObject().put("values", values)).toString());
+    }
+}
@@ -0,0 +1,89 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.entities.CalledEntity;
+import com.soften.support.gemini_resumo.models.enums.ModulesCalled;
+import com.soften.support.gemini_resumo.repositorys.CalledRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CallTextSearchServiceTest {
+
+    private static final List<ModulesCalled> MODULES = List.of(ModulesCalled.GENERIC);
+
+    private final CalledRepository calledRepository = mock(CalledRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private CallTextSearchService service(boolean enabled) {
+        CallTextSearchService service = new CallTextSearchService(calledRepository, jdbcTemplate, enabled, 40);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void anyWordOfTheProblemMatches() {
+        assertThat(CallTextSearchService.anyWordQuery("Erro ao emitir NF-e: nota rejeitada (código 539)!"))
+                .isEqualTo("erro | ao | emitir | nf | e | nota | rejeitada | código | 539");
+    }
+
+    @Test
+    void tsqueryOperatorsInTheProblemAreNotPassedThrough() {
+        assertThat(CallTextSearchService.anyWordQuery("cliente & fornecedor | !estoque <-> 'preço':*"))
+                .isEqualTo("cliente | fornecedor | estoque | preço");
+        assertThat(CallTextSearchService.anyWordQuery("erro erro ERRO")).isEqualTo("erro");
+    }
+
+    @Test
+    void candidatesAreSearchedWithTheOrQuery() {
+        CalledEntity call = new CalledEntity();
+        when(calledRepository.findTextCandidates(List.of("GENERIC"), "erro | ao | emitir | nota", 40))
+                .thenReturn(List.of(call));
+
+        assertThat(service(true).findCandidates(MODULES, "Erro ao emitir nota")).contains(List.of(call));
+    }
+
+    @Test
+    void problemWithoutWordsFallsBackToTheRepository() {
+        assertThat(service(true).findCandidates(MODULES, " ?! ")).isEmpty();
+        verify(calledRepository, never()).findTextCandidates(any(), anyString(), anyInt());
+    }
+
+    @Test
+    void unavailableWhenTheSearchColumnCannotBeCreated() {
+        doThrow(new BadSqlGrammarException("ALTER TABLE", "ALTER TABLE called_entity",
+                new SQLException("function to_tsvector does not exist")))
+                .when(jdbcTemplate).execute(anyString());
+
+        assertThat(service(true).findCandidates(MODULES, "erro ao emitir nota")).isEmpty();
+        verifyNoInteractions(calledRepository);
+    }
+
+    @Test
+    void disabledSearchSkipsTheSchemaAndTheQuery() {
+        assertThat(service(false).findCandidates(MODULES, "erro ao emitir nota")).isEmpty();
+        verifyNoInteractions(jdbcTemplate, calledRepository);
+    }
+
+    @Test
+    void queryFailureFallsBackToTheRepository() {
+        when(calledRepository.findTextCandidates(any(), anyString(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("sem conexão"));
+
+        assertThat(service(true).findCandidates(MODULES, "erro ao emitir nota")).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.client.CircuitBreakerRegistry;
+import com.soften.support.gemini_resumo.client.CircuitOpenException;
+import com.soften.support.gemini_resumo.models.dtos.TipResponseDto;
+import com.soften.support.gemini_resumo.models.entities.CalledEntity;
+import com.soften.support.gemini_resumo.repositorys.CalledRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CalledServiceTest {
+
+    @Test
+    void degradedTipIsBuiltFromStoredSolutionsWhenSummaryCircuitIsOpen() {
+        SummaryService summaryService = mock(SummaryService.class);
+        CalledRepository repository = mock(CalledRepository.class);
+        SuggestionService suggestionService = new SuggestionService(null, mock(CircuitBreakerRegistry.class));
+        CalledService service = new CalledService(repository, summaryService, suggestionService,
+                mock(CircuitBreakerRegistry.class), mock(CallEmbeddingService.class),
+                mock(CallTextSearchService.class),
+                new TranscriptPreprocessor(new SimpleMeterRegistry(), true, List.of("automatico")));
+
+        String transcript = "Cliente relata rejeição por duplicidade ao emitir a nota fiscal eletrônica";
+        when(summaryService.createDtoSummary(transcript))
+                .thenThrow(new CircuitOpenException("summary", Duration.ofSeconds(12)));
+        when(repository.findByModulesCalledIn(any())).thenReturn(List.of(
+                call("Rejeição por duplicidade na nota fiscal", "Consultar a nota na SEFAZ e baixar o XML autorizado."),
+                call("Impressora não imprime", "Reinstalar o driver da impressora.")));
+
+        TipResponseDto tip = service.processFullTip(transcript);
+
+        assertThat(tip.status()).isEqualTo("DEGRADED");
+        assertThat(tip.SimilarTagsFound()).isEqualTo(2);
+        assertThat(tip.solutionsAnalyzed()).isEqualTo(1);
+        assertThat(tip.tips()).hasSize(2);
+        assertThat(tip.tips().get(0)).contains("Consultar a nota na SEFAZ");
+        assertThat(tip.tips().get(1)).contains("12s");
+    }
+
+    @Test
+    void degradedTipPrefersTextSearchCandidates() {
+        SummaryService summaryService = mock(SummaryService.class);
+        CalledRepository repository = mock(CalledRepository.class);
+        CallTextSearchService textSearch = mock(CallTextSearchService.class);
+        SuggestionService suggestionService = new SuggestionService(null, mock(CircuitBreakerRegistry.class));
+        CalledService service = new CalledService(repository, summaryService, suggestionService,
+                mock(CircuitBreakerRegistry.class), mock(CallEmbeddingService.class), textSearch,
+                new TranscriptPreprocessor(new SimpleMeterRegistry(), true, List.of("automatico")));
+
+        String transcript = "Cliente relata rejeição por duplicidade ao emitir a nota fiscal eletrônica";
+        when(summaryService.createDtoSummary(transcript))
+                .thenThrow(new CircuitOpenException("summary", Duration.ofSeconds(12)));
+        when(textSearch.findCandidates(any(), anyString())).thenReturn(Optional.of(List.of(
+                call("Rejeição por duplicidade na nota fiscal", "Consultar a nota na SEFAZ e baixar o XML autorizado."))));
+
+        TipResponseDto tip = service.processFullTip(transcript);
+
+        assertThat(tip.SimilarTagsFound()).isEqualTo(1);
+        assertThat(tip.tips().get(0)).contains("Consultar a nota na SEFAZ");
+        verify(repository, never()).findByModulesCalledIn(any());
+    }
+
+    private static CalledEntity call(String problem, String solution) {
+        CalledEntity call = new CalledEntity();
+        call.setId(UUID.randomUUID());
+        call.setProblem(problem);
+        call.setSolution(solution);
+        return call;
+    }
+}
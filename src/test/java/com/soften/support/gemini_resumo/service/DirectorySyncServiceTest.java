@@ -0,0 +1,233 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.dtos.BulkIngestItemDto;
+import com.soften.support.gemini_resumo.models.dtos.DirectorySyncResponseDto;
+import com.soften.support.gemini_resumo.models.entities.DocumentManifestEntity;
+import com.soften.support.gemini_resumo.models.enums.DocumentState;
+import com.soften.support.gemini_resumo.utils.Hashing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DirectorySyncServiceTest {
+
+    private static final String STORE = "fileSearchStores/manuais";
+
+    @TempDir
+    Path root;
+
+    private final GoogleFileSearchService fileSearchService = mock(GoogleFileSearchService.class);
+    private final DocumentManifestService manifest = mock(DocumentManifestService.class);
+    private final ManualsIndexService manualsIndex = mock(ManualsIndexService.class);
+    private DirectorySyncService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DirectorySyncService(fileSearchService, manifest, manualsIndex, root.toString(), false,
+                1000, 2);
+        when(fileSearchService.getManualsStoreId()).thenReturn(STORE);
+    }
+
+    private Path write(String relative, String content, Instant modifiedAt) throws Exception {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.from(modifiedAt));
+        return file;
+    }
+
+    private static DocumentManifestEntity synced(String path, String content, Instant modifiedAt) {
+        DocumentManifestEntity document = new DocumentManifestEntity(STORE, path, DocumentState.ACTIVE);
+        document.setId(UUID.randomUUID());
+        document.setDocumentName(STORE + "/documents/" + path.hashCode());
+        document.setSourcePath(path);
+        document.setSizeBytes(content.getBytes(StandardCharsets.UTF_8).length);
+        document.setSourceModifiedAt(modifiedAt);
+        document.setContentSha256(Hashing.sha256(content));
+        return document;
+    }
+
+    @Test
+    void unchangedSizeAndModificationTimeSkipsTheFile() throws Exception {
+        Instant modifiedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        write("Fiscal/NFe/manual.pdf", "conteúdo", modifiedAt);
+        when(manifest.sourced(STORE)).thenReturn(
+                Map.of("Fiscal/NFe/manual.pdf", synced("Fiscal/NFe/manual.pdf", "conteúdo", modifiedAt)));
+
+        DirectorySyncResponseDto result = service.syncManuals();
+
+        assertThat(result.inalterados()).isEqualTo(1);
+        assertThat(result.itens()).isEmpty();
+        verify(manifest, never()).attachSource(any(UUID.class), anyString(), any());
+        verify(fileSearchService, never()).uploadFileWithMetadataToManuals(anyString(), any(), anyLong(),
+                anyString(), any());
+    }
+
+    @Test
+    void touchedFileWithSameContentOnlyUpdatesTheSource() throws Exception {
+        Instant before = Instant.now().minus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        write("Fiscal/NFe/manual.pdf", "conteúdo", now);
+        DocumentManifestEntity previous = synced("Fiscal/NFe/manual.pdf", "conteúdo", before);
+        when(manifest.sourced(STORE)).thenReturn(Map.of("Fiscal/NFe/manual.pdf", previous));
+
+        DirectorySyncResponseDto result = service.syncManuals();
+
+        assertThat(result.inalterados()).isEqualTo(1);
+        verify(manifest).attachSource(previous.getId(), "Fiscal/NFe/manual.pdf", now);
+        verify(fileSearchService, never()).uploadFileWithMetadataToManuals(anyString(), any(), anyLong(),
+                anyString(), any());
+    }
+
+    @Test
+    void newFileIsUploadedWithFolderMetadataAndHiddenFilesAreIgnored() throws Exception {
+        Instant now = Instant.now();
+        write("Fiscal/NFe/manual.pdf", "conteúdo", now);
+        write(".rascunhos/manual.pdf", "rascunho", now);
+        write("Fiscal/.DS_Store", "lixo", now);
+        when(manifest.sourced(STORE)).thenReturn(Map.of());
+        when(fileSearchService.uploadFileWithMetadataToManuals(eq("manual.pdf"), any(), anyLong(), anyString(),
+                any())).thenReturn("operations/1");
+
+        DirectorySyncResponseDto result = service.syncManuals();
+
+        assertThat(result.total()).isEqualTo(1);
+        assertThat(result.enviados()).isEqualTo(1);
+        verify(fileSearchService).uploadFileWithMetadataToManuals(eq("manual.pdf"), any(), anyLong(),
+                eq("application/pdf"), eq(Map.of("categoria", "Fiscal", "modulo", "NFe")));
+        verify(manifest).attachSource(eq(STORE), eq(Hashing.sha256("conteúdo")), eq("Fiscal/NFe/manual.pdf"),
+                any(Instant.class));
+    }
+
+    @Test
+    void duplicateContentInsideTheDirectoryIsUploadedOnce() throws Exception {
+        Instant now = Instant.now();
+        write("Fiscal/a.pdf", "mesmo conteúdo", now);
+        write("Fiscal/b.pdf", "mesmo conteúdo", now);
+        when(manifest.sourced(STORE)).thenReturn(Map.of());
+        when(fileSearchService.uploadFileWithMetadataToManuals(anyString(), any(), anyLong(), anyString(), any()))
+                .thenReturn("operations/1");
+
+        DirectorySyncResponseDto result = service.syncManuals();
+
+        assertThat(result.enviados()).isEqualTo(1);
+        assertThat(result.ignorados()).isEqualTo(1);
+        assertThat(result.itens()).extracting(BulkIngestItemDto::arquivo, BulkIngestItemDto::status)
+                .containsExactly(tuple("Fiscal/a.pdf", "OK"),
+                        tuple("Fiscal/b.pdf", "IGNORADO"));
+    }
+
+    @Test
+    void fileDeletedLocallyIsRemovedFromTheStore() throws Exception {
+        Files.createDirectories(root);
+        DocumentManifestEntity previous = synced("Fiscal/antigo.pdf", "antigo", Instant.now());
+        when(manifest.sourced(STORE)).thenReturn(Map.of("Fiscal/antigo.pdf", previous));
+        when(fileSearchService.deleteFile(previous.getDocumentName())).thenReturn(true);
+
+        DirectorySyncResponseDto result = service.syncManuals();
+
+        assertThat(result.removidos()).isEqualTo(1);
+        verify(fileSearchService).deleteFile(previous.getDocumentName());
+    }
+
+    @Test
+    void changedFileReplacesAPendingPreviousVersionOnlyAfterTheUpload() throws Exception {
+        Instant before = Instant.now().minus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+        write("Fiscal/manual.pdf", "versão nova", Instant.now());
+        DocumentManifestEntity previous = synced("Fiscal/manual.pdf", "versão antiga", before);
+        previous.setDocumentName(null);
+        previous.setOperationName("operations/antiga");
+        when(manifest.sourced(STORE)).thenReturn(Map.of("Fiscal/manual.pdf", previous));
+        when(fileSearchService.uploadFileWithMetadataToManuals(anyString(), any(), anyLong(), anyString(), any()))
+                .thenReturn("operations/nova");
+
+        DirectorySyncResponseDto result = service.syncManuals();
+
+        assertThat(result.enviados()).isEqualTo(1);
+        InOrder order = inOrder(fileSearchService, manifest);
+        order.verify(fileSearchService).uploadFileWithMetadataToManuals(anyString(), any(), anyLong(), anyString(),
+                any());
+        order.verify(manifest).supersede(previous.getId());
+        order.verify(manifest).attachSource(eq(STORE), eq(Hashing.sha256("versão nova")), eq("Fiscal/manual.pdf"),
+                any(Instant.class));
+        verify(fileSearchService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void twinWithOtherMetadataIsKeptWhenTheReplacementUploadFails() throws Exception {
+        write("Fiscal/NFe/manual.pdf", "conteúdo", Instant.now());
+        DocumentManifestEntity twin = synced("Outros/manual.pdf", "conteúdo", Instant.now());
+        twin.setSourcePath(null);
+        when(manifest.sourced(STORE)).thenReturn(Map.of());
+        when(manifest.findByContent(STORE, Hashing.sha256("conteúdo"))).thenReturn(Optional.of(twin));
+        when(manifest.metadataOf(twin)).thenReturn(Map.of("categoria", "Outros"));
+        when(fileSearchService.uploadFileWithMetadataToManuals(anyString(), any(), anyLong(), anyString(), any()))
+                .thenThrow(new RuntimeException("quota"));
+
+        DirectorySyncResponseDto result = service.syncManuals();
+
+        assertThat(result.falhas()).isEqualTo(1);
+        verify(fileSearchService, never()).deleteFile(anyString());
+        verify(manifest, never()).supersede(any());
+    }
+
+    @Test
+    void twinWithOtherMetadataIsRemovedAfterTheReplacementUpload() throws Exception {
+        write("Fiscal/NFe/manual.pdf", "conteúdo", Instant.now());
+        DocumentManifestEntity twin = synced("Outros/manual.pdf", "conteúdo", Instant.now());
+        twin.setSourcePath(null);
+        when(manifest.sourced(STORE)).thenReturn(Map.of());
+        when(manifest.findByContent(STORE, Hashing.sha256("conteúdo"))).thenReturn(Optional.of(twin));
+        when(manifest.metadataOf(twin)).thenReturn(Map.of("categoria", "Outros"));
+        when(fileSearchService.uploadFileWithMetadataToManuals(anyString(), any(), anyLong(), anyString(), any()))
+                .thenReturn("operations/nova");
+        when(fileSearchService.deleteFile(twin.getDocumentName())).thenReturn(true);
+
+        service.syncManuals();
+
+        InOrder order = inOrder(fileSearchService, manifest);
+        order.verify(fileSearchService).uploadFileWithMetadataToManuals(anyString(), any(), anyLong(), anyString(),
+                any());
+        order.verify(fileSearchService).deleteFile(twin.getDocumentName());
+        order.verify(manifest).attachSource(eq(STORE), eq(Hashing.sha256("conteúdo")), eq("Fiscal/NFe/manual.pdf"),
+                any(Instant.class));
+    }
+
+    @Test
+    void pendingDocumentDeletedLocallyIsSupersededForThePoller() throws Exception {
+        Files.createDirectories(root);
+        DocumentManifestEntity pending = synced("Fiscal/antigo.pdf", "antigo", Instant.now());
+        pending.setDocumentName(null);
+        pending.setOperationName("operations/antiga");
+        when(manifest.sourced(STORE)).thenReturn(Map.of("Fiscal/antigo.pdf", pending));
+
+        DirectorySyncResponseDto result = service.syncManuals();
+
+        assertThat(result.removidos()).isEqualTo(1);
+        verify(manifest).supersede(pending.getId());
+        verify(fileSearchService, never()).deleteFile(anyString());
+    }
+}
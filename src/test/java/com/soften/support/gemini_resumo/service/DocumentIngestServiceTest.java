@@ -0,0 +1,126 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soften.support.gemini_resumo.models.dtos.BulkIngestItemDto;
+import com.soften.support.gemini_resumo.models.dtos.BulkIngestResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentIngestServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final Map<String, Map<String, String>> uploaded = new ConcurrentHashMap<>();
+    private GoogleFileSearchService fileSearch;
+
+    @BeforeEach
+    void setUp() {
+        fileSearch = mock(GoogleFileSearchService.class);
+        when(fileSearch.uploadFileWithMetadataToManuals(anyString(), any(), anyLong(), anyString(), any()))
+                .thenAnswer(invocation -> {
+                    String displayName = invocation.getArgument(0);
+                    uploaded.put(displayName, invocation.getArgument(4));
+                    return "documents/" + displayName;
+                });
+    }
+
+    @Test
+    void appliesManifestFoundInsideTheArchiveWhenNoneIsSupplied() throws IOException {
+        byte[] archive = zip(
+                "manifest.json", "{\"*\": {\"categoria\": \"FISCAL\"}, \"nfe.txt\": {\"modulo\": \"NFE\"}}",
+                "nfe.txt", "rejeição 539",
+                "boletos.txt", "remessa");
+
+        BulkIngestResponseDto response = service(10).ingest(new ByteArrayInputStream(archive), null, 2);
+
+        assertThat(response.sucesso()).isEqualTo(2);
+        assertThat(item(response, "manifest.json").erro()).isEqualTo("Manifesto do pacote aplicado aos arquivos.");
+        assertThat(uploaded.get("nfe.txt")).containsEntry("categoria", "FISCAL").containsEntry("modulo", "NFE");
+        assertThat(uploaded.get("boletos.txt")).containsExactlyEntriesOf(Map.of("categoria", "FISCAL"));
+    }
+
+    @Test
+    void reportsArchiveManifestAsIgnoredWhenOneIsSupplied() throws IOException {
+        byte[] archive = zip(
+                "manifest.json", "{\"*\": {\"categoria\": \"FISCAL\"}}",
+                "nfe.txt", "rejeição 539");
+
+        BulkIngestResponseDto response = service(10).ingest(new ByteArrayInputStream(archive),
+                Map.of("*", Map.of("categoria", "PDV")), 2);
+
+        assertThat(item(response, "manifest.json").status()).isEqualTo("IGNORADO");
+        assertThat(item(response, "manifest.json").erro()).contains("vale o manifesto enviado na requisição");
+        assertThat(uploaded.get("nfe.txt")).containsEntry("categoria", "PDV");
+    }
+
+    @Test
+    void warnsWhenTheArchiveManifestComesAfterSomeFiles() throws IOException {
+        byte[] archive = zip(
+                "antes.txt", "a",
+                "manifest.json", "{\"*\": {\"categoria\": \"FISCAL\"}}",
+                "depois.txt", "b");
+
+        BulkIngestResponseDto response = service(10).ingest(new ByteArrayInputStream(archive), null, 1);
+
+        assertThat(item(response, "manifest.json").erro()).contains("1 arquivo(s) anteriores");
+        assertThat(uploaded.get("antes.txt")).isEmpty();
+        assertThat(uploaded.get("depois.txt")).containsEntry("categoria", "FISCAL");
+    }
+
+    @Test
+    void skippedEntriesDoNotCountTowardsMaxEntries() throws IOException {
+        byte[] archive = zip(
+                "__MACOSX/._a.txt", "x",
+                ".DS_Store", "x",
+                "manifest.json", "{}",
+                "a.txt", "a",
+                "b.txt", "b",
+                "c.txt", "c");
+
+        BulkIngestResponseDto response = service(2).ingest(new ByteArrayInputStream(archive), null, 1);
+
+        assertThat(response.sucesso()).isEqualTo(2);
+        assertThat(uploaded.keySet()).containsExactlyInAnyOrder("a.txt", "b.txt");
+        assertThat(item(response, "c.txt").erro()).contains("Limite de 2 arquivos");
+        assertThat(item(response, "__MACOSX/._a.txt").erro()).isEqualTo("Arquivo oculto ou de sistema.");
+    }
+
+    private DocumentIngestService service(int maxEntries) {
+        return new DocumentIngestService(fileSearch, new ObjectMapper(), 1000, 4, maxEntries, spoolDir.toString());
+    }
+
+    private static BulkIngestItemDto item(BulkIngestResponseDto response, String path) {
+        return response.itens().stream().filter(item -> item.arquivo().equals(path)).findFirst().orElseThrow();
+    }
+
+    private static byte[] zip(String... nameAndContent) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < nameAndContent.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(nameAndContent[i]));
+                zip.write(nameAndContent[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
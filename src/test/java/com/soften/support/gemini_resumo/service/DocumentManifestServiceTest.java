@@ -0,0 +1,138 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soften.support.gemini_resumo.models.entities.DocumentManifestEntity;
+import com.soften.support.gemini_resumo.models.enums.DocumentState;
+import com.soften.support.gemini_resumo.repositorys.DocumentManifestRepository;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentManifestServiceTest {
+
+    private static final String STORE = "fileSearchStores/manuais";
+
+    private final DocumentManifestRepository repository = mock(DocumentManifestRepository.class);
+    private final DocumentManifestService service = new DocumentManifestService(repository, new ObjectMapper());
+
+    private static JSONObject remote(String name, String state, String sha256) {
+        JSONArray metadata = new JSONArray()
+                .put(new JSONObject().put("key", "modulo").put("stringValue", "FISCAL"));
+        if (sha256 != null) {
+            metadata.put(new JSONObject().put("key", DocumentManifestService.CONTENT_HASH_KEY)
+                    .put("stringValue", sha256));
+        }
+        return new JSONObject()
+                .put("name", name)
+                .put("displayName", name.substring(name.lastIndexOf('/') + 1) + ".pdf")
+                .put("state", state)
+                .put("mimeType", "application/pdf")
+                .put("sizeBytes", 1024)
+                .put("customMetadata", metadata);
+    }
+
+    @Test
+    void createsUnknownDocumentsAndRemovesTheOnesNotSeen() {
+        Instant syncStart = Instant.now();
+        when(repository.findByDocumentName(anyString())).thenReturn(Optional.empty());
+        when(repository.deleteMissing(STORE, syncStart)).thenReturn(2);
+
+        Map<String, Integer> result = service.reconcile(STORE,
+                List.of(remote(STORE + "/documents/nfe", "STATE_ACTIVE", "abc")), syncStart);
+
+        assertThat(result).containsEntry("remotos", 1).containsEntry("criados", 1)
+                .containsEntry("atualizados", 0).containsEntry("removidos", 2);
+
+        ArgumentCaptor<DocumentManifestEntity> saved = ArgumentCaptor.forClass(DocumentManifestEntity.class);
+        verify(repository).save(saved.capture());
+        DocumentManifestEntity document = saved.getValue();
+        assertThat(document.getDocumentName()).isEqualTo(STORE + "/documents/nfe");
+        assertThat(document.getDisplayName()).isEqualTo("nfe.pdf");
+        assertThat(document.getState()).isEqualTo(DocumentState.ACTIVE);
+        assertThat(document.getContentSha256()).isEqualTo("abc");
+        assertThat(document.getSyncedAt()).isEqualTo(syncStart);
+        assertThat(service.metadataOf(document)).containsExactly(Map.entry("modulo", "FISCAL"));
+    }
+
+    @Test
+    void pendingUploadIsMatchedByContentHash() {
+        Instant syncStart = Instant.now();
+        DocumentManifestEntity pending = new DocumentManifestEntity(STORE, "nfe.pdf", DocumentState.PENDING);
+        pending.setOperationName("operations/123");
+        when(repository.findByDocumentName(anyString())).thenReturn(Optional.empty());
+        when(repository.findFirstByStoreIdAndContentSha256AndDocumentNameIsNullAndSupersededAtIsNull(STORE, "abc"))
+                .thenReturn(Optional.of(pending));
+
+        Map<String, Integer> result = service.reconcile(STORE,
+                List.of(remote(STORE + "/documents/nfe", "STATE_ACTIVE", "abc")), syncStart);
+
+        assertThat(result).containsEntry("criados", 0).containsEntry("atualizados", 1);
+        verify(repository).save(pending);
+        assertThat(pending.getDocumentName()).isEqualTo(STORE + "/documents/nfe");
+        assertThat(pending.getOperationName()).isEqualTo("operations/123");
+        assertThat(pending.getState()).isEqualTo(DocumentState.ACTIVE);
+    }
+
+    @Test
+    void existingDocumentKeepsItsHashWhenRemoteHasNone() {
+        Instant syncStart = Instant.now();
+        DocumentManifestEntity existing = new DocumentManifestEntity(STORE, "nfe.pdf", DocumentState.ACTIVE);
+        existing.setDocumentName(STORE + "/documents/nfe");
+        existing.setContentSha256("abc");
+        when(repository.findByDocumentName(STORE + "/documents/nfe")).thenReturn(Optional.of(existing));
+        when(repository.findByDocumentName(STORE + "/documents/cte")).thenReturn(Optional.empty());
+
+        Map<String, Integer> result = service.reconcile(STORE, List.of(
+                remote(STORE + "/documents/nfe", "STATE_FAILED", null),
+                remote(STORE + "/documents/cte", "STATE_PENDING", null)), syncStart);
+
+        assertThat(result).containsEntry("criados", 1).containsEntry("atualizados", 1);
+        assertThat(existing.getContentSha256()).isEqualTo("abc");
+        assertThat(existing.getState()).isEqualTo(DocumentState.FAILED);
+        verify(repository, times(2)).save(any());
+        verify(repository).deleteMissing(STORE, syncStart);
+    }
+
+    @Test
+    void supersededPendingDocumentIsHandedBackForDeletionOnceIndexed() {
+        DocumentManifestEntity pending = new DocumentManifestEntity(STORE, "nfe.pdf", DocumentState.PENDING);
+        pending.setOperationName("operations/123");
+        pending.setSourcePath("Fiscal/nfe.pdf");
+        when(repository.findById(any())).thenReturn(Optional.of(pending));
+        when(repository.findByOperationName("operations/123")).thenReturn(Optional.of(pending));
+
+        service.supersede(UUID.randomUUID());
+        assertThat(pending.getSupersededAt()).isNotNull();
+        assertThat(pending.getSourcePath()).isNull();
+
+        assertThat(service.markIndexed("operations/123", STORE + "/documents/nfe"))
+                .contains(STORE + "/documents/nfe");
+        verify(repository).delete(pending);
+    }
+
+    @Test
+    void indexedDocumentThatIsNotSupersededStaysTracked() {
+        DocumentManifestEntity pending = new DocumentManifestEntity(STORE, "nfe.pdf", DocumentState.PENDING);
+        pending.setOperationName("operations/123");
+        when(repository.findByOperationName("operations/123")).thenReturn(Optional.of(pending));
+
+        assertThat(service.markIndexed("operations/123", STORE + "/documents/nfe")).isEmpty();
+        assertThat(pending.getDocumentName()).isEqualTo(STORE + "/documents/nfe");
+        assertThat(pending.getState()).isEqualTo(DocumentState.ACTIVE);
+    }
+}
@@ -0,0 +1,92 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.client.GeminiHttpClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeminiContextCacheServiceTest {
+
+    private static final String PREFIX = "prompt fixo do resumo com as regras de formatação. ".repeat(100);
+
+    private final GeminiHttpClient httpClient = mock(GeminiHttpClient.class);
+
+    private GeminiContextCacheService service(Duration rejectedBackoff) {
+        return new GeminiContextCacheService(httpClient, new SimpleMeterRegistry(), true,
+                Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofMinutes(10), rejectedBackoff, 1024);
+    }
+
+    private void rejectCreation() {
+        when(httpClient.post(eq(GeminiHttpClient.Operation.ADMIN), anyString(), any(HttpEntity.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null));
+    }
+
+    private void acceptCreation() {
+        when(httpClient.post(eq(GeminiHttpClient.Operation.ADMIN), anyString(), any(HttpEntity.class)))
+                .thenReturn(ResponseEntity.ok("{\"name\":\"cachedContents/abc\"}"));
+    }
+
+    @Test
+    void rejectedCreationIsRetriedOnceTheBackoffExpires() throws Exception {
+        GeminiContextCacheService cache = service(Duration.ofMillis(50));
+        rejectCreation();
+
+        assertThat(cache.resolve(PREFIX)).isEmpty();
+        assertThat(cache.resolve(PREFIX)).isEmpty();
+        verify(httpClient, times(1)).post(any(), anyString(), any(HttpEntity.class));
+
+        Thread.sleep(80);
+        assertThat(cache.resolve(PREFIX)).isEmpty();
+        verify(httpClient, times(2)).post(any(), anyString(), any(HttpEntity.class));
+    }
+
+    @Test
+    void rejectedCallSkipsTheCacheUntilTheBackoffExpires() {
+        GeminiContextCacheService cache = service(Duration.ofHours(6));
+        acceptCreation();
+
+        assertThat(cache.resolve(PREFIX)).contains("cachedContents/abc");
+
+        HttpClientErrorException badRequest = HttpClientErrorException.create(HttpStatus.BAD_REQUEST,
+                "Bad Request", null, null, null);
+        cache.invalidate(PREFIX);
+        cache.reject(PREFIX, badRequest);
+
+        assertThat(cache.resolve(PREFIX)).isEmpty();
+        verify(httpClient, times(1)).post(any(), anyString(), any(HttpEntity.class));
+    }
+
+    @Test
+    void onlyBadRequestBlocksTheCache() {
+        GeminiContextCacheService cache = service(Duration.ofHours(6));
+        acceptCreation();
+
+        cache.reject(PREFIX, HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        assertThat(cache.resolve(PREFIX)).contains("cachedContents/abc");
+    }
+
+    @Test
+    void prefixesBelowTheMinimumTokenCountAreNeverSentToTheCache() {
+        GeminiContextCacheService cache = service(Duration.ofHours(6));
+        acceptCreation();
+
+        assertThat(cache.resolve("instruções curtas de similaridade ".repeat(60))).isEmpty();
+        assertThat(cache.resolve(PREFIX)).contains("cachedContents/abc");
+        verify(httpClient, times(1)).post(any(), anyString(), any(HttpEntity.class));
+    }
+}
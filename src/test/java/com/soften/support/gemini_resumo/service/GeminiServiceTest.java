@@ -0,0 +1,44 @@
+package com.soften.support.gemini_resumo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class GeminiServiceTest {
+
+    @Test
+    void detachOnFailureStopsForwardingAfterClientDisconnects() {
+        List<String> received = new ArrayList<>();
+        Consumer<String> forward = GeminiService.detachOnFailure(chunk -> {
+            if (received.size() == 2) {
+                throw new IllegalStateException("Cliente desconectou durante o streaming");
+            }
+            received.add(chunk);
+        });
+
+        assertThatCode(() -> {
+            forward.accept("a");
+            forward.accept("b");
+            forward.accept("c");
+            forward.accept("d");
+        }).doesNotThrowAnyException();
+
+        assertThat(received).containsExactly("a", "b");
+    }
+
+    @Test
+    void detachOnFailureForwardsEveryChunkWhileClientIsConnected() {
+        List<String> received = new ArrayList<>();
+        Consumer<String> forward = GeminiService.detachOnFailure(received::add);
+
+        forward.accept("a");
+        forward.accept("b");
+
+        assertThat(received).containsExactly("a", "b");
+    }
+}
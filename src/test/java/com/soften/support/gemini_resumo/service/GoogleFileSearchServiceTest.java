@@ -0,0 +1,313 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.client.CircuitBreakerRegistry;
+import com.soften.support.gemini_resumo.client.GeminiHttpClient;
+import com.soften.support.gemini_resumo.client.GeminiResponseDecoder;
+import com.soften.support.gemini_resumo.models.dtos.StoreResetDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class GoogleFileSearchServiceTest {
+
+    private final GeminiHttpClient httpClient = mock(GeminiHttpClient.class);
+    private final DocumentManifestService manifest = mock(DocumentManifestService.class);
+    private final StoreIdCacheService storeIdCache = mock(StoreIdCacheService.class);
+    private final ManualsIndexService manualsIndex = mock(ManualsIndexService.class);
+
+    private static final String STORE = "fileSearchStores/manuals";
+    private static final String SESSION_URL = "https://upload.example/session-1";
+    private static final int CHUNK = 256 * 1024;
+
+    private GoogleFileSearchService service() {
+        return service(3);
+    }
+
+    private GoogleFileSearchService service(int chunkRetries) {
+        return new GoogleFileSearchService(httpClient, mock(CircuitBreakerRegistry.class), new SimpleMeterRegistry(),
+                mock(GeminiResponseDecoder.class), mock(UploadOperationService.class), manifest, storeIdCache,
+                manualsIndex, DataSize.ofKilobytes(256), DataSize.ofKilobytes(256), chunkRetries, 4, 1000);
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        return content;
+    }
+
+    private void startSession() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Goog-Upload-URL", SESSION_URL);
+        when(httpClient.post(eq(GeminiHttpClient.Operation.UPLOAD),
+                argThat(url -> url.contains(":uploadToFileSearchStore")), any(HttpEntity.class)))
+                .thenReturn(new ResponseEntity<>(null, headers, HttpStatus.OK));
+    }
+
+    private void answerQuery(String status, String received, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Goog-Upload-Status", status);
+        if (received != null) {
+            headers.set("X-Goog-Upload-Size-Received", received);
+        }
+        when(httpClient.post(eq(GeminiHttpClient.Operation.UPLOAD), eq(SESSION_URL), any(HttpEntity.class)))
+                .thenReturn(new ResponseEntity<>(body, headers, HttpStatus.OK));
+    }
+
+    private static MockClientHttpRequest send(InvocationOnMock invocation) throws Exception {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create(SESSION_URL));
+        RequestCallback callback = invocation.getArgument(3);
+        callback.doWithRequest(request);
+        return request;
+    }
+
+    private static Object reply(InvocationOnMock invocation, String body) throws Exception {
+        ResponseExtractor<?> extractor = invocation.getArgument(4);
+        return extractor.extractData(new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+    }
+
+    @Test
+    void resetSwitchesToTheNewStoresBeforeDeletingTheOldOnes() {
+        GoogleFileSearchService service = service();
+        when(httpClient.get(eq(GeminiHttpClient.Operation.ADMIN), argThat(url -> url.contains("/fileSearchStores?"))))
+                .thenReturn(ResponseEntity.ok("""
+                        {"fileSearchStores": [{"name": "fileSearchStores/old-manuals",
+                          "displayName": "ResumoChat_Manuals_v2", "activeDocumentsCount": "7",
+                          "pendingDocumentsCount": "1"}]}"""));
+        when(httpClient.get(eq(GeminiHttpClient.Operation.ADMIN), argThat(url -> url.contains("/files?"))))
+                .thenReturn(ResponseEntity.ok("{}"));
+        when(httpClient.post(eq(GeminiHttpClient.Operation.ADMIN), argThat(url -> url.contains("/fileSearchStores?")),
+                any(HttpEntity.class)))
+                .thenReturn(ResponseEntity.ok("{\"name\": \"fileSearchStores/new-classification\"}"),
+                        ResponseEntity.ok("{\"name\": \"fileSearchStores/new-manuals\"}"));
+
+        List<String> storesWhenDeleting = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        doAnswer(invocation -> {
+            deleted.add(invocation.getArgument(1));
+            storesWhenDeleting.add(service.getManualsStoreId());
+            return null;
+        }).when(httpClient).delete(eq(GeminiHttpClient.Operation.ADMIN), anyString());
+
+        StoreResetDto result = service.deleteStores();
+
+        assertThat(result.status()).isEqualTo("CONCLUIDO");
+        assertThat(deleted).singleElement().asString()
+                .contains("fileSearchStores/old-manuals?force=true");
+        assertThat(storesWhenDeleting).containsExactly("fileSearchStores/new-manuals");
+        assertThat(service.getClassificationStoreId()).isEqualTo("fileSearchStores/new-classification");
+        verify(storeIdCache).save("ResumoChat_Manuals_v2", "fileSearchStores/new-manuals");
+        verify(manifest).removeStore("fileSearchStores/old-manuals");
+        verify(manualsIndex).clear();
+    }
+
+    @Test
+    void resetKeepsTheOldStoresWhenTheNewOnesCannotBeCreated() {
+        GoogleFileSearchService service = service();
+        when(httpClient.get(eq(GeminiHttpClient.Operation.ADMIN), anyString()))
+                .thenReturn(ResponseEntity.ok("""
+                        {"fileSearchStores": [{"name": "fileSearchStores/old-manuals",
+                          "displayName": "ResumoChat_Manuals_v2"}]}"""));
+        when(httpClient.post(eq(GeminiHttpClient.Operation.ADMIN), anyString(), any(HttpEntity.class)))
+                .thenThrow(new RuntimeException("quota"));
+
+        StoreResetDto result = service.deleteStores();
+
+        assertThat(result.status()).isEqualTo("ERRO");
+        verify(httpClient, never()).delete(any(), anyString());
+    }
+
+    @Test
+    void resumableUploadResumesFromTheOffsetTheServerReportsAfterAMidChunkFailure() throws Exception {
+        GoogleFileSearchService service = service();
+        byte[] content = content(CHUNK * 2 + 1000);
+        startSession();
+        answerQuery("active", String.valueOf(CHUNK), null);
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        List<String> offsets = new ArrayList<>();
+        AtomicInteger calls = new AtomicInteger();
+        when(httpClient.execute(eq(GeminiHttpClient.Operation.UPLOAD), eq(SESSION_URL), eq(HttpMethod.POST), any(),
+                any())).thenAnswer(invocation -> {
+                    MockClientHttpRequest request = send(invocation);
+                    offsets.add(request.getHeaders().getFirst("X-Goog-Upload-Offset"));
+                    if (calls.incrementAndGet() == 2) {
+                        throw new ResourceAccessException("conexão caiu no meio do bloco");
+                    }
+                    received.write(request.getBodyAsBytes());
+                    boolean last = "upload, finalize".equals(request.getHeaders().getFirst("X-Goog-Upload-Command"));
+                    return reply(invocation, last ? "{\"name\": \"operations/op-1\", \"done\": false}" : "");
+                });
+
+        String result = service.uploadFileWithMetadata("manual.pdf", new ByteArrayResource(content), content.length,
+                "application/pdf", Map.of(), STORE);
+
+        assertThat(result).isEqualTo("operations/op-1");
+        assertThat(offsets).containsExactly("0", String.valueOf(CHUNK), String.valueOf(CHUNK),
+                String.valueOf(CHUNK * 2));
+        assertThat(received.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void resumableUploadFinishesWhenTheQueryReportsTheUploadAsFinal() throws Exception {
+        GoogleFileSearchService service = service();
+        byte[] content = content(CHUNK + 1000);
+        startSession();
+        answerQuery("final", null, "{\"name\": \"operations/op-2\", \"done\": false}");
+
+        AtomicInteger calls = new AtomicInteger();
+        when(httpClient.execute(eq(GeminiHttpClient.Operation.UPLOAD), eq(SESSION_URL), eq(HttpMethod.POST), any(),
+                any())).thenAnswer(invocation -> {
+                    send(invocation);
+                    if (calls.incrementAndGet() == 2) {
+                        throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+                    }
+                    return reply(invocation, "");
+                });
+
+        String result = service.uploadFileWithMetadata("manual.pdf", new ByteArrayResource(content), content.length,
+                "application/pdf", Map.of(), STORE);
+
+        assertThat(result).isEqualTo("operations/op-2");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void resumableUploadGivesUpAfterTheConfiguredRetries() {
+        GoogleFileSearchService service = service(1);
+        byte[] content = content(CHUNK + 1000);
+        startSession();
+        answerQuery("active", "0", null);
+
+        when(httpClient.execute(eq(GeminiHttpClient.Operation.UPLOAD), eq(SESSION_URL), eq(HttpMethod.POST), any(),
+                any())).thenAnswer(invocation -> {
+                    send(invocation);
+                    throw new ResourceAccessException("timeout");
+                });
+
+        assertThatThrownBy(() -> service.uploadFileWithMetadata("manual.pdf", new ByteArrayResource(content),
+                content.length, "application/pdf", Map.of(), STORE))
+                .hasMessageContaining("timeout");
+        verify(httpClient, times(2)).execute(any(), anyString(), any(), any(), any());
+        verify(manifest, never()).recordUpload(any(), any(), any(), anyLong(), any(), any(), any(), anyBoolean());
+    }
+
+    private void cachedStores(String classification, String manuals) {
+        when(storeIdCache.load("ResumoChat_Classification_v2")).thenReturn(Optional.ofNullable(classification));
+        when(storeIdCache.load("ResumoChat_Manuals_v2")).thenReturn(Optional.ofNullable(manuals));
+    }
+
+    private void remoteStores(String json) {
+        when(httpClient.get(eq(GeminiHttpClient.Operation.ADMIN), argThat(url -> url.contains("/fileSearchStores?"))))
+                .thenReturn(ResponseEntity.ok(json));
+    }
+
+    @Test
+    void startupServesCachedStoreIdsBeforeTheFirstValidation() {
+        cachedStores("fileSearchStores/classification", "fileSearchStores/manuals");
+        GoogleFileSearchService service = service();
+
+        service.init();
+
+        assertThat(service.storesAvailable()).isTrue();
+        assertThat(service.getClassificationStoreId()).isEqualTo("fileSearchStores/classification");
+        assertThat(service.getManualsStoreId()).isEqualTo("fileSearchStores/manuals");
+        assertThat(service.getStoresValidatedAt()).isNull();
+        verifyNoInteractions(httpClient);
+    }
+
+    @Test
+    void revalidationKeepsCachedIdsThatStillExist() {
+        cachedStores("fileSearchStores/classification", "fileSearchStores/manuals");
+        remoteStores("""
+                {"fileSearchStores": [{"name": "fileSearchStores/classification"},
+                  {"name": "fileSearchStores/manuals"}]}""");
+        GoogleFileSearchService service = service();
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        service.init();
+
+        service.revalidateStores();
+
+        assertThat(service.getManualsStoreId()).isEqualTo("fileSearchStores/manuals");
+        assertThat(service.getStoresValidatedAt()).isNotNull();
+        verify(storeIdCache).save("ResumoChat_Manuals_v2", "fileSearchStores/manuals");
+        verify(httpClient, never()).post(any(), anyString(), any(HttpEntity.class));
+    }
+
+    @Test
+    void revalidationFindsStoresByDisplayNameWhenTheCachedIdIsGone() {
+        cachedStores("fileSearchStores/classification", "fileSearchStores/deleted");
+        remoteStores("""
+                {"fileSearchStores": [{"name": "fileSearchStores/classification"},
+                  {"name": "fileSearchStores/manuals-2", "displayName": "ResumoChat_Manuals_v2"}]}""");
+        GoogleFileSearchService service = service();
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        service.init();
+
+        service.revalidateStores();
+
+        assertThat(service.getManualsStoreId()).isEqualTo("fileSearchStores/manuals-2");
+        verify(storeIdCache).save("ResumoChat_Manuals_v2", "fileSearchStores/manuals-2");
+    }
+
+    @Test
+    void revalidationIsDiscardedWhenTheStoresChangeMeanwhile() {
+        cachedStores("fileSearchStores/classification", "fileSearchStores/deleted");
+        GoogleFileSearchService service = service();
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        service.init();
+        when(httpClient.get(eq(GeminiHttpClient.Operation.ADMIN), argThat(url -> url.contains("/fileSearchStores?"))))
+                .thenAnswer(invocation -> {
+                    cachedStores("fileSearchStores/reset-classification", "fileSearchStores/reset-manuals");
+                    service.init();
+                    return ResponseEntity.ok("""
+                            {"fileSearchStores": [{"name": "fileSearchStores/classification"},
+                              {"name": "fileSearchStores/manuals-2", "displayName": "ResumoChat_Manuals_v2"}]}""");
+                });
+
+        service.revalidateStores();
+
+        assertThat(service.getManualsStoreId()).isEqualTo("fileSearchStores/reset-manuals");
+        assertThat(service.getStoresValidatedAt()).isNull();
+        verify(storeIdCache, never()).save(anyString(), anyString());
+    }
+}
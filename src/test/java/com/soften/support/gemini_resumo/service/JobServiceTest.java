@@ -0,0 +1,129 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.entities.JobEntity;
+import com.soften.support.gemini_resumo.models.enums.JobStatus;
+import com.soften.support.gemini_resumo.models.enums.JobType;
+import com.soften.support.gemini_resumo.repositorys.JobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobServiceTest {
+
+    private JobRepository repository;
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(JobRepository.class);
+        when(repository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        jobService = new JobService(repository, Duration.ofMinutes(10), 3, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void claimLeasesPendingJobsAndCountsTheAttempt() {
+        JobEntity job = job(JobStatus.PENDING, 0);
+        when(repository.findClaimable(any(), anyInt())).thenReturn(List.of(job));
+
+        List<JobEntity> claimed = jobService.claim("worker-1", 5);
+
+        assertThat(claimed).containsExactly(job);
+        assertThat(job.getStatus()).isEqualTo(JobStatus.RUNNING);
+        assertThat(job.getLockedBy()).isEqualTo("worker-1");
+        assertThat(job.getLockedUntil()).isAfter(Instant.now().plus(Duration.ofMinutes(9)));
+        assertThat(job.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void claimFailsExpiredLeasesThatAlreadyUsedEveryAttempt() {
+        JobEntity stuck = job(JobStatus.RUNNING, 3);
+        stuck.setLockedBy("worker-dead");
+        stuck.setLockedUntil(Instant.now().minusSeconds(1));
+        JobEntity retried = job(JobStatus.RUNNING, 2);
+        when(repository.findClaimable(any(), anyInt())).thenReturn(List.of(stuck, retried));
+
+        List<JobEntity> claimed = jobService.claim("worker-2", 5);
+
+        assertThat(claimed).containsExactly(retried);
+        assertThat(retried.getAttempts()).isEqualTo(3);
+        assertThat(stuck.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(stuck.getLockedBy()).isNull();
+        assertThat(stuck.getError()).contains("3 tentativas");
+    }
+
+    @Test
+    void failReschedulesWithBackoffUntilAttemptsRunOut() {
+        JobEntity job = job(JobStatus.RUNNING, 2);
+        job.setLockedBy("worker-1");
+        when(repository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        jobService.fail(job.getId(), "worker-1", "timeout");
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.PENDING);
+        assertThat(job.getRunAfter()).isAfter(Instant.now().plusSeconds(59));
+
+        job.setStatus(JobStatus.RUNNING);
+        job.setAttempts(3);
+        job.setLockedBy("worker-1");
+        jobService.fail(job.getId(), "worker-1", "timeout");
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(job.getError()).isEqualTo("timeout");
+    }
+
+    @Test
+    void completeIgnoresJobsLeasedByAnotherWorker() {
+        JobEntity job = job(JobStatus.RUNNING, 1);
+        job.setLockedBy("worker-2");
+        when(repository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        jobService.complete(job.getId(), "worker-1", "{}");
+
+        assertThat(job.getStatus()).isEqualTo(JobStatus.RUNNING);
+        assertThat(job.getResult()).isNull();
+    }
+
+    @Test
+    void renewLeasesExtendsTheLeaseOfRunningJobs() {
+        UUID id = UUID.randomUUID();
+        when(repository.renewLeases(eq(List.of(id)), eq("worker-1"), eq(JobStatus.RUNNING), any(), any()))
+                .thenReturn(1);
+
+        assertThat(jobService.renewLeases("worker-1", List.of(id))).isEqualTo(1);
+
+        ArgumentCaptor<Instant> lockedUntil = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).renewLeases(eq(List.of(id)), eq("worker-1"), eq(JobStatus.RUNNING),
+                lockedUntil.capture(), any());
+        assertThat(lockedUntil.getValue()).isAfter(Instant.now().plus(Duration.ofMinutes(9)));
+    }
+
+    @Test
+    void renewLeasesSkipsTheDatabaseWhenNothingIsRunning() {
+        assertThat(jobService.renewLeases("worker-1", List.of())).isZero();
+
+        verify(repository, never()).renewLeases(any(), any(), any(), any(), any());
+    }
+
+    private static JobEntity job(JobStatus status, int attempts) {
+        JobEntity job = new JobEntity(JobType.TIP, "texto");
+        job.setId(UUID.randomUUID());
+        job.setStatus(status);
+        job.setAttempts(attempts);
+        return job;
+    }
+}
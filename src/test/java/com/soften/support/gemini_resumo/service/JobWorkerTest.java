@@ -0,0 +1,72 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.soften.support.gemini_resumo.models.dtos.TipResponseDto;
+import com.soften.support.gemini_resumo.models.entities.JobEntity;
+import com.soften.support.gemini_resumo.models.enums.JobType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobWorkerTest {
+
+    private final JobService jobService = mock(JobService.class);
+    private final CalledService calledService = mock(CalledService.class);
+    private final JobWorker worker = new JobWorker(jobService, mock(SummaryService.class), calledService,
+            new ObjectMapper(), 4);
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void heartbeatRenewsTheLeaseOfJobsStillRunning() throws Exception {
+        JobEntity job = new JobEntity(JobType.TIP, "texto");
+        job.setId(UUID.randomUUID());
+        when(jobService.claim(anyString(), anyInt())).thenReturn(List.of(job));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(calledService.processFullTip("texto")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new TipResponseDto(null, "problema", "GENERIC", 0, 0, List.of(), "OK");
+        });
+
+        worker.poll();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        worker.heartbeat();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(jobService).renewLeases(anyString(), ids.capture());
+        assertThat(ids.getValue()).containsExactly(job.getId());
+
+        release.countDown();
+        verify(jobService, timeout(5000)).complete(eq(job.getId()), anyString(), anyString());
+    }
+
+    @Test
+    void heartbeatIsSkippedWhenIdle() {
+        worker.heartbeat();
+
+        verify(jobService, never()).renewLeases(anyString(), any());
+    }
+}
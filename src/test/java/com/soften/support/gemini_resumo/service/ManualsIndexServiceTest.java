@@ -0,0 +1,109 @@
+package com.soften.support.gemini_resumo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ManualsIndexServiceTest {
+
+    private static final String NFE = """
+            Rejeição 539: duplicidade de NF-e com diferença na chave de acesso.
+
+            Consulte a nota na SEFAZ, baixe o XML autorizado e atualize o status no sistema.
+            """;
+    private static final String PRINTER = """
+            Impressora fiscal não imprime o cupom.
+
+            Verifique o cabo USB, o driver da impressora e a porta configurada no frente de caixa.
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void ranksThePassageMatchingMoreQueryTermsFirst() {
+        ManualsIndexService index = index();
+        index.index("nfe", "nfe.txt", "FISCAL", text(NFE));
+        index.index("printer", "impressora.txt", "PDV", text(PRINTER));
+
+        List<ManualsIndexService.Hit> hits = index.search("rejeição duplicidade nota sefaz", null);
+
+        assertThat(hits).isNotEmpty();
+        assertThat(hits.get(0).documentKey()).isEqualTo("nfe");
+        assertThat(hits.get(0).coverage()).isEqualTo(1.0);
+        assertThat(hits).extracting(ManualsIndexService.Hit::documentKey).doesNotContain("printer");
+    }
+
+    @Test
+    void filtersByCategoria() {
+        ManualsIndexService index = index();
+        index.index("nfe", "nfe.txt", "FISCAL", text(NFE));
+
+        assertThat(index.search("duplicidade sefaz", "PDV")).isEmpty();
+        assertThat(index.search("duplicidade sefaz", "fiscal")).hasSize(1);
+    }
+
+    @Test
+    void removedDocumentStaysTombstonedAcrossReloads() {
+        ManualsIndexService index = index();
+        index.index("nfe", "nfe.txt", "FISCAL", text(NFE));
+        index.index("printer", "impressora.txt", "PDV", text(PRINTER));
+        index.remove("nfe");
+
+        assertThat(index.contains("nfe")).isFalse();
+        assertThat(index.search("duplicidade sefaz", null)).isEmpty();
+
+        ManualsIndexService reloaded = index();
+        assertThat(reloaded.contains("nfe")).isFalse();
+        assertThat(reloaded.contains("printer")).isTrue();
+        assertThat(reloaded.search("duplicidade sefaz", null)).isEmpty();
+    }
+
+    @Test
+    void reindexingATombstonedKeyBringsItBack() {
+        ManualsIndexService index = index();
+        index.index("nfe", "nfe.txt", "FISCAL", text(NFE));
+        index.remove("nfe");
+        index.index("nfe", "nfe.txt", "FISCAL", text(NFE));
+
+        assertThat(index.contains("nfe")).isTrue();
+        assertThat(index.search("duplicidade sefaz", null)).hasSize(1);
+    }
+
+    @Test
+    void confidentSearchWaitsForTheManifestAndHidesKeysItDoesNotList() {
+        ManualsIndexService index = index();
+        index.index("nfe", "nfe.txt", "FISCAL", text(NFE));
+        index.index("printer", "impressora.txt", "PDV", text(PRINTER));
+
+        assertThat(index.searchConfident("rejeição duplicidade sefaz", null)).isEmpty();
+
+        index.markInSync(Set.of("nfe", "printer"));
+        assertThat(index.searchConfident("rejeição duplicidade sefaz", null)).isPresent();
+
+        assertThat(index.retainOnly(Set.of("printer"))).isEqualTo(1);
+        index.markInSync(Set.of("printer"));
+        assertThat(index.contains("nfe")).isFalse();
+        assertThat(index.searchConfident("rejeição duplicidade sefaz", null)).isEmpty();
+        assertThat(index.searchConfident("impressora cupom driver", null)).isPresent();
+    }
+
+    private ManualsIndexService index() {
+        ManualsIndexService index = new ManualsIndexService(new SimpleMeterRegistry(), true, directory.toString(),
+                10, 1200, 10_485_760, 1.2, 0.75, 0.8, 0.5, 0.5, 3);
+        index.load();
+        return index;
+    }
+
+    private static ByteArrayResource text(String content) {
+        return new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
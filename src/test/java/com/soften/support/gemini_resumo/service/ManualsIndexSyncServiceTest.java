@@ -0,0 +1,66 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.entities.DocumentManifestEntity;
+import com.soften.support.gemini_resumo.models.enums.DocumentState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ManualsIndexSyncServiceTest {
+
+    @TempDir
+    Path indexDir;
+
+    @TempDir
+    Path manualsDir;
+
+    @Test
+    void coldStartRebuildsFromTheManifestAndDropsDocumentsItNoLongerLists() throws Exception {
+        Files.writeString(manualsDir.resolve("nfe.txt"), "Rejeição 539 por duplicidade de NF-e na SEFAZ.",
+                StandardCharsets.UTF_8);
+        ManualsIndexService index = new ManualsIndexService(new SimpleMeterRegistry(), true, indexDir.toString(),
+                10, 1200, 10_485_760, 1.2, 0.75, 0.8, 0.5, 0.5, 3);
+        index.load();
+        index.index("stale", "antigo.txt", null,
+                new ByteArrayResource("Rejeição antiga removida em outra instância.".getBytes(StandardCharsets.UTF_8)));
+
+        DocumentManifestService manifest = mock(DocumentManifestService.class);
+        GoogleFileSearchService fileSearch = mock(GoogleFileSearchService.class);
+        when(fileSearch.getManualsStoreId()).thenReturn("fileSearchStores/manuais");
+        when(manifest.live("fileSearchStores/manuais")).thenReturn(List.of(document("nfe-hash", "nfe.txt")));
+        when(manifest.metadataOf(any())).thenReturn(Map.of("categoria", "FISCAL"));
+        ManualsIndexSyncService sync = new ManualsIndexSyncService(index, manifest, fileSearch, true,
+                manualsDir.toString());
+
+        assertThat(index.isInSync()).isFalse();
+        Map<String, Integer> result = sync.sync();
+
+        assertThat(result).containsEntry("removed", 1).containsEntry("rebuilt", 1);
+        assertThat(index.isInSync()).isTrue();
+        assertThat(index.contains("stale")).isFalse();
+        assertThat(index.searchConfident("rejeição duplicidade sefaz", null))
+                .hasValueSatisfying(hits -> assertThat(hits.get(0).documentKey()).isEqualTo("nfe-hash"));
+    }
+
+    private static DocumentManifestEntity document(String contentSha256, String sourcePath) {
+        DocumentManifestEntity document = new DocumentManifestEntity();
+        document.setContentSha256(contentSha256);
+        document.setDisplayName(sourcePath);
+        document.setMimeType("text/plain");
+        document.setSourcePath(sourcePath);
+        document.setState(DocumentState.ACTIVE);
+        return document;
+    }
+}
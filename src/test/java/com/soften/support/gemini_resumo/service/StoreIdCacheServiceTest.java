@@ -0,0 +1,78 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.entities.StoreCacheEntity;
+import com.soften.support.gemini_resumo.repositorys.StoreCacheRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoreIdCacheServiceTest {
+
+    private static final String MANUALS = "ResumoChat_Manuals_v2";
+
+    private final StoreCacheRepository repository = mock(StoreCacheRepository.class);
+    private final StoreIdCacheService cache = new StoreIdCacheService(repository);
+
+    private StoreCacheEntity cached(String storeId, Instant at) {
+        StoreCacheEntity entity = new StoreCacheEntity(MANUALS, storeId);
+        entity.setResolvedAt(at);
+        entity.setValidatedAt(at);
+        when(repository.findById(MANUALS)).thenReturn(Optional.of(entity));
+        return entity;
+    }
+
+    @Test
+    void loadReturnsTheCachedStoreId() {
+        cached("fileSearchStores/manuals", Instant.now());
+
+        assertThat(cache.load(MANUALS)).contains("fileSearchStores/manuals");
+    }
+
+    @Test
+    void loadTreatsAnUnavailableDatabaseAsACacheMiss() {
+        when(repository.findById(MANUALS)).thenThrow(new DataAccessResourceFailureException("sem conexão"));
+
+        assertThat(cache.load(MANUALS)).isEmpty();
+    }
+
+    @Test
+    void saveInsertsUnknownStores() {
+        when(repository.findById(MANUALS)).thenReturn(Optional.empty());
+
+        cache.save(MANUALS, "fileSearchStores/manuals");
+
+        verify(repository).save(any(StoreCacheEntity.class));
+    }
+
+    @Test
+    void revalidatingTheSameIdOnlyBumpsValidatedAt() {
+        Instant resolvedAt = Instant.now().minusSeconds(3600);
+        StoreCacheEntity entity = cached("fileSearchStores/manuals", resolvedAt);
+
+        cache.save(MANUALS, "fileSearchStores/manuals");
+
+        assertThat(entity.getResolvedAt()).isEqualTo(resolvedAt);
+        assertThat(entity.getValidatedAt()).isAfter(resolvedAt);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void aNewIdReplacesTheCachedOne() {
+        Instant resolvedAt = Instant.now().minusSeconds(3600);
+        StoreCacheEntity entity = cached("fileSearchStores/old", resolvedAt);
+
+        cache.save(MANUALS, "fileSearchStores/new");
+
+        assertThat(entity.getStoreId()).isEqualTo("fileSearchStores/new");
+        assertThat(entity.getResolvedAt()).isAfter(resolvedAt);
+    }
+}
@@ -0,0 +1,150 @@
+package com.soften.support.gemini_resumo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SummaryCacheServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private SummaryCacheService memoryOnly(int maxEntries, Duration ttl) {
+        return new SummaryCacheService(new SimpleMeterRegistry(), maxEntries, ttl, false, dir.toString(), 100);
+    }
+
+    private SummaryCacheService withDisk(Duration ttl) {
+        return withDisk(ttl, 100);
+    }
+
+    private SummaryCacheService withDisk(Duration ttl, int diskMaxEntries) {
+        return new SummaryCacheService(new SimpleMeterRegistry(), 10, ttl, true, dir.toString(), diskMaxEntries);
+    }
+
+    private List<Path> diskFiles() throws Exception {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            return walk.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    @Test
+    void keyIgnoresWhitespaceDifferences() {
+        SummaryCacheService cache = memoryOnly(10, Duration.ofHours(1));
+
+        assertThat(cache.key("  Cliente:  erro\n\nna nota ", "prompt"))
+                .isEqualTo(cache.key("Cliente: erro na nota", "prompt"))
+                .isNotEqualTo(cache.key("Cliente: erro na nota", "outro prompt"));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        SummaryCacheService cache = memoryOnly(2, Duration.ofHours(1));
+        cache.put("a", "resumo a");
+        cache.put("b", "resumo b");
+        cache.get("a");
+        cache.put("c", "resumo c");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).contains("resumo a");
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("c")).contains("resumo c");
+    }
+
+    @Test
+    void expiredMemoryEntryIsDropped() throws Exception {
+        SummaryCacheService cache = memoryOnly(10, Duration.ofMillis(50));
+        cache.put("a", "resumo a");
+        assertThat(cache.get("a")).contains("resumo a");
+
+        Thread.sleep(80);
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void diskTierSurvivesANewInstance() {
+        String key = withDisk(Duration.ofHours(1)).key("Cliente: erro na nota", "prompt");
+        withDisk(Duration.ofHours(1)).put(key, "resumo");
+
+        SummaryCacheService restarted = withDisk(Duration.ofHours(1));
+        assertThat(restarted.size()).isZero();
+        assertThat(restarted.get(key)).contains("resumo");
+        assertThat(restarted.size()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredDiskEntryIsDeleted() throws Exception {
+        SummaryCacheService cache = withDisk(Duration.ofHours(1));
+        String key = cache.key("Cliente: erro na nota", "prompt");
+        cache.put(key, "resumo");
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        }
+        assertThat(files).hasSize(1);
+        Files.setLastModifiedTime(files.get(0), FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        assertThat(withDisk(Duration.ofHours(1)).get(key)).isEmpty();
+        assertThat(files.get(0)).doesNotExist();
+    }
+
+    @Test
+    void evictRemovesTheEntryFromBothTiers() {
+        SummaryCacheService cache = withDisk(Duration.ofHours(1));
+        String key = cache.key("Cliente: erro na nota", "prompt");
+        cache.put(key, "não é json");
+
+        cache.evict(key);
+
+        assertThat(cache.get(key)).isEmpty();
+        assertThat(withDisk(Duration.ofHours(1)).get(key)).isEmpty();
+    }
+
+    @Test
+    void sweepDeletesExpiredFilesAndTheOldestBeyondTheCap() throws Exception {
+        SummaryCacheService cache = withDisk(Duration.ofHours(1), 2);
+        Instant now = Instant.now();
+        String[] keys = new String[4];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = cache.key("chamado " + i, "prompt");
+            cache.put(keys[i], "resumo " + i);
+        }
+        List<Path> files = diskFiles();
+        for (Path file : files) {
+            int index = List.of(keys).indexOf(file.getFileName().toString().replace(".txt", ""));
+            Duration age = index == 0 ? Duration.ofHours(2) : Duration.ofMinutes(40 - index * 10L);
+            Files.setLastModifiedTime(file, FileTime.from(now.minus(age)));
+        }
+
+        cache.sweepDisk();
+
+        SummaryCacheService restarted = withDisk(Duration.ofHours(1), 2);
+        assertThat(diskFiles()).hasSize(2);
+        assertThat(restarted.get(keys[0])).isEmpty();
+        assertThat(restarted.get(keys[1])).isEmpty();
+        assertThat(restarted.get(keys[2])).contains("resumo 2");
+        assertThat(restarted.get(keys[3])).contains("resumo 3");
+    }
+
+    @Test
+    void sweepIsANoOpWithoutTheDiskTier() {
+        SummaryCacheService cache = memoryOnly(10, Duration.ofHours(1));
+        cache.put("a", "resumo a");
+
+        cache.sweepDisk();
+
+        assertThat(cache.get("a")).contains("resumo a");
+    }
+}
@@ -0,0 +1,92 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SummaryServiceTest {
+
+    private static final String MARKDOWN = "**PROBLEMA / DÚVIDA:** Erro ao emitir nota.\n\n"
+            + "**SOLUÇÃO APRESENTADA:** Ajustado o cadastro.";
+
+    private final GeminiService geminiService = mock(GeminiService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SummaryService service(Duration disabledFor) {
+        return new SummaryService(geminiService, new ObjectMapper(), meterRegistry, true, 3, disabledFor);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gemini.summary.structured").tag("result", result).counter().count();
+    }
+
+    @Test
+    void invalidStructuredResponseFallsBackToMarkdownAndIsCounted() {
+        SummaryService summaryService = service(Duration.ofMinutes(30));
+        when(geminiService.generateStructuredSummary("chat")).thenReturn("não é json");
+        when(geminiService.generateSummary("chat")).thenReturn(MARKDOWN);
+
+        assertThat(summaryService.createDtoSummary("chat").fullSummary()).isEqualTo(MARKDOWN);
+        assertThat(count("fallback")).isEqualTo(1);
+        assertThat(count("parsed")).isZero();
+        verify(geminiService).evictStructuredSummary("chat");
+    }
+
+    @Test
+    void parsedStructuredResponseStaysCached() {
+        SummaryService summaryService = service(Duration.ofMinutes(30));
+        when(geminiService.generateStructuredSummary("chat")).thenReturn("{\"problem\": \"Erro ao emitir nota\"}");
+
+        assertThat(summaryService.createDtoSummary("chat").problem()).isEqualTo("Erro ao emitir nota");
+        verify(geminiService, never()).evictStructuredSummary("chat");
+        verify(geminiService, never()).generateSummary("chat");
+    }
+
+    @Test
+    void consecutiveFailuresDisableStructuredModeForAWhile() throws Exception {
+        SummaryService summaryService = service(Duration.ofSeconds(1));
+        when(geminiService.generateStructuredSummary("chat")).thenReturn("não é json");
+        when(geminiService.generateSummary("chat")).thenReturn(MARKDOWN);
+
+        for (int i = 0; i < 3; i++) {
+            summaryService.createDtoSummary("chat");
+        }
+        assertThat(summaryService.structuredEnabled()).isFalse();
+
+        reset(geminiService);
+        when(geminiService.generateSummary("chat")).thenReturn(MARKDOWN);
+        summaryService.createDtoSummary("chat");
+        verify(geminiService, never()).generateStructuredSummary("chat");
+
+        Thread.sleep(1100);
+        when(geminiService.generateStructuredSummary("chat")).thenReturn("{}");
+        summaryService.createDtoSummary("chat");
+        verify(geminiService, times(1)).generateStructuredSummary("chat");
+        assertThat(count("parsed")).isEqualTo(1);
+    }
+
+    @Test
+    void successResetsTheConsecutiveFailureCount() {
+        SummaryService summaryService = service(Duration.ofMinutes(30));
+        when(geminiService.generateStructuredSummary("chat")).thenReturn("não é json", "não é json", "{}",
+                "não é json", "não é json");
+        when(geminiService.generateSummary("chat")).thenReturn(MARKDOWN);
+
+        for (int i = 0; i < 5; i++) {
+            summaryService.createDtoSummary("chat");
+        }
+
+        assertThat(summaryService.structuredEnabled()).isTrue();
+        assertThat(count("fallback")).isEqualTo(4);
+    }
+}
@@ -0,0 +1,92 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.dtos.PreprocessedTranscript;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranscriptPreprocessorTest {
+
+    private final TranscriptPreprocessor preprocessor =
+            new TranscriptPreprocessor(new SimpleMeterRegistry(), true, List.of("automatico"));
+
+    @Test
+    void masksRemoteAccessIdsNextToWordsContainingFiscalSubstrings() {
+        assertThat(text("Cliente: me informe o anydesk 123456789")).isEqualTo("Cliente: me informe o anydesk [ID]");
+        assertThat(text("Cliente: pode conferir 987654321")).isEqualTo("Cliente: pode conferir [ID]");
+        assertThat(text("Cliente: infelizmente o id é 555666777")).isEqualTo("Cliente: infelizmente o id é [ID]");
+        assertThat(text("Cliente: confirma o número? 123456789")).isEqualTo("Cliente: confirma o número? 123456789");
+    }
+
+    @Test
+    void keepsNumbersPrecededByFiscalKeywords() {
+        assertThat(text("Cliente: a NF-e 000123456 foi rejeitada")).isEqualTo("Cliente: a NF-e 000123456 foi rejeitada");
+        assertThat(text("Cliente: nota 123456789")).isEqualTo("Cliente: nota 123456789");
+        assertThat(text("Cliente: doc: 1523998")).isEqualTo("Cliente: doc: 1523998");
+        assertThat(text("Cliente: valor de R$ 1.234.567")).isEqualTo("Cliente: valor de R$ 1.234.567");
+        assertThat(text("Cliente: total 1234567,89")).isEqualTo("Cliente: total 1234567,89");
+    }
+
+    @Test
+    void doesNotJoinSmallSpaceSeparatedNumbers() {
+        assertThat(text("Cliente: os itens 10 20 30 40 sumiram")).isEqualTo("Cliente: os itens 10 20 30 40 sumiram");
+        assertThat(text("Cliente: quantidades 1200 3400 5600")).isEqualTo("Cliente: quantidades 1200 3400 5600");
+    }
+
+    @Test
+    void joinsThreeDigitGroupsOfTheSameId() {
+        PreprocessedTranscript result = preprocessor.process("Cliente: anydesk 123 456 789");
+
+        assertThat(result.text()).isEqualTo("Cliente: anydesk [ID]");
+        assertThat(result.maskedIds()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsBotMessagesAndRepeatedGreetings() {
+        PreprocessedTranscript result = preprocessor.process("""
+                [10:00] Automatico: Olá! Escolha uma opção:
+                1 - Suporte
+                [10:01] Cliente: Bom dia
+                [10:02] Cliente: bom dia!
+                [10:03] Analista: Bom dia, em que posso ajudar?
+                """);
+
+        assertThat(result.text()).isEqualTo("""
+                [10:01] Cliente: Bom dia
+                [10:03] Analista: Bom dia, em que posso ajudar?""");
+        assertThat(result.droppedBotLines()).isEqualTo(2);
+        assertThat(result.droppedGreetings()).isEqualTo(1);
+    }
+
+    @Test
+    void collapsesWhitespace() {
+        assertThat(text("Cliente:   erro    ao   emitir  ")).isEqualTo("Cliente: erro ao emitir");
+    }
+
+    @Test
+    void disabledPreprocessorReturnsTheReaderBodyUntouched() {
+        TranscriptPreprocessor disabled =
+                new TranscriptPreprocessor(new SimpleMeterRegistry(), false, List.of("automatico"));
+        String transcript = """
+                [10:00] Automatico: Olá! Escolha uma opção:
+                [10:01] Cliente: Bom dia
+                [10:02] Cliente: bom dia!
+                [10:03] Cliente: meu anydesk é 123456789
+                """;
+
+        PreprocessedTranscript result = disabled.process(new StringReader(transcript));
+
+        assertThat(result.text()).isEqualTo(transcript.trim());
+        assertThat(result.droppedBotLines()).isZero();
+        assertThat(result.droppedGreetings()).isZero();
+        assertThat(result.maskedIds()).isZero();
+    }
+
+    private String text(String transcript) {
+        return preprocessor.process(transcript).text();
+    }
+}
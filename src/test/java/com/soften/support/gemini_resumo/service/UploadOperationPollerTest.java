@@ -0,0 +1,93 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.entities.UploadOperationEntity;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadOperationPollerTest {
+
+    private final UploadOperationService operations = mock(UploadOperationService.class);
+    private final GoogleFileSearchService fileSearchService = mock(GoogleFileSearchService.class);
+    private final UploadOperationPoller poller = new UploadOperationPoller(operations, fileSearchService, 20);
+
+    private void due(String... operationNames) {
+        when(operations.claimDue(20)).thenReturn(Arrays.stream(operationNames)
+                .map(name -> new UploadOperationEntity(name, "manual.pdf", "fileSearchStores/manuals", 1,
+                        Instant.now()))
+                .toList());
+    }
+
+    @Test
+    void pendingOperationsAreRescheduled() {
+        due("operations/op-1");
+        when(fileSearchService.fetchOperation("operations/op-1")).thenReturn(new JSONObject("{\"done\": false}"));
+
+        poller.poll();
+
+        verify(operations).reschedule("operations/op-1");
+    }
+
+    @Test
+    void finishedOperationsAreMarkedActiveOrFailed() {
+        due("operations/op-1", "operations/op-2");
+        when(fileSearchService.fetchOperation("operations/op-1")).thenReturn(new JSONObject("""
+                {"done": true, "response": {"name": "fileSearchStores/manuals/documents/doc-1"}}"""));
+        when(fileSearchService.fetchOperation("operations/op-2")).thenReturn(new JSONObject("""
+                {"done": true, "error": {"message": "arquivo corrompido"}}"""));
+        when(operations.markActive("operations/op-1", "fileSearchStores/manuals/documents/doc-1"))
+                .thenReturn(Optional.empty());
+
+        poller.poll();
+
+        verify(operations).markActive("operations/op-1", "fileSearchStores/manuals/documents/doc-1");
+        verify(operations).markFailed("operations/op-2", "arquivo corrompido");
+        verify(fileSearchService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void supersededDocumentIsDeletedOnceIndexed() {
+        due("operations/op-1");
+        when(fileSearchService.fetchOperation("operations/op-1")).thenReturn(new JSONObject("""
+                {"done": true, "response": {"name": "fileSearchStores/manuals/documents/doc-1"}}"""));
+        when(operations.markActive("operations/op-1", "fileSearchStores/manuals/documents/doc-1"))
+                .thenReturn(Optional.of("fileSearchStores/manuals/documents/doc-1"));
+
+        poller.poll();
+
+        verify(fileSearchService).deleteFile("fileSearchStores/manuals/documents/doc-1");
+    }
+
+    @Test
+    void missingOperationIsMarkedFailedAndOtherErrorsAreRetried() {
+        due("operations/gone", "operations/flaky");
+        when(fileSearchService.fetchOperation("operations/gone"))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+        when(fileSearchService.fetchOperation("operations/flaky")).thenThrow(new RuntimeException("timeout"));
+
+        poller.poll();
+
+        verify(operations).markFailed("operations/gone", "Operação não encontrada no Google File Search.");
+        verify(operations).reschedule("operations/flaky");
+    }
+
+    @Test
+    void claimFailureSkipsTheTick() {
+        when(operations.claimDue(20)).thenThrow(new RuntimeException("banco fora"));
+
+        poller.poll();
+
+        verify(fileSearchService, never()).fetchOperation(anyString());
+    }
+}
@@ -0,0 +1,135 @@
+package com.soften.support.gemini_resumo.service;
+
+import com.soften.support.gemini_resumo.models.dtos.UploadOperationDto;
+import com.soften.support.gemini_resumo.models.entities.UploadOperationEntity;
+import com.soften.support.gemini_resumo.models.enums.UploadOperationStatus;
+import com.soften.support.gemini_resumo.repositorys.UploadOperationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadOperationServiceTest {
+
+    private static final long ONE_MEGABYTE = 1024 * 1024;
+
+    private final UploadOperationRepository repository = mock(UploadOperationRepository.class);
+    private final DocumentManifestService manifest = mock(DocumentManifestService.class);
+
+    private UploadOperationService service(Duration awaitRecheck) {
+        return new UploadOperationService(repository, manifest, new SimpleMeterRegistry(), Duration.ofSeconds(2),
+                Duration.ofSeconds(30), 1.5, Duration.ofMinutes(1), Duration.ofHours(2), awaitRecheck);
+    }
+
+    private UploadOperationEntity processing(String operationName) {
+        UploadOperationEntity operation = new UploadOperationEntity(operationName, "manual.pdf",
+                "fileSearchStores/manuals", ONE_MEGABYTE, Instant.now());
+        when(repository.findByOperationName(operationName)).thenReturn(Optional.of(operation));
+        return operation;
+    }
+
+    @Test
+    void awaitWakesUpAsSoonAsTheOperationFinishes() throws Exception {
+        UploadOperationService service = service(Duration.ofSeconds(30));
+        processing("operations/op-1");
+
+        CompletableFuture<Optional<UploadOperationDto>> awaited = CompletableFuture.supplyAsync(
+                () -> service.await("operations/op-1", Duration.ofSeconds(30)));
+        Thread.sleep(200);
+        service.markActive("operations/op-1", "fileSearchStores/manuals/documents/doc-1");
+
+        UploadOperationDto result = awaited.get(5, TimeUnit.SECONDS).orElseThrow();
+        assertThat(result.status()).isEqualTo(UploadOperationStatus.ACTIVE);
+        assertThat(result.documento()).isEqualTo("fileSearchStores/manuals/documents/doc-1");
+    }
+
+    @Test
+    void awaitReturnsTheCurrentStateWhenTheTimeoutExpires() {
+        UploadOperationService service = service(Duration.ofMillis(50));
+        processing("operations/op-1");
+
+        Optional<UploadOperationDto> result = service.await("operations/op-1", Duration.ofMillis(200));
+
+        assertThat(result).map(UploadOperationDto::status).contains(UploadOperationStatus.PROCESSING);
+        verify(repository, atLeast(3)).findByOperationName("operations/op-1");
+    }
+
+    @Test
+    void awaitReturnsImmediatelyForFinishedOrUnknownOperations() {
+        UploadOperationService service = service(Duration.ofSeconds(30));
+        processing("operations/op-1").setStatus(UploadOperationStatus.FAILED);
+        when(repository.findByOperationName("operations/missing")).thenReturn(Optional.empty());
+
+        assertThat(service.await("operations/op-1", Duration.ofSeconds(30)))
+                .map(UploadOperationDto::status).contains(UploadOperationStatus.FAILED);
+        assertThat(service.await("operations/missing", Duration.ofSeconds(30))).isEmpty();
+    }
+
+    @Test
+    void firstPollIsScheduledFromTheLearnedIndexingRate() {
+        UploadOperationService service = service(Duration.ofSeconds(5));
+        UploadOperationEntity finished = processing("operations/op-1");
+        finished.setCreatedAt(Instant.now().minusSeconds(10));
+        service.markActive("operations/op-1", "fileSearchStores/manuals/documents/doc-1");
+
+        Instant before = Instant.now();
+        service.track("operations/op-2", "manual.pdf", "fileSearchStores/manuals", ONE_MEGABYTE);
+
+        ArgumentCaptor<UploadOperationEntity> tracked = ArgumentCaptor.forClass(UploadOperationEntity.class);
+        verify(repository).save(tracked.capture());
+        assertThat(Duration.between(before, tracked.getValue().getNextPollAt()))
+                .isBetween(Duration.ofSeconds(9), Duration.ofSeconds(11));
+    }
+
+    @Test
+    void markActiveReturnsTheSupersededDocumentToDelete() {
+        UploadOperationService service = service(Duration.ofSeconds(5));
+        processing("operations/op-1");
+        when(manifest.markIndexed("operations/op-1", "fileSearchStores/manuals/documents/doc-1"))
+                .thenReturn(Optional.of("fileSearchStores/manuals/documents/doc-1"));
+
+        assertThat(service.markActive("operations/op-1", "fileSearchStores/manuals/documents/doc-1"))
+                .contains("fileSearchStores/manuals/documents/doc-1");
+        assertThat(service.markActive("operations/op-1", "fileSearchStores/manuals/documents/doc-1")).isEmpty();
+    }
+
+    @Test
+    void claimDueLeasesTheClaimedOperations() {
+        UploadOperationService service = service(Duration.ofSeconds(5));
+        UploadOperationEntity operation = processing("operations/op-1");
+        when(repository.findDue(any(Instant.class), anyInt())).thenReturn(List.of(operation));
+        when(repository.saveAll(List.of(operation))).thenReturn(List.of(operation));
+
+        Instant before = Instant.now();
+        service.claimDue(20);
+
+        assertThat(operation.getPolls()).isEqualTo(1);
+        assertThat(operation.getNextPollAt()).isAfterOrEqualTo(before.plus(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void rescheduleFailsOperationsOlderThanTheMaxAge() {
+        UploadOperationService service = service(Duration.ofSeconds(5));
+        processing("operations/op-1").setCreatedAt(Instant.now().minus(Duration.ofHours(3)));
+
+        service.reschedule("operations/op-1");
+
+        assertThat(service.find("operations/op-1")).map(UploadOperationDto::status)
+                .contains(UploadOperationStatus.FAILED);
+        verify(manifest).markFailed("operations/op-1");
+    }
+}
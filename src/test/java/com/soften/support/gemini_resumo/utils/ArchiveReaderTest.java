@@ -0,0 +1,143 @@
+package com.soften.support.gemini_resumo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveReaderTest {
+
+    @Test
+    void readsZipFilesAndSkipsDirectories() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes, StandardCharsets.UTF_8)) {
+            zip.putNextEntry(new ZipEntry("manuais/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("manuais/nfe.txt"));
+            zip.write("rejeição 539".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("boletos.md"));
+            zip.write("# Boletos".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        assertThat(read(bytes.toByteArray())).containsExactly(
+                Map.entry("manuais/nfe.txt", "rejeição 539"),
+                Map.entry("boletos.md", "# Boletos"));
+    }
+
+    @Test
+    void readsUstarEntriesWithPrefixAndSkipsNonRegularTypes() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "manuais", "", '5', new byte[0]);
+        entry(tar, "nfe.txt", "manuais/fiscal", '0', "conteúdo com mais de um bloco ".repeat(40)
+                .getBytes(StandardCharsets.UTF_8));
+        entry(tar, "atalho", "", '2', new byte[0]);
+        entry(tar, "leia.txt", "", '0', "ok".getBytes(StandardCharsets.UTF_8));
+        end(tar);
+
+        Map<String, String> entries = read(tar.toByteArray());
+
+        assertThat(entries.keySet()).containsExactly("manuais/fiscal/nfe.txt", "leia.txt");
+        assertThat(entries.get("manuais/fiscal/nfe.txt")).hasSize(30 * 40);
+        assertThat(entries.get("leia.txt")).isEqualTo("ok");
+    }
+
+    @Test
+    void appliesGnuLongNamesAndPaxPathsToTheNextEntryOnly() throws IOException {
+        String gnuName = "manuais/" + "muito-longo/".repeat(10) + "gnu.txt";
+        String paxName = "manuais/" + "caminho-pax/".repeat(10) + "pax.txt";
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "././@LongLink", "", 'L', (gnuName + "\0").getBytes(StandardCharsets.UTF_8));
+        entry(tar, "truncado-gnu", "", '0', "gnu".getBytes(StandardCharsets.UTF_8));
+        String record = "path=" + paxName + "\n";
+        String pax = paxRecord("mtime=1700000000.5\n") + paxRecord(record);
+        entry(tar, "PaxHeaders/pax", "", 'x', pax.getBytes(StandardCharsets.UTF_8));
+        entry(tar, "truncado-pax", "", '0', "pax".getBytes(StandardCharsets.UTF_8));
+        entry(tar, "curto.txt", "", '0', "curto".getBytes(StandardCharsets.UTF_8));
+        end(tar);
+
+        assertThat(read(tar.toByteArray())).containsExactly(
+                Map.entry(gnuName, "gnu"),
+                Map.entry(paxName, "pax"),
+                Map.entry("curto.txt", "curto"));
+    }
+
+    @Test
+    void readsGzippedTar() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "nfe.txt", "", '0', "gz".getBytes(StandardCharsets.UTF_8));
+        end(tar);
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gz)) {
+            out.write(tar.toByteArray());
+        }
+
+        assertThat(read(gz.toByteArray())).containsExactly(Map.entry("nfe.txt", "gz"));
+    }
+
+    @Test
+    void handlerMayStopReadingEarlyWithoutDesynchronizingTheTar() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        entry(tar, "grande.txt", "", '0', new byte[3000]);
+        entry(tar, "depois.txt", "", '0', "depois".getBytes(StandardCharsets.UTF_8));
+        end(tar);
+
+        Map<String, String> names = new LinkedHashMap<>();
+        ArchiveReader.read(new ByteArrayInputStream(tar.toByteArray()), (name, content) -> {
+            names.put(name, new String(content.readNBytes(6), StandardCharsets.UTF_8));
+            content.close();
+        });
+
+        assertThat(names.keySet()).containsExactly("grande.txt", "depois.txt");
+        assertThat(names.get("depois.txt")).isEqualTo("depois");
+    }
+
+    private static Map<String, String> read(byte[] archive) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        ArchiveReader.read(new ByteArrayInputStream(archive),
+                (name, content) -> entries.put(name, new String(content.readAllBytes(), StandardCharsets.UTF_8)));
+        return entries;
+    }
+
+    private static String paxRecord(String keyValue) {
+        int length = keyValue.length() + 3;
+        String record = length + " " + keyValue;
+        if (record.length() != length) {
+            record = (length + 1) + " " + keyValue;
+        }
+        return record;
+    }
+
+    private static void entry(ByteArrayOutputStream tar, String name, String prefix, char type, byte[] data) {
+        byte[] header = new byte[512];
+        put(header, 0, name);
+        put(header, 100, "0000644");
+        put(header, 124, String.format("%011o", data.length));
+        header[156] = (byte) type;
+        put(header, 257, "ustar");
+        put(header, 263, "00");
+        put(header, 345, prefix);
+        tar.writeBytes(header);
+        tar.writeBytes(data);
+        tar.writeBytes(new byte[(512 - data.length % 512) % 512]);
+    }
+
+    private static void end(ByteArrayOutputStream tar) {
+        tar.writeBytes(new byte[1024]);
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+}
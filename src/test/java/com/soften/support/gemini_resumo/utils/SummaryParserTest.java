@@ -0,0 +1,93 @@
+package com.soften.support.gemini_resumo.utils;
+
+import com.soften.support.gemini_resumo.benchmark.SummaryParserBenchmark;
+import com.soften.support.gemini_resumo.models.dtos.FormatSummary;
+import com.soften.support.gemini_resumo.models.enums.ModulesCalled;
+import com.soften.support.gemini_resumo.models.enums.MoodClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SummaryParserTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            """
+            **PROBLEMA / DÚVIDA:** O cliente tentou emitir a NF-e e recebeu rejeição 539 por duplicidade.
+
+            **SOLUÇÃO APRESENTADA:** Consultei a nota na SEFAZ, baixei o XML e atualizei o status no sistema.
+
+            **OPORTUNIDADE DE UPSELL:** NÃO. Sem abertura.
+
+            **PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:** Sim
+
+            **HUMOR DO CLIENTE:** NEUTRO.
+
+            **MÓDULO:** NF-E (NOTA FISCAL ELETRÔNICA)
+            """,
+            """
+            **MÓDULO:** frente de caixa
+            **HUMOR DO CLIENTE:** irritado, mas colaborativo
+            **SOLUÇÃO APRESENTADA:** Ajustei a permissão de desconto do perfil do operador.
+            **PROBLEMA / DÚVIDA:** Não conseguia aplicar desconto na venda.
+            **PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:** sim, enviou print da tela
+            **OPORTUNIDADE DE UPSELL:** SIM. Perguntou sobre o módulo de restaurante.
+            """,
+            """
+            **PROBLEMA / DÚVIDA:** Remessa de boletos recusada pelo banco.
+
+            **SOLUÇÃO APRESENTADA:** Corrigi o convênio e gerei nova remessa.
+
+            **MÓDULO:** BOLETOS
+            """,
+            """
+            **PROBLEMA / DÚVIDA:** Dúvida sobre relatório de estoque mínimo.
+            **HUMOR DO CLIENTE:** Bom
+            **MÓDULO:** Relatório de ESTOQUE
+            """,
+            """
+            **PROBLEMA / DÚVIDA:** Erro ao transmitir manifesto.
+            **PRINTS DE ERRO OU DE MENSAGENS RELEVANTES:** Não
+            **HUMOR DO CLIENTE:** neutro, depois bom
+            **MÓDULO:** MDF-e e CT-e
+            """,
+            """
+            **PROBLEMA / DÚVIDA:** Primeiro problema.
+            **PROBLEMA / DÚVIDA:** Problema repetido pelo modelo.
+            **MÓDULO:** Módulo desconhecido
+            """,
+            "Resumo sem nenhuma seção reconhecida.",
+            ""
+    })
+    void matchesTheRegexParser(String summary) {
+        assertThat(SummaryParser.parse(summary)).isEqualTo(SummaryParserBenchmark.parseWithRegex(summary));
+    }
+
+    @Test
+    void resolvesMoodAndModuleWithTheSamePrecedenceAsBefore() {
+        FormatSummary parsed = SummaryParser.parse("""
+                **HUMOR DO CLIENTE:** irritado no início, bom no final
+                **MÓDULO:** estoque e financeiro
+                """);
+
+        assertThat(parsed.mood()).isEqualTo(MoodClient.GOOD);
+        assertThat(parsed.modules()).isEqualTo(ModulesCalled.ESTOQUE);
+        assertThat(ModuleMapper.map("Emissão de NFC-e (Nota Fiscal do Consumidor Eletrônica)"))
+                .isEqualTo(ModulesCalled.NFCE);
+        assertThat(ModuleMapper.map(null)).isEqualTo(ModulesCalled.GENERIC);
+    }
+
+    @Test
+    void keepsInlineBoldInsideASection() {
+        FormatSummary parsed = SummaryParser.parse("""
+                **SOLUÇÃO APRESENTADA:** O perfil **Caixa** não tinha acesso a descontos; ajustei a permissão.
+                **MÓDULO:** FRENTE DE CAIXA
+                """);
+
+        assertThat(parsed.solution())
+                .isEqualTo("O perfil **Caixa** não tinha acesso a descontos; ajustei a permissão.");
+        assertThat(parsed.modules()).isEqualTo(ModulesCalled.FRENTE_DE_CAIXA);
+    }
+}